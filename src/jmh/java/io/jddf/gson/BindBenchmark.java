@@ -0,0 +1,91 @@
+package io.jddf.gson;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * BindBenchmark compares ways of validating a request body and binding it to
+ * an object: parsing it into a JsonElement, validating that, and binding from
+ * it, or reading it with a {@link ValidatingTypeAdapterFactory}. Binding
+ * without validating is included as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BindBenchmark {
+  public static class Order {
+    public long id;
+    public String customer;
+    public String createdAt;
+    public String status;
+    public List<Item> items;
+    public Map<String, String> labels;
+  }
+
+  public static class Item {
+    public String sku;
+    public int quantity;
+    public double price;
+  }
+
+  private Gson gson;
+  private Gson validatingGson;
+  private Validator validator;
+  private CompiledSchema schema;
+  private String json;
+
+  @Setup
+  public void setup() throws InvalidSchemaException {
+    gson = new Gson();
+    validator = new Validator();
+    schema = gson.fromJson("{\"properties\": {\"id\": {\"type\": \"uint32\"}, \"customer\": {\"type\": \"string\"}, "
+        + "\"createdAt\": {\"type\": \"timestamp\"}, \"status\": {\"enum\": [\"OPEN\", \"PAID\", \"SHIPPED\"]}, "
+        + "\"items\": {\"elements\": {\"properties\": {\"sku\": {\"type\": \"string\"}, \"quantity\": {\"type\": \"uint16\"}, "
+        + "\"price\": {\"type\": \"float64\"}}}}}, \"optionalProperties\": {\"labels\": {\"values\": {\"type\": \"string\"}}}}",
+        Schema.class).compile();
+    validatingGson = new GsonBuilder()
+        .registerTypeAdapterFactory(new ValidatingTypeAdapterFactory(validator, Order.class, schema)).create();
+
+    StringBuilder items = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      items.append(i == 0 ? "" : ", ").append("{\"sku\": \"SKU-").append(i)
+          .append("\", \"quantity\": ").append(i + 1).append(", \"price\": ").append(i * 1.25).append("}");
+    }
+
+    json = "{\"id\": 12345, \"customer\": \"Jane Doe\", \"createdAt\": \"2019-08-01T12:34:56.789Z\", \"status\": \"PAID\", "
+        + "\"items\": [" + items + "], \"labels\": {\"channel\": \"web\", \"region\": \"eu\"}}";
+  }
+
+  @Benchmark
+  public Order bindOnly() {
+    return gson.fromJson(json, Order.class);
+  }
+
+  @Benchmark
+  public Order tree() throws ValidationLimitExceededException {
+    JsonElement element = gson.fromJson(json, JsonElement.class);
+    if (!validator.validate(schema, element).isEmpty()) {
+      throw new IllegalStateException();
+    }
+
+    return gson.fromJson(element, Order.class);
+  }
+
+  @Benchmark
+  public Order adapter() {
+    return validatingGson.fromJson(json, Order.class);
+  }
+}
@@ -0,0 +1,67 @@
+package io.jddf.gson;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * ContextBenchmark compares validating small instances, one call at a time,
+ * with a Validator and with a reused ValidationContext. Run it with the GC
+ * profiler to see how much each call allocates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContextBenchmark {
+  private Validator validator;
+  private ValidationContext context;
+  private CompiledSchema schema;
+  private JsonElement validInstance;
+  private JsonElement invalidInstance;
+
+  @Setup
+  public void setup() throws InvalidSchemaException {
+    Gson gson = new Gson();
+
+    validator = new Validator();
+    context = validator.newContext();
+
+    // A typical API request body.
+    schema = gson.fromJson(
+        "{\"properties\": {\"id\": {\"type\": \"uint32\"}, \"name\": {\"type\": \"string\"}, \"tags\": {\"elements\": {\"type\": \"string\"}}}, \"optionalProperties\": {\"email\": {\"type\": \"string\"}}}",
+        Schema.class).compile();
+    validInstance = gson.fromJson("{\"id\": 1, \"name\": \"foo\", \"tags\": [\"a\", \"b\"], \"email\": \"foo@example.com\"}",
+        JsonElement.class);
+    invalidInstance = gson.fromJson("{\"id\": -1, \"name\": \"foo\", \"tags\": [\"a\", 1]}", JsonElement.class);
+  }
+
+  @Benchmark
+  public List<ValidationError> validatorValid() throws ValidationLimitExceededException {
+    return validator.validate(schema, validInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> contextValid() throws ValidationLimitExceededException {
+    return context.validate(schema, validInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> validatorInvalid() throws ValidationLimitExceededException {
+    return validator.validate(schema, invalidInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> contextInvalid() throws ValidationLimitExceededException {
+    return context.validate(schema, invalidInstance);
+  }
+}
@@ -0,0 +1,233 @@
+package io.jddf.gson;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * FormBenchmark measures validation of valid instances against schemas which
+ * stress each of the eight forms of JDDF schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FormBenchmark {
+  @Param({ "false", "true" })
+  public boolean specialized;
+
+  private Validator validator;
+
+  private CompiledSchema emptySchema;
+  private JsonElement emptyInstance;
+  private CompiledSchema refSchema;
+  private JsonElement refInstance;
+  private CompiledSchema typeSchema;
+  private JsonElement typeInstance;
+  private CompiledSchema timestampSchema;
+  private JsonElement timestampInstance;
+  private CompiledSchema enumSchema;
+  private JsonElement enumInstance;
+  private CompiledSchema elementsSchema;
+  private JsonElement elementsInstance;
+  private CompiledSchema propertiesSchema;
+  private JsonElement propertiesInstance;
+  private CompiledSchema valuesSchema;
+  private JsonElement valuesInstance;
+  private CompiledSchema discriminatorSchema;
+  private JsonElement discriminatorInstance;
+
+  @Setup
+  public void setup() throws InvalidSchemaException {
+    validator = new Validator();
+
+    emptySchema = new Schema().compile();
+    emptyInstance = JsonNull.INSTANCE;
+
+    // A chain of 100 definitions, each of which refers to the next.
+    Map<String, Schema> definitions = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      definitions.put("d" + i, i == 99 ? typeSchema(Type.STRING) : refSchema("d" + (i + 1)));
+    }
+    Schema ref = refSchema("d0");
+    ref.setDefinitions(definitions);
+    refSchema = ref.compile();
+    refInstance = new JsonPrimitive("foo");
+
+    typeSchema = typeSchema(Type.UINT32).compile();
+    typeInstance = parse(new JsonPrimitive(4294967295L));
+
+    // Many timestamps, with a mix of fractional seconds and offsets.
+    timestampSchema = elementsSchema(typeSchema(Type.TIMESTAMP)).compile();
+    JsonArray timestamps = new JsonArray();
+    for (int i = 0; i < 1000; i++) {
+      timestamps.add(String.format("2019-%02d-%02dT%02d:%02d:%02d%s", 1 + i % 12, 1 + i % 28, i % 24, i % 60, i % 60,
+          i % 2 == 0 ? ".123Z" : "+05:30"));
+    }
+    timestampInstance = parse(timestamps);
+
+    // An enum with 1000 values.
+    Set<String> enm = new HashSet<>();
+    for (int i = 0; i < 1000; i++) {
+      enm.add("value" + i);
+    }
+    Schema enumSchema = new Schema();
+    enumSchema.setEnum(enm);
+    this.enumSchema = enumSchema.compile();
+    enumInstance = new JsonPrimitive("value500");
+
+    // An array of 10000 int32s.
+    elementsSchema = elementsSchema(typeSchema(Type.INT32)).compile();
+    JsonArray elements = new JsonArray();
+    for (int i = 0; i < 10000; i++) {
+      elements.add(i);
+    }
+    elementsInstance = parse(elements);
+
+    // An object with 200 properties, half of them optional.
+    Map<String, Schema> properties = new LinkedHashMap<>();
+    Map<String, Schema> optionalProperties = new LinkedHashMap<>();
+    JsonObject propertiesObj = new JsonObject();
+    for (int i = 0; i < 200; i++) {
+      (i % 2 == 0 ? properties : optionalProperties).put("property" + i, typeSchema(Type.STRING));
+      propertiesObj.addProperty("property" + i, "value" + i);
+    }
+    Schema propertiesSchema = new Schema();
+    propertiesSchema.setProperties(properties);
+    propertiesSchema.setOptionalProperties(optionalProperties);
+    this.propertiesSchema = propertiesSchema.compile();
+    propertiesInstance = parse(propertiesObj);
+
+    // An object with 10000 members.
+    Schema valuesSchema = new Schema();
+    valuesSchema.setValues(typeSchema(Type.FLOAT64));
+    this.valuesSchema = valuesSchema.compile();
+    JsonObject valuesObj = new JsonObject();
+    for (int i = 0; i < 10000; i++) {
+      valuesObj.addProperty("key" + i, i * 0.5);
+    }
+    valuesInstance = parse(valuesObj);
+
+    // A discriminator with 100 mappings, validating many objects.
+    Map<String, Schema> mapping = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      Schema variant = new Schema();
+      variant.setProperties(Map.of("value" + i, typeSchema(Type.BOOLEAN)));
+      mapping.put("variant" + i, variant);
+    }
+    Discriminator discriminator = new Discriminator();
+    discriminator.setTag("type");
+    discriminator.setMapping(mapping);
+    Schema discriminatorSchema = new Schema();
+    discriminatorSchema.setDiscriminator(discriminator);
+    this.discriminatorSchema = elementsSchema(discriminatorSchema).compile();
+    JsonArray discriminatorArr = new JsonArray();
+    for (int i = 0; i < 1000; i++) {
+      JsonObject variant = new JsonObject();
+      variant.addProperty("type", "variant" + (i % 100));
+      variant.addProperty("value" + (i % 100), true);
+      discriminatorArr.add(variant);
+    }
+    discriminatorInstance = parse(discriminatorArr);
+
+    if (specialized) {
+      emptySchema = emptySchema.specialize();
+      refSchema = refSchema.specialize();
+      typeSchema = typeSchema.specialize();
+      timestampSchema = timestampSchema.specialize();
+      this.enumSchema = this.enumSchema.specialize();
+      elementsSchema = elementsSchema.specialize();
+      this.propertiesSchema = this.propertiesSchema.specialize();
+      this.valuesSchema = this.valuesSchema.specialize();
+      this.discriminatorSchema = this.discriminatorSchema.specialize();
+    }
+  }
+
+  @Benchmark
+  public List<ValidationError> empty() throws ValidationLimitExceededException {
+    return validator.validate(emptySchema, emptyInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> ref() throws ValidationLimitExceededException {
+    return validator.validate(refSchema, refInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> type() throws ValidationLimitExceededException {
+    return validator.validate(typeSchema, typeInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> timestamp() throws ValidationLimitExceededException {
+    return validator.validate(timestampSchema, timestampInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> enm() throws ValidationLimitExceededException {
+    return validator.validate(enumSchema, enumInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> elements() throws ValidationLimitExceededException {
+    return validator.validate(elementsSchema, elementsInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> properties() throws ValidationLimitExceededException {
+    return validator.validate(propertiesSchema, propertiesInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> values() throws ValidationLimitExceededException {
+    return validator.validate(valuesSchema, valuesInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> discriminator() throws ValidationLimitExceededException {
+    return validator.validate(discriminatorSchema, discriminatorInstance);
+  }
+
+  private static Schema refSchema(String ref) {
+    Schema schema = new Schema();
+    schema.setRef(ref);
+    return schema;
+  }
+
+  private static Schema typeSchema(Type type) {
+    Schema schema = new Schema();
+    schema.setType(type);
+    return schema;
+  }
+
+  private static Schema elementsSchema(Schema elements) {
+    Schema schema = new Schema();
+    schema.setElements(elements);
+    return schema;
+  }
+
+  // Round-trips an instance through JSON, so that it's made up of the same
+  // kinds of values Gson produces when parsing input.
+  private static JsonElement parse(JsonElement instance) {
+    return new Gson().fromJson(instance.toString(), JsonElement.class);
+  }
+}
@@ -0,0 +1,90 @@
+package io.jddf.gson;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * IsValidBenchmark measures Validator#isValid on valid instances, which must be
+ * validated in full. Run it with the GC profiler: gc.alloc.rate.norm, the
+ * bytes allocated per call, should be zero for the compiled and specialized
+ * schemas. Objects validated against a {@code values} schema may allocate an
+ * iterator over their members, if the JIT does not eliminate it. The plain
+ * Schema overload is included for comparison, as it compiles the schema on
+ * every call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IsValidBenchmark {
+  @Param({ "properties", "values", "discriminator", "ref" })
+  public String form;
+
+  private Validator validator;
+  private Schema schema;
+  private CompiledSchema compiled;
+  private CompiledSchema specialized;
+  private JsonElement instance;
+
+  @Setup
+  public void setup() throws InvalidSchemaException {
+    Gson gson = new Gson();
+    String schemaJson;
+    String instanceJson;
+
+    switch (form) {
+    case "properties":
+      schemaJson = "{\"properties\": {\"id\": {\"type\": \"uint32\"}, \"name\": {\"type\": \"string\"}, "
+          + "\"tags\": {\"elements\": {\"enum\": [\"a\", \"b\"]}}}, "
+          + "\"optionalProperties\": {\"email\": {\"type\": \"string\"}}}";
+      instanceJson = "{\"id\": 1, \"name\": \"foo\", \"tags\": [\"a\", \"b\"], \"email\": \"foo@example.com\"}";
+      break;
+    case "values":
+      schemaJson = "{\"values\": {\"type\": \"float64\"}}";
+      instanceJson = "{\"a\": 1, \"b\": 2.5, \"c\": 3}";
+      break;
+    case "discriminator":
+      schemaJson = "{\"discriminator\": {\"tag\": \"kind\", \"mapping\": {"
+          + "\"circle\": {\"properties\": {\"r\": {\"type\": \"float64\"}}}, "
+          + "\"square\": {\"properties\": {\"side\": {\"type\": \"float64\"}}}}}}";
+      instanceJson = "{\"kind\": \"square\", \"side\": 2}";
+      break;
+    default:
+      schemaJson = "{\"definitions\": {\"node\": {\"properties\": {\"value\": {\"type\": \"string\"}}, "
+          + "\"optionalProperties\": {\"next\": {\"ref\": \"node\"}}}}, \"ref\": \"node\"}";
+      instanceJson = "{\"value\": \"a\", \"next\": {\"value\": \"b\", \"next\": {\"value\": \"c\"}}}";
+      break;
+    }
+
+    validator = new Validator();
+    schema = gson.fromJson(schemaJson, Schema.class);
+    compiled = schema.compile();
+    specialized = compiled.specialize();
+    instance = gson.fromJson(instanceJson, JsonElement.class);
+  }
+
+  @Benchmark
+  public boolean compiled() throws ValidationLimitExceededException {
+    return validator.isValid(compiled, instance);
+  }
+
+  @Benchmark
+  public boolean specialized() throws ValidationLimitExceededException {
+    return validator.isValid(specialized, instance);
+  }
+
+  @Benchmark
+  public boolean uncompiled() throws ValidationLimitExceededException {
+    return validator.isValid(schema, instance);
+  }
+}
@@ -0,0 +1,75 @@
+package io.jddf.gson;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * MaxErrorsBenchmark measures how quickly validation stops once the max errors
+ * of a Validator is reached, on instances which are full of errors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MaxErrorsBenchmark {
+  @Param({ "1", "10" })
+  public int maxErrors;
+
+  private Validator validator;
+  private CompiledSchema flatSchema;
+  private JsonElement flatInstance;
+  private CompiledSchema nestedSchema;
+  private JsonElement nestedInstance;
+
+  @Setup
+  public void setup() throws InvalidSchemaException {
+    Gson gson = new Gson();
+
+    validator = Validator.builder().setMaxErrors(maxErrors).build();
+
+    // Every element of this array is an error.
+    flatSchema = gson.fromJson("{\"elements\": {\"type\": \"string\"}}", Schema.class).compile();
+    JsonArray flat = new JsonArray();
+    for (int i = 0; i < 1000; i++) {
+      flat.add(i);
+    }
+    flatInstance = flat;
+
+    // Errors are found deep inside the instance, so stopping validation means
+    // unwinding many frames.
+    nestedSchema = gson.fromJson(
+        "{\"definitions\": {\"node\": {\"properties\": {\"value\": {\"type\": \"string\"}}, \"optionalProperties\": {\"children\": {\"elements\": {\"ref\": \"node\"}}}}}, \"ref\": \"node\"}",
+        Schema.class).compile();
+    nestedInstance = gson.fromJson(nest(40), JsonElement.class);
+  }
+
+  private static String nest(int depth) {
+    if (depth == 0) {
+      return "{\"value\": 1}";
+    }
+
+    return "{\"value\": 1, \"children\": [" + nest(depth - 1) + ", " + nest(0) + "]}";
+  }
+
+  @Benchmark
+  public List<ValidationError> flat() throws ValidationLimitExceededException {
+    return validator.validate(flatSchema, flatInstance);
+  }
+
+  @Benchmark
+  public List<ValidationError> nested() throws ValidationLimitExceededException {
+    return validator.validate(nestedSchema, nestedInstance);
+  }
+}
@@ -0,0 +1,128 @@
+package io.jddf.gson;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * NdjsonBenchmark measures how validation of a newline-delimited JSON file
+ * scales with the number of threads available to it. Scores are in records
+ * per second.
+ * <p>
+ *
+ * A parallelism of zero validates the file one line at a time on a single
+ * thread, as a baseline. Otherwise, the file is validated with
+ * {@link Validator#validateAll(CompiledSchema, java.io.Reader, java.util.function.Consumer)}
+ * in a ForkJoinPool with the given parallelism or, if mapped is set, with
+ * {@link Validator#validateAll(CompiledSchema, FileChannel, java.util.function.Consumer)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NdjsonBenchmark {
+  private static final int RECORDS = 100000;
+
+  @Param({ "0", "1", "2", "4", "8", "16", "32" })
+  public int parallelism;
+
+  @Param({ "false", "true" })
+  public boolean mapped;
+
+  private ForkJoinPool pool;
+  private Validator validator;
+  private CompiledSchema schema;
+  private Path file;
+
+  @Setup
+  public void setup() throws InvalidSchemaException, IOException {
+    Gson gson = new Gson();
+
+    if (parallelism > 0) {
+      pool = new ForkJoinPool(parallelism);
+    }
+
+    validator = new Validator();
+    schema = gson.fromJson(
+        "{\"properties\": {\"id\": {\"type\": \"uint32\"}, \"name\": {\"type\": \"string\"}, \"createdAt\": {\"type\": \"timestamp\"}, \"status\": {\"enum\": [\"ACTIVE\", \"INACTIVE\"]}}, \"optionalProperties\": {\"labels\": {\"values\": {\"type\": \"string\"}}}}",
+        Schema.class).compile();
+
+    file = Files.createTempFile("jddf-gson", ".ndjson");
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < RECORDS; i++) {
+        writer.write("{\"id\": " + i + ", \"name\": \"name" + i
+            + "\", \"createdAt\": \"2019-08-01T12:34:56.789Z\", \"status\": \"ACTIVE\", \"labels\": {\"team\": \"team"
+            + i % 10 + "\"}}");
+        writer.newLine();
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    if (pool != null) {
+      pool.shutdown();
+    }
+
+    Files.delete(file);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public long validate()
+      throws ValidationLimitExceededException, IOException, InterruptedException, ExecutionException {
+    if (pool == null) {
+      return sequential();
+    }
+
+    if (mapped) {
+      return pool.submit(() -> {
+        try (FileChannel channel = FileChannel.open(file)) {
+          return validator.validateAll(schema, channel, result -> {
+          }).getInvalidRecords();
+        }
+      }).get();
+    }
+
+    return pool.submit(() -> {
+      try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+        return validator.validateAll(schema, reader, result -> {
+        }).getInvalidRecords();
+      }
+    }).get();
+  }
+
+  private long sequential() throws ValidationLimitExceededException, IOException {
+    long invalid = 0;
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        if (!validator.validate(schema, new JsonReader(new StringReader(line))).isEmpty()) {
+          invalid++;
+        }
+      }
+    }
+
+    return invalid;
+  }
+}
@@ -0,0 +1,90 @@
+package io.jddf.gson;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * ParallelBenchmark measures how validation of a single, very large array
+ * scales with the number of threads available to it.
+ * <p>
+ *
+ * A parallelism of zero validates sequentially, as a baseline. Otherwise,
+ * validation runs in a ForkJoinPool with the given parallelism.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParallelBenchmark {
+  @Param({ "0", "1", "2", "4", "8", "16", "32" })
+  public int parallelism;
+
+  private ForkJoinPool pool;
+  private Validator validator;
+  private CompiledSchema schema;
+  private JsonElement instance;
+
+  @Setup
+  public void setup() throws InvalidSchemaException {
+    Gson gson = new Gson();
+
+    validator = new Validator();
+    if (parallelism > 0) {
+      pool = new ForkJoinPool(parallelism);
+      validator = Validator.builder().setParallelThreshold(4096).build();
+    }
+
+    schema = gson.fromJson(
+        "{\"elements\": {\"properties\": {\"id\": {\"type\": \"uint32\"}, \"name\": {\"type\": \"string\"}, \"createdAt\": {\"type\": \"timestamp\"}, \"labels\": {\"values\": {\"type\": \"string\"}}}}}",
+        Schema.class).compile();
+
+    // An array of 250000 objects, such as one might see in a bulk import.
+    JsonArray arr = new JsonArray();
+    for (int i = 0; i < 250000; i++) {
+      JsonObject labels = new JsonObject();
+      labels.addProperty("team", "team" + i % 10);
+      labels.addProperty("region", "region" + i % 3);
+
+      JsonObject element = new JsonObject();
+      element.addProperty("id", i);
+      element.addProperty("name", "name" + i);
+      element.addProperty("createdAt", "2019-08-01T12:34:56.789Z");
+      element.add("labels", labels);
+      arr.add(element);
+    }
+    instance = gson.fromJson(arr.toString(), JsonElement.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  @Benchmark
+  public List<ValidationError> validate()
+      throws ValidationLimitExceededException, InterruptedException, ExecutionException {
+    if (pool == null) {
+      return validator.validate(schema, instance);
+    }
+
+    return pool.submit(() -> validator.validate(schema, instance)).get();
+  }
+}
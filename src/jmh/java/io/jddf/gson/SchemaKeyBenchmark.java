@@ -0,0 +1,66 @@
+package io.jddf.gson;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * SchemaKeyBenchmark compares looking up schemas in a set, keyed by Schema and
+ * by ImmutableSchema, across a synthetic registry of tenant schemas which are
+ * identical except for one property each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SchemaKeyBenchmark {
+  private static final int TENANTS = 8000;
+
+  private Set<Schema> schemas;
+  private Set<ImmutableSchema> immutableSchemas;
+  private Schema schema;
+  private ImmutableSchema immutableSchema;
+
+  @Setup
+  public void setup() throws InvalidSchemaException {
+    Gson gson = new Gson();
+    SchemaInterner interner = new SchemaInterner();
+
+    schemas = new HashSet<>();
+    immutableSchemas = new HashSet<>();
+    for (int i = 0; i < TENANTS; i++) {
+      schemas.add(gson.fromJson(tenant(i), Schema.class));
+      immutableSchemas.add(interner.intern(gson.fromJson(tenant(i), Schema.class)));
+    }
+
+    schema = gson.fromJson(tenant(TENANTS / 2), Schema.class);
+    immutableSchema = interner.intern(gson.fromJson(tenant(TENANTS / 2), Schema.class));
+  }
+
+  @Benchmark
+  public boolean schema() {
+    return schemas.contains(schema);
+  }
+
+  @Benchmark
+  public boolean immutableSchema() {
+    return immutableSchemas.contains(immutableSchema);
+  }
+
+  static String tenant(int i) {
+    return "{\"definitions\": {\"address\": {\"properties\": {\"street\": {\"type\": \"string\"}, \"city\": {\"type\": \"string\"}, \"zip\": {\"type\": \"string\"}}}}, "
+        + "\"properties\": {\"id\": {\"type\": \"uint32\"}, \"createdAt\": {\"type\": \"timestamp\"}, \"updatedAt\": {\"type\": \"timestamp\"}, "
+        + "\"status\": {\"enum\": [\"ACTIVE\", \"INACTIVE\", \"DELETED\"]}, \"billing\": {\"ref\": \"address\"}, \"shipping\": {\"ref\": \"address\"}, "
+        + "\"items\": {\"elements\": {\"properties\": {\"sku\": {\"type\": \"string\"}, \"qty\": {\"type\": \"uint16\"}}}}}, "
+        + "\"optionalProperties\": {\"custom" + i + "\": {\"type\": \"string\"}, \"labels\": {\"values\": {\"type\": \"string\"}}}}";
+  }
+}
@@ -0,0 +1,77 @@
+package io.jddf.gson;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * SpecBenchmark measures validation of every instance in a file of the JDDF
+ * spec's validation test suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SpecBenchmark {
+  @Param({ "001-empty", "002-ref", "003-type", "004-enum", "005-elements", "006-properties", "007-values",
+      "008-discriminator" })
+  public String file;
+
+  private Validator validator;
+  private List<CompiledSchema> schemas;
+  private List<JsonElement> instances;
+
+  @Setup
+  public void setup() throws UnsupportedEncodingException, InvalidSchemaException {
+    ClassLoader classLoader = this.getClass().getClassLoader();
+    InputStream inputStream = classLoader.getResourceAsStream("spec/tests/validation/" + file + ".json");
+    Gson gson = new Gson();
+
+    List<TestSuite> suites = gson.fromJson(new InputStreamReader(inputStream, "UTF-8"),
+        new TypeToken<List<TestSuite>>() {
+        }.getType());
+
+    validator = new Validator();
+    schemas = new ArrayList<>();
+    instances = new ArrayList<>();
+    for (TestSuite suite : suites) {
+      CompiledSchema schema = suite.schema.compile();
+      for (TestCase testCase : suite.instances) {
+        schemas.add(schema);
+        instances.add(testCase.instance);
+      }
+    }
+  }
+
+  @Benchmark
+  public void validate(Blackhole blackhole) throws ValidationLimitExceededException {
+    for (int i = 0; i < instances.size(); i++) {
+      blackhole.consume(validator.validate(schemas.get(i), instances.get(i)));
+    }
+  }
+
+  private static class TestSuite {
+    private Schema schema;
+    private List<TestCase> instances;
+  }
+
+  private static class TestCase {
+    private JsonElement instance;
+  }
+}
@@ -0,0 +1,41 @@
+package io.jddf.gson;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * TimestampBenchmark compares checking timestamps with {@link Timestamps}
+ * against parsing them with {@link DateTimeFormatter}, which is how timestamps
+ * were previously checked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimestampBenchmark {
+  @Param({ "1985-04-12T23:20:50.52Z", "1996-12-19T16:39:57-08:00", "1985-04-12T23:20:50" })
+  public String timestamp;
+
+  @Benchmark
+  public boolean timestamps() {
+    return Timestamps.isValid(timestamp);
+  }
+
+  @Benchmark
+  public boolean dateTimeFormatter() {
+    try {
+      DateTimeFormatter.ISO_ZONED_DATE_TIME.parse(timestamp);
+      return true;
+    } catch (DateTimeParseException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package io.jddf.gson;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Utf8Benchmark compares ways of validating a payload which arrives as UTF-8
+ * bytes: decoding it and parsing it into a JsonElement, reading it with a
+ * JsonReader, and scanning the bytes directly, from heap and direct buffers.
+ * Run it with the GC profiler to see how much each approach allocates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Utf8Benchmark {
+  private Gson gson;
+  private ValidationContext context;
+  private CompiledSchema schema;
+  private ByteBuffer heap;
+  private ByteBuffer direct;
+
+  @Setup
+  public void setup() throws InvalidSchemaException {
+    gson = new Gson();
+    context = new Validator().newContext();
+    schema = gson.fromJson("{\"properties\": {\"id\": {\"type\": \"uint32\"}, \"customer\": {\"type\": \"string\"}, "
+        + "\"createdAt\": {\"type\": \"timestamp\"}, \"status\": {\"enum\": [\"OPEN\", \"PAID\", \"SHIPPED\"]}, "
+        + "\"items\": {\"elements\": {\"discriminator\": {\"tag\": \"kind\", \"mapping\": {"
+        + "\"product\": {\"properties\": {\"sku\": {\"type\": \"string\"}, \"quantity\": {\"type\": \"uint16\"}}}, "
+        + "\"discount\": {\"properties\": {\"code\": {\"type\": \"string\"}}}}}}}}, "
+        + "\"optionalProperties\": {\"labels\": {\"values\": {\"type\": \"string\"}}}}", Schema.class).compile();
+
+    StringBuilder items = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      items.append(i == 0 ? "" : ", ");
+      if (i % 5 == 4) {
+        items.append("{\"code\": \"SAVE").append(i).append("\", \"kind\": \"discount\"}");
+      } else {
+        items.append("{\"kind\": \"product\", \"sku\": \"SKU-").append(i).append("\", \"quantity\": ").append(i + 1)
+            .append("}");
+      }
+    }
+
+    byte[] bytes = ("{\"id\": 12345, \"customer\": \"Zo\u00eb Kr\u00fcger\", \"createdAt\": \"2019-08-01T12:34:56.789Z\", "
+        + "\"status\": \"PAID\", \"items\": [" + items + "], \"labels\": {\"channel\": \"web\", \"region\": \"eu\"}}")
+            .getBytes(StandardCharsets.UTF_8);
+    heap = ByteBuffer.wrap(bytes);
+    direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+  }
+
+  @Benchmark
+  public List<ValidationError> tree() throws ValidationLimitExceededException {
+    String json = StandardCharsets.UTF_8.decode(heap.duplicate()).toString();
+    return context.validate(schema, gson.fromJson(json, JsonElement.class));
+  }
+
+  @Benchmark
+  public List<ValidationError> reader() throws ValidationLimitExceededException, IOException {
+    return context.validate(schema, new JsonReader(new InputStreamReader(
+        new ByteArrayInputStream(heap.array()), StandardCharsets.UTF_8)));
+  }
+
+  @Benchmark
+  public List<ValidationError> bytesHeap() throws ValidationLimitExceededException, IOException {
+    return context.validate(schema, heap);
+  }
+
+  @Benchmark
+  public List<ValidationError> bytesDirect() throws ValidationLimitExceededException, IOException {
+    return context.validate(schema, direct);
+  }
+}
@@ -0,0 +1,72 @@
+package io.jddf.gson;
+
+/**
+ * BatchSummary describes the outcome of validating a batch of records.
+ * <p>
+ *
+ * Instances of this class are returned by
+ * {@link Validator#validateAll(CompiledSchema, java.io.Reader, java.util.function.Consumer)},
+ * {@link Validator#validateAll(CompiledSchema, java.nio.channels.FileChannel, java.util.function.Consumer)}
+ * and
+ * {@link Validator#validateAll(CompiledSchema, Iterable, java.util.function.Consumer)}.
+ */
+public final class BatchSummary {
+  private final long records;
+  private final long invalidRecords;
+  private final long elapsedNanos;
+
+  BatchSummary(long records, long invalidRecords, long elapsedNanos) {
+    this.records = records;
+    this.invalidRecords = invalidRecords;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Get the number of records validated.
+   * <p>
+   *
+   * @return the number of records in the batch
+   */
+  public long getRecords() {
+    return records;
+  }
+
+  /**
+   * Get the number of records which had validation errors, or which could not
+   * be validated at all.
+   * <p>
+   *
+   * @return the number of invalid records in the batch, including those which
+   *         are malformed or went over a limit of the validator
+   */
+  public long getInvalidRecords() {
+    return invalidRecords;
+  }
+
+  /**
+   * Get how long the batch took to validate, from the first record being read
+   * to the last result being reported.
+   * <p>
+   *
+   * @return the elapsed time, in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Get the rate at which records were validated.
+   * <p>
+   *
+   * @return the number of records validated per second
+   */
+  public double getRecordsPerSecond() {
+    return elapsedNanos == 0 ? 0 : records * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "BatchSummary [records=" + records + ", invalidRecords=" + invalidRecords + ", elapsedNanos="
+        + elapsedNanos + "]";
+  }
+}
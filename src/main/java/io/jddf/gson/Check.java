@@ -0,0 +1,606 @@
+package io.jddf.gson;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Check is a validator specialized to a single compiled schema node.
+ * <p>
+ *
+ * Where Validator interprets compiled schemas, working out what to do with each
+ * node as it reaches it, a tree of Checks has all of those decisions made ahead
+ * of time. Each kind of node, and each type, has a class of its own, whose
+ * methods contain only the code that node needs, with its property names,
+ * enum values and bounds held in final fields. Refs point directly at the Check
+ * of their definition.
+ * <p>
+ *
+ * Checks report errors through Validator's VM, and follow exactly the same
+ * rules as Validator does when interpreting a schema, so they are
+ * interchangeable with it. Instances of this class are immutable once built.
+ */
+abstract class Check {
+  /**
+   * Validates an instance, recording any errors with the given VM, and returns
+   * whether validation should continue. Each Check counts itself as a node
+   * visited, just as the interpreter counts each node.
+   */
+  abstract boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException;
+
+  /**
+   * Determines whether an instance is valid, given the number of refs already
+   * followed, counting the root schema as one.
+   */
+  abstract boolean isValid(JsonElement instance, int depth, int maxDepth) throws ValidationLimitExceededException;
+
+  /**
+   * Builds the Checks for a compiled schema node and everything beneath it.
+   */
+  static Check of(CompiledSchema.Node root) {
+    Builder builder = new Builder();
+    Check check = builder.build(root);
+
+    // The definition a ref points at is built the first time it is needed, and
+    // then shared by every ref to that definition. This allows for cycles.
+    while (!builder.refs.isEmpty()) {
+      RefCheck ref = builder.refs.pop();
+      Check target = builder.definitions.get(ref.node.target);
+      if (target == null) {
+        target = builder.build(ref.node.target);
+        builder.definitions.put(ref.node.target, target);
+      }
+
+      ref.target = target;
+    }
+
+    return check;
+  }
+
+  private static class Builder {
+    private final Deque<RefCheck> refs = new ArrayDeque<>();
+    private final Map<CompiledSchema.Node, Check> definitions = new IdentityHashMap<>();
+
+    private Check build(CompiledSchema.Node node) {
+      switch (node.form) {
+      case REF:
+        RefCheck ref = new RefCheck(node);
+        this.refs.push(ref);
+        return ref;
+      case TYPE:
+        return buildType(node);
+      case ENUM:
+        return node.enm.size() <= SmallEnumCheck.MAX_SIZE ? new SmallEnumCheck(node) : new EnumCheck(node);
+      case ELEMENTS:
+        return new ElementsCheck(node, this.build(node.elements));
+      case PROPERTIES:
+        Check[] checks = new Check[node.propertyNodes.length];
+        for (int i = 0; i < checks.length; i++) {
+          checks[i] = this.build(node.propertyNodes[i]);
+        }
+
+        return new PropertiesCheck(node, checks);
+      case VALUES:
+        return new ValuesCheck(node, this.build(node.values));
+      case DISCRIMINATOR:
+        Map<String, Check> mapping = new HashMap<>();
+        for (Map.Entry<String, CompiledSchema.Node> entry : node.mapping.entrySet()) {
+          mapping.put(entry.getKey(), this.build(entry.getValue()));
+        }
+
+        return new DiscriminatorCheck(node, mapping);
+      default:
+        return EmptyCheck.INSTANCE;
+      }
+    }
+
+    private static Check buildType(CompiledSchema.Node node) {
+      switch (node.type) {
+      case BOOLEAN:
+        return new BooleanCheck(node);
+      case FLOAT32:
+      case FLOAT64:
+        return new NumberCheck(node);
+      case INT8:
+        return new IntCheck(node, -128, 127);
+      case UINT8:
+        return new IntCheck(node, 0, 255);
+      case INT16:
+        return new IntCheck(node, -32768, 32767);
+      case UINT16:
+        return new IntCheck(node, 0, 65535);
+      case INT32:
+        return new IntCheck(node, -2147483648, 2147483647);
+      case UINT32:
+        return new IntCheck(node, 0, 4294967295L);
+      case STRING:
+        return new StringCheck(node);
+      case TIMESTAMP:
+        return new TimestampCheck(node);
+      default:
+        return EmptyCheck.INSTANCE;
+      }
+    }
+  }
+
+  private static final class EmptyCheck extends Check {
+    private static final EmptyCheck INSTANCE = new EmptyCheck();
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      return true;
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) {
+      return true;
+    }
+  }
+
+  private static final class RefCheck extends Check {
+    private final CompiledSchema.Node node;
+    private Check target;
+
+    private RefCheck(CompiledSchema.Node node) {
+      this.node = node;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      if (!vm.pushRef(this.node)) {
+        return this.target.validate(instance, vm);
+      }
+
+      boolean ok = this.target.validate(instance, vm);
+      vm.popRef();
+      return ok;
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) throws ValidationLimitExceededException {
+      if (this.node.loops || depth == maxDepth) {
+        throw new MaxDepthExceededException();
+      }
+
+      return this.target.isValid(instance, depth + 1, maxDepth);
+    }
+  }
+
+  private static final class BooleanCheck extends Check {
+    private final Path errorPath;
+
+    private BooleanCheck(CompiledSchema.Node node) {
+      this.errorPath = node.errorPath;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      return this.isValid(instance, 0, 0) || vm.pushError(this.errorPath);
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) {
+      return instance.isJsonPrimitive() && ((JsonPrimitive) instance).isBoolean();
+    }
+  }
+
+  private static final class NumberCheck extends Check {
+    private final Path errorPath;
+
+    private NumberCheck(CompiledSchema.Node node) {
+      this.errorPath = node.errorPath;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      return this.isValid(instance, 0, 0) || vm.pushError(this.errorPath);
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) {
+      return instance.isJsonPrimitive() && ((JsonPrimitive) instance).isNumber();
+    }
+  }
+
+  private static final class IntCheck extends Check {
+    private final Path errorPath;
+    private final long min;
+    private final long max;
+
+    private IntCheck(CompiledSchema.Node node, long min, long max) {
+      this.errorPath = node.errorPath;
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      return this.isValid(instance, 0, 0) || vm.pushError(this.errorPath);
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) {
+      if (!instance.isJsonPrimitive()) {
+        return false;
+      }
+
+      JsonPrimitive primitive = (JsonPrimitive) instance;
+      return primitive.isNumber() && Numbers.isInt(primitive.getAsNumber(), this.min, this.max);
+    }
+  }
+
+  private static final class StringCheck extends Check {
+    private final Path errorPath;
+
+    private StringCheck(CompiledSchema.Node node) {
+      this.errorPath = node.errorPath;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      return this.isValid(instance, 0, 0) || vm.pushError(this.errorPath);
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) {
+      return instance.isJsonPrimitive() && ((JsonPrimitive) instance).isString();
+    }
+  }
+
+  private static final class TimestampCheck extends Check {
+    private final Path errorPath;
+
+    private TimestampCheck(CompiledSchema.Node node) {
+      this.errorPath = node.errorPath;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      return this.isValid(instance, 0, 0) || vm.pushError(this.errorPath);
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) {
+      if (!instance.isJsonPrimitive()) {
+        return false;
+      }
+
+      JsonPrimitive primitive = (JsonPrimitive) instance;
+      return primitive.isString() && Timestamps.isValid(primitive.getAsString());
+    }
+  }
+
+  // Enums with only a few values are checked by comparing against each value
+  // in turn, comparing hashes before strings.
+  private static final class SmallEnumCheck extends Check {
+    private static final int MAX_SIZE = 8;
+
+    private final Path errorPath;
+    private final String[] values;
+    private final int[] hashes;
+
+    private SmallEnumCheck(CompiledSchema.Node node) {
+      this.errorPath = node.errorPath;
+      this.values = node.enm.toArray(new String[0]);
+      this.hashes = new int[this.values.length];
+      for (int i = 0; i < this.values.length; i++) {
+        this.hashes[i] = this.values[i].hashCode();
+      }
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      return this.isValid(instance, 0, 0) || vm.pushError(this.errorPath);
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) {
+      if (!instance.isJsonPrimitive() || !((JsonPrimitive) instance).isString()) {
+        return false;
+      }
+
+      String value = instance.getAsString();
+      int hash = value.hashCode();
+      for (int i = 0; i < this.values.length; i++) {
+        if (this.hashes[i] == hash && this.values[i].equals(value)) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+  }
+
+  private static final class EnumCheck extends Check {
+    private final Path errorPath;
+    private final Set<String> values;
+
+    private EnumCheck(CompiledSchema.Node node) {
+      this.errorPath = node.errorPath;
+      this.values = node.enm;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      return this.isValid(instance, 0, 0) || vm.pushError(this.errorPath);
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) {
+      return instance.isJsonPrimitive() && ((JsonPrimitive) instance).isString()
+          && this.values.contains(instance.getAsString());
+    }
+  }
+
+  private static final class ElementsCheck extends Check {
+    private final Path errorPath;
+    private final Check elements;
+
+    private ElementsCheck(CompiledSchema.Node node, Check elements) {
+      this.errorPath = node.errorPath;
+      this.elements = elements;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      if (!instance.isJsonArray()) {
+        return vm.pushError(this.errorPath);
+      }
+
+      JsonArray instanceArr = instance.getAsJsonArray();
+      if (vm.isParallel(instanceArr.size())) {
+        return vm.validateParallel(instanceArr, this.elements::validate);
+      }
+
+      for (int i = 0; i < instanceArr.size(); i++) {
+        vm.pushToken(i);
+        if (!this.elements.validate(instanceArr.get(i), vm)) {
+          return false;
+        }
+        vm.popToken();
+      }
+
+      return true;
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) throws ValidationLimitExceededException {
+      if (!instance.isJsonArray()) {
+        return false;
+      }
+
+      JsonArray instanceArr = instance.getAsJsonArray();
+      for (int i = 0; i < instanceArr.size(); i++) {
+        if (!this.elements.isValid(instanceArr.get(i), depth, maxDepth)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+
+  private static final class PropertiesCheck extends Check {
+    private final Path path;
+    private final Path errorPath;
+    private final String[] keys;
+    private final Path[] paths;
+    private final Check[] checks;
+    private final int required;
+    private final CompiledSchema.PropertyTable table;
+    private final boolean additionalProperties;
+
+    private PropertiesCheck(CompiledSchema.Node node, Check[] checks) {
+      this.path = node.path;
+      this.errorPath = node.errorPath;
+      this.keys = node.propertyKeys;
+      this.paths = new Path[node.propertyNodes.length];
+      for (int i = 0; i < this.paths.length; i++) {
+        this.paths[i] = node.propertyNodes[i].path;
+      }
+
+      this.checks = checks;
+      this.required = node.requiredProperties;
+      this.table = node.propertyTable;
+      this.additionalProperties = node.additionalProperties;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      if (!instance.isJsonObject()) {
+        return vm.pushError(this.errorPath);
+      }
+
+      // As in the interpreter, the members are set aside by property index, so
+      // that the properties are validated in the order of the schema.
+      JsonObject instanceObj = instance.getAsJsonObject();
+      int base = vm.reserveMembers(this.checks.length);
+      boolean unknown = false;
+      for (Map.Entry<String, JsonElement> entry : instanceObj.entrySet()) {
+        int index = this.table.indexOf(entry.getKey());
+        if (index == CompiledSchema.PropertyTable.NOT_FOUND) {
+          unknown = true;
+        } else if (index < this.checks.length) {
+          vm.putMember(base + index, entry.getValue());
+        }
+      }
+
+      for (int i = 0; i < this.checks.length; i++) {
+        Object member = vm.takeMember(base + i);
+        if (member == null) {
+          if (i < this.required && !vm.pushError(this.paths[i])) {
+            return false;
+          }
+
+          continue;
+        }
+
+        vm.pushToken(this.keys[i]);
+        if (!this.checks[i].validate((JsonElement) member, vm)) {
+          return false;
+        }
+        vm.popToken();
+      }
+      vm.releaseMembers(base);
+
+      if (unknown && !this.additionalProperties) {
+        for (Map.Entry<String, JsonElement> entry : instanceObj.entrySet()) {
+          if (this.table.indexOf(entry.getKey()) == CompiledSchema.PropertyTable.NOT_FOUND
+              && !vm.pushError(this.path, entry.getKey())) {
+            return false;
+          }
+        }
+      }
+
+      return true;
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) throws ValidationLimitExceededException {
+      if (!instance.isJsonObject()) {
+        return false;
+      }
+
+      int required = 0;
+      for (Map.Entry<String, JsonElement> entry : instance.getAsJsonObject().entrySet()) {
+        int index = this.table.indexOf(entry.getKey());
+        if (index == CompiledSchema.PropertyTable.NOT_FOUND) {
+          if (!this.additionalProperties) {
+            return false;
+          }
+        } else if (index < this.checks.length) {
+          if (!this.checks[index].isValid(entry.getValue(), depth, maxDepth)) {
+            return false;
+          }
+
+          if (index < this.required) {
+            required++;
+          }
+        }
+      }
+
+      return required == this.required;
+    }
+  }
+
+  private static final class ValuesCheck extends Check {
+    private final Path errorPath;
+    private final Check values;
+
+    private ValuesCheck(CompiledSchema.Node node, Check values) {
+      this.errorPath = node.errorPath;
+      this.values = values;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      if (!instance.isJsonObject()) {
+        return vm.pushError(this.errorPath);
+      }
+
+      if (vm.isParallel(instance.getAsJsonObject().size())) {
+        return vm.validateParallel(instance.getAsJsonObject(), this.values::validate);
+      }
+
+      for (Map.Entry<String, JsonElement> entry : instance.getAsJsonObject().entrySet()) {
+        vm.pushToken(entry.getKey());
+        if (!this.values.validate(entry.getValue(), vm)) {
+          return false;
+        }
+        vm.popToken();
+      }
+
+      return true;
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) throws ValidationLimitExceededException {
+      if (!instance.isJsonObject()) {
+        return false;
+      }
+
+      for (Map.Entry<String, JsonElement> entry : instance.getAsJsonObject().entrySet()) {
+        if (!this.values.isValid(entry.getValue(), depth, maxDepth)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+
+  private static final class DiscriminatorCheck extends Check {
+    private final Path errorPath;
+    private final String tag;
+    private final Path tagPath;
+    private final Path mappingPath;
+    private final Map<String, Check> mapping;
+
+    private DiscriminatorCheck(CompiledSchema.Node node, Map<String, Check> mapping) {
+      this.errorPath = node.errorPath;
+      this.tag = node.tag;
+      this.tagPath = node.tagPath;
+      this.mappingPath = node.mappingPath;
+      this.mapping = mapping;
+    }
+
+    @Override
+    boolean validate(JsonElement instance, Validator.VM vm) throws ValidationLimitExceededException {
+      vm.visitNode();
+      if (!instance.isJsonObject()) {
+        return vm.pushError(this.errorPath);
+      }
+
+      JsonElement instanceTag = instance.getAsJsonObject().get(this.tag);
+      if (instanceTag == null) {
+        return vm.pushError(this.tagPath);
+      }
+
+      if (!instanceTag.isJsonPrimitive() || !((JsonPrimitive) instanceTag).isString()) {
+        return vm.pushError(this.tagPath, this.tag);
+      }
+
+      Check subCheck = this.mapping.get(instanceTag.getAsString());
+      if (subCheck == null) {
+        return vm.pushError(this.mappingPath, this.tag);
+      }
+
+      return subCheck.validate(instance, vm);
+    }
+
+    @Override
+    boolean isValid(JsonElement instance, int depth, int maxDepth) throws ValidationLimitExceededException {
+      if (!instance.isJsonObject()) {
+        return false;
+      }
+
+      JsonElement instanceTag = instance.getAsJsonObject().get(this.tag);
+      if (instanceTag == null || !instanceTag.isJsonPrimitive() || !((JsonPrimitive) instanceTag).isString()) {
+        return false;
+      }
+
+      Check subCheck = this.mapping.get(instanceTag.getAsString());
+      return subCheck != null && subCheck.isValid(instance, depth, maxDepth);
+    }
+  }
+}
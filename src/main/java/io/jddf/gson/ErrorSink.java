@@ -0,0 +1,39 @@
+package io.jddf.gson;
+
+/**
+ * ErrorSink receives validation errors one at a time, as they are found.
+ * <p>
+ *
+ * The {@code validate} overloads of Validator and ValidationContext which
+ * return a list of errors collect them into that list through an ErrorSink.
+ * Passing an ErrorSink of your own instead lets errors be counted, written out
+ * or otherwise handled without the validator holding on to them, so that
+ * validating a very large instance with very many errors takes no more memory
+ * than validating a valid one.
+ * <p>
+ *
+ * Errors are passed to the sink in the same order as they would appear in the
+ * list returned by the corresponding list-returning overload. The max errors of
+ * the validator still applies: once that many errors have been passed to the
+ * sink, validation stops.
+ * <p>
+ *
+ * Validating into a sink is always sequential, whatever the parallel threshold
+ * of the validator, see {@link Validator.Builder#setParallelThreshold(int)}.
+ * Parallel validation would have to hold each chunk's errors until every chunk
+ * before it had been passed to the sink, and keep validating chunks after the
+ * sink asked to stop. The sink is only ever called from the thread which
+ * called {@code validate}.
+ */
+@FunctionalInterface
+public interface ErrorSink {
+  /**
+   * Receive a validation error.
+   * <p>
+   *
+   * @param error the error found
+   * @return whether validation should continue; returning false stops
+   *         validation without any more errors being passed to the sink
+   */
+  boolean accept(ValidationError error);
+}
@@ -0,0 +1,325 @@
+package io.jddf.gson;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * ImmutableSchema is a correct JDDF schema which cannot be modified.
+ * <p>
+ *
+ * Instances of this class are constructed by freezing a Schema, with
+ * {@link Schema#freeze()} or {@link SchemaInterner#intern(Schema)}. The schema
+ * is verified first, so every ImmutableSchema is correct. The discriminator
+ * form is represented by {@link #getDiscriminatorTag()} and
+ * {@link #getDiscriminatorMapping()}, rather than by a separate object.
+ * <p>
+ *
+ * Because it cannot change, an ImmutableSchema computes its hash code once,
+ * when it is constructed, and equality checks compare hash codes before
+ * comparing subschemas. This makes ImmutableSchema a cheap key for maps and
+ * sets, whereas {@link Schema#hashCode()} walks the whole schema on every call.
+ * Instances of this class are safe to share across threads.
+ */
+public final class ImmutableSchema {
+  private final Map<String, ImmutableSchema> definitions;
+  private final String ref;
+  private final Type type;
+  private final Set<String> enm;
+  private final ImmutableSchema elements;
+  private final Map<String, ImmutableSchema> properties;
+  private final Map<String, ImmutableSchema> optionalProperties;
+  private final Boolean additionalProperties;
+  private final ImmutableSchema values;
+  private final String discriminatorTag;
+  private final Map<String, ImmutableSchema> discriminatorMapping;
+  private final int hash;
+
+  private ImmutableSchema(Schema schema, UnaryOperator<ImmutableSchema> schemas, UnaryOperator<String> strings) {
+    this.definitions = freeze(schema.getDefinitions(), schemas, strings);
+    this.ref = schema.getRef();
+    this.type = schema.getType();
+    this.enm = freeze(schema.getEnum(), strings);
+    this.elements = freeze(schema.getElements(), schemas, strings);
+    this.properties = freeze(schema.getProperties(), schemas, strings);
+    this.optionalProperties = freeze(schema.getOptionalProperties(), schemas, strings);
+    this.additionalProperties = schema.getAdditionalProperties();
+    this.values = freeze(schema.getValues(), schemas, strings);
+
+    if (schema.getDiscriminator() != null) {
+      this.discriminatorTag = strings.apply(schema.getDiscriminator().getTag());
+      this.discriminatorMapping = freeze(schema.getDiscriminator().getMapping(), schemas, strings);
+    } else {
+      this.discriminatorTag = null;
+      this.discriminatorMapping = null;
+    }
+
+    this.hash = this.computeHashCode();
+  }
+
+  /**
+   * Freezes a schema, without first checking that it is correct.
+   * <p>
+   *
+   * Each subschema, once frozen, is passed through {@code schemas}, and each
+   * property name, enum value and discriminator tag through {@code strings}, so
+   * that the caller can replace them with shared instances.
+   */
+  static ImmutableSchema freeze(Schema schema, UnaryOperator<ImmutableSchema> schemas,
+      UnaryOperator<String> strings) {
+    return schema == null ? null : schemas.apply(new ImmutableSchema(schema, schemas, strings));
+  }
+
+  private static Map<String, ImmutableSchema> freeze(Map<String, Schema> map, UnaryOperator<ImmutableSchema> schemas,
+      UnaryOperator<String> strings) {
+    if (map == null) {
+      return null;
+    }
+
+    Map<String, ImmutableSchema> frozen = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+    for (Map.Entry<String, Schema> entry : map.entrySet()) {
+      frozen.put(strings.apply(entry.getKey()), freeze(entry.getValue(), schemas, strings));
+    }
+
+    return Collections.unmodifiableMap(frozen);
+  }
+
+  private static Set<String> freeze(Set<String> set, UnaryOperator<String> strings) {
+    if (set == null) {
+      return null;
+    }
+
+    Set<String> frozen = new LinkedHashSet<>(set.size() * 4 / 3 + 1);
+    for (String value : set) {
+      frozen.add(strings.apply(value));
+    }
+
+    return Collections.unmodifiableSet(frozen);
+  }
+
+  /**
+   * Compile this schema into a form that can be efficiently validated against.
+   * <p>
+   *
+   * ImmutableSchemas are always correct, so unlike {@link Schema#compile()},
+   * this cannot fail.
+   * <p>
+   *
+   * @return a compiled version of this schema
+   */
+  public CompiledSchema compile() {
+    return new CompiledSchema(this.toSchema());
+  }
+
+  /**
+   * Convert this schema into a new, mutable Schema.
+   * <p>
+   *
+   * @return a Schema equivalent to this one
+   */
+  public Schema toSchema() {
+    Schema schema = new Schema();
+    schema.setDefinitions(toSchemas(this.definitions));
+    schema.setRef(this.ref);
+    schema.setType(this.type);
+    schema.setEnum(this.enm == null ? null : new LinkedHashSet<>(this.enm));
+    schema.setElements(this.elements == null ? null : this.elements.toSchema());
+    schema.setProperties(toSchemas(this.properties));
+    schema.setOptionalProperties(toSchemas(this.optionalProperties));
+    schema.setAdditionalProperties(this.additionalProperties);
+    schema.setValues(this.values == null ? null : this.values.toSchema());
+
+    if (this.discriminatorTag != null) {
+      Discriminator discriminator = new Discriminator();
+      discriminator.setTag(this.discriminatorTag);
+      discriminator.setMapping(toSchemas(this.discriminatorMapping));
+      schema.setDiscriminator(discriminator);
+    }
+
+    return schema;
+  }
+
+  private static Map<String, Schema> toSchemas(Map<String, ImmutableSchema> map) {
+    if (map == null) {
+      return null;
+    }
+
+    Map<String, Schema> schemas = new LinkedHashMap<>();
+    for (Map.Entry<String, ImmutableSchema> entry : map.entrySet()) {
+      schemas.put(entry.getKey(), entry.getValue().toSchema());
+    }
+
+    return schemas;
+  }
+
+  /**
+   * Determines the "form" this schema takes on.
+   * <p>
+   *
+   * @return the Form this schema takes on
+   */
+  public Form getForm() {
+    if (this.ref != null) {
+      return Form.REF;
+    } else if (this.type != null) {
+      return Form.TYPE;
+    } else if (this.enm != null) {
+      return Form.ENUM;
+    } else if (this.elements != null) {
+      return Form.ELEMENTS;
+    } else if (this.properties != null || this.optionalProperties != null) {
+      return Form.PROPERTIES;
+    } else if (this.values != null) {
+      return Form.VALUES;
+    } else if (this.discriminatorTag != null) {
+      return Form.DISCRIMINATOR;
+    } else {
+      return Form.EMPTY;
+    }
+  }
+
+  public Map<String, ImmutableSchema> getDefinitions() {
+    return definitions;
+  }
+
+  public String getRef() {
+    return ref;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public Set<String> getEnum() {
+    return enm;
+  }
+
+  public ImmutableSchema getElements() {
+    return elements;
+  }
+
+  public Map<String, ImmutableSchema> getProperties() {
+    return properties;
+  }
+
+  public Map<String, ImmutableSchema> getOptionalProperties() {
+    return optionalProperties;
+  }
+
+  public Boolean getAdditionalProperties() {
+    return additionalProperties;
+  }
+
+  public ImmutableSchema getValues() {
+    return values;
+  }
+
+  public String getDiscriminatorTag() {
+    return discriminatorTag;
+  }
+
+  public Map<String, ImmutableSchema> getDiscriminatorMapping() {
+    return discriminatorMapping;
+  }
+
+  // Subschemas have already computed their own hash codes, so this only looks
+  // one level deep.
+  private int computeHashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + ((additionalProperties == null) ? 0 : additionalProperties.hashCode());
+    result = prime * result + ((definitions == null) ? 0 : definitions.hashCode());
+    result = prime * result + ((discriminatorMapping == null) ? 0 : discriminatorMapping.hashCode());
+    result = prime * result + ((discriminatorTag == null) ? 0 : discriminatorTag.hashCode());
+    result = prime * result + ((elements == null) ? 0 : elements.hashCode());
+    result = prime * result + ((enm == null) ? 0 : enm.hashCode());
+    result = prime * result + ((optionalProperties == null) ? 0 : optionalProperties.hashCode());
+    result = prime * result + ((properties == null) ? 0 : properties.hashCode());
+    result = prime * result + ((ref == null) ? 0 : ref.hashCode());
+    result = prime * result + ((type == null) ? 0 : type.hashCode());
+    result = prime * result + ((values == null) ? 0 : values.hashCode());
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    ImmutableSchema other = (ImmutableSchema) obj;
+    if (hash != other.hash)
+      return false;
+    if (additionalProperties == null) {
+      if (other.additionalProperties != null)
+        return false;
+    } else if (!additionalProperties.equals(other.additionalProperties))
+      return false;
+    if (definitions == null) {
+      if (other.definitions != null)
+        return false;
+    } else if (!definitions.equals(other.definitions))
+      return false;
+    if (discriminatorMapping == null) {
+      if (other.discriminatorMapping != null)
+        return false;
+    } else if (!discriminatorMapping.equals(other.discriminatorMapping))
+      return false;
+    if (discriminatorTag == null) {
+      if (other.discriminatorTag != null)
+        return false;
+    } else if (!discriminatorTag.equals(other.discriminatorTag))
+      return false;
+    if (elements == null) {
+      if (other.elements != null)
+        return false;
+    } else if (!elements.equals(other.elements))
+      return false;
+    if (enm == null) {
+      if (other.enm != null)
+        return false;
+    } else if (!enm.equals(other.enm))
+      return false;
+    if (optionalProperties == null) {
+      if (other.optionalProperties != null)
+        return false;
+    } else if (!optionalProperties.equals(other.optionalProperties))
+      return false;
+    if (properties == null) {
+      if (other.properties != null)
+        return false;
+    } else if (!properties.equals(other.properties))
+      return false;
+    if (ref == null) {
+      if (other.ref != null)
+        return false;
+    } else if (!ref.equals(other.ref))
+      return false;
+    if (type != other.type)
+      return false;
+    if (values == null) {
+      if (other.values != null)
+        return false;
+    } else if (!values.equals(other.values))
+      return false;
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "ImmutableSchema [additionalProperties=" + additionalProperties + ", definitions=" + definitions
+        + ", discriminatorMapping=" + discriminatorMapping + ", discriminatorTag=" + discriminatorTag + ", elements="
+        + elements + ", enm=" + enm + ", optionalProperties=" + optionalProperties + ", properties=" + properties
+        + ", ref=" + ref + ", type=" + type + ", values=" + values + "]";
+  }
+}
@@ -0,0 +1,90 @@
+package io.jddf.gson;
+
+import java.util.Map;
+
+import com.google.gson.JsonElement;
+
+/**
+ * InstanceAccessor lets Validator read instances which are not Gson trees.
+ * <p>
+ *
+ * Validator only ever needs to ask an instance what kind of JSON value it is,
+ * and to read its strings, numbers, array elements and object members. An
+ * InstanceAccessor answers those questions for a particular representation of
+ * JSON, so that instances can be validated where they are, without first being
+ * converted into JsonElements. Two accessors are provided:
+ * {@link #jsonElements()}, for Gson trees, and {@link #javaObjects()}, for the
+ * maps, lists, strings, numbers and booleans produced by many other JSON
+ * libraries.
+ * <p>
+ *
+ * Any value the accessor does not consider to be an object, array, boolean,
+ * number or string is treated as JSON null. Each of the getters is only called
+ * once the corresponding check has returned true for the value.
+ * <p>
+ *
+ * Implementations must be safe to use from multiple threads, as large arrays
+ * and objects may be validated in parallel.
+ *
+ * @param <T> the type of the values in instances
+ */
+public interface InstanceAccessor<T> {
+  /**
+   * Get the accessor for Gson trees.
+   * <p>
+   *
+   * @return an accessor for JsonElements
+   */
+  static InstanceAccessor<JsonElement> jsonElements() {
+    return JsonElementAccessor.INSTANCE;
+  }
+
+  /**
+   * Get the accessor for plain Java values.
+   * <p>
+   *
+   * Objects are Maps with String keys, arrays are Lists, strings are
+   * CharSequences, numbers are Numbers, booleans are Booleans, and null is
+   * null. Lists are read by index, so they should support fast random access.
+   *
+   * @return an accessor for plain Java values
+   */
+  static InstanceAccessor<Object> javaObjects() {
+    return JavaObjectAccessor.INSTANCE;
+  }
+
+  boolean isObject(T value);
+
+  boolean isArray(T value);
+
+  boolean isBoolean(T value);
+
+  boolean isNumber(T value);
+
+  boolean isString(T value);
+
+  Number getNumber(T value);
+
+  String getString(T value);
+
+  int getArraySize(T array);
+
+  T getElement(T array, int index);
+
+  int getObjectSize(T object);
+
+  Iterable<Map.Entry<String, T>> getMembers(T object);
+
+  boolean hasMember(T object, String key);
+
+  /**
+   * Get the value of a member of an object.
+   * <p>
+   *
+   * @param object the object to get a member of
+   * @param key    the key of the member
+   * @return the value of the member, which is undefined if the object has no
+   *         such member
+   */
+  T getMember(T object, String key);
+}
@@ -0,0 +1,27 @@
+package io.jddf.gson;
+
+import java.util.List;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * InvalidInstanceException indicates that a value read or written by a
+ * {@link ValidatingTypeAdapterFactory} is not valid against its schema.
+ * <p>
+ *
+ * The validation errors are relative to the value the schema applies to, not
+ * to the whole document it is part of.
+ */
+public class InvalidInstanceException extends JsonParseException {
+  private static final long serialVersionUID = 4071239916307925871L;
+  private final List<ValidationError> errors;
+
+  public InvalidInstanceException(List<ValidationError> errors) {
+    super("instance is not valid against its schema: " + errors);
+    this.errors = errors;
+  }
+
+  public List<ValidationError> getErrors() {
+    return errors;
+  }
+}
@@ -0,0 +1,80 @@
+package io.jddf.gson;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JavaObjectAccessor is the InstanceAccessor for plain Java values.
+ */
+final class JavaObjectAccessor implements InstanceAccessor<Object> {
+  static final JavaObjectAccessor INSTANCE = new JavaObjectAccessor();
+
+  private JavaObjectAccessor() {
+  }
+
+  @Override
+  public boolean isObject(Object value) {
+    return value instanceof Map;
+  }
+
+  @Override
+  public boolean isArray(Object value) {
+    return value instanceof List;
+  }
+
+  @Override
+  public boolean isBoolean(Object value) {
+    return value instanceof Boolean;
+  }
+
+  @Override
+  public boolean isNumber(Object value) {
+    return value instanceof Number;
+  }
+
+  @Override
+  public boolean isString(Object value) {
+    return value instanceof CharSequence;
+  }
+
+  @Override
+  public Number getNumber(Object value) {
+    return (Number) value;
+  }
+
+  @Override
+  public String getString(Object value) {
+    return value.toString();
+  }
+
+  @Override
+  public int getArraySize(Object array) {
+    return ((List<?>) array).size();
+  }
+
+  @Override
+  public Object getElement(Object array, int index) {
+    return ((List<?>) array).get(index);
+  }
+
+  @Override
+  public int getObjectSize(Object object) {
+    return ((Map<?, ?>) object).size();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Iterable<Map.Entry<String, Object>> getMembers(Object object) {
+    return ((Map<String, Object>) object).entrySet();
+  }
+
+  @Override
+  public boolean hasMember(Object object, String key) {
+    return ((Map<?, ?>) object).containsKey(key);
+  }
+
+  @Override
+  public Object getMember(Object object, String key) {
+    return ((Map<?, ?>) object).get(key);
+  }
+}
@@ -0,0 +1,83 @@
+package io.jddf.gson;
+
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * JsonElementAccessor is the InstanceAccessor for Gson trees.
+ */
+final class JsonElementAccessor implements InstanceAccessor<JsonElement> {
+  static final JsonElementAccessor INSTANCE = new JsonElementAccessor();
+
+  private JsonElementAccessor() {
+  }
+
+  @Override
+  public boolean isObject(JsonElement value) {
+    return value.isJsonObject();
+  }
+
+  @Override
+  public boolean isArray(JsonElement value) {
+    return value.isJsonArray();
+  }
+
+  @Override
+  public boolean isBoolean(JsonElement value) {
+    return value.isJsonPrimitive() && ((JsonPrimitive) value).isBoolean();
+  }
+
+  @Override
+  public boolean isNumber(JsonElement value) {
+    return value.isJsonPrimitive() && ((JsonPrimitive) value).isNumber();
+  }
+
+  @Override
+  public boolean isString(JsonElement value) {
+    return value.isJsonPrimitive() && ((JsonPrimitive) value).isString();
+  }
+
+  @Override
+  public Number getNumber(JsonElement value) {
+    return value.getAsNumber();
+  }
+
+  @Override
+  public String getString(JsonElement value) {
+    return value.getAsString();
+  }
+
+  @Override
+  public int getArraySize(JsonElement array) {
+    return ((JsonArray) array).size();
+  }
+
+  @Override
+  public JsonElement getElement(JsonElement array, int index) {
+    return ((JsonArray) array).get(index);
+  }
+
+  @Override
+  public int getObjectSize(JsonElement object) {
+    return ((JsonObject) object).size();
+  }
+
+  @Override
+  public Iterable<Map.Entry<String, JsonElement>> getMembers(JsonElement object) {
+    return ((JsonObject) object).entrySet();
+  }
+
+  @Override
+  public boolean hasMember(JsonElement object, String key) {
+    return ((JsonObject) object).has(key);
+  }
+
+  @Override
+  public JsonElement getMember(JsonElement object, String key) {
+    return ((JsonObject) object).get(key);
+  }
+}
@@ -1,12 +1,15 @@
 package io.jddf.gson;
 
 /**
- * MaxDepthExceededException indicates that the maximum value of a Validator was
+ * MaxDepthExceededException indicates that the max depth of a Validator was
  * exceeded during validation.
+ * <p>
  *
- * This can be raised from
- * {@link Validator#validate(Schema, com.google.gson.JsonElement)}.
+ * See {@link Validator.Builder#setMaxDepth(int)} and
+ * {@link ValidationLimitExceededException}. It is also thrown as soon as a
+ * validator reaches a ref which leads into a ref loop, whatever its max depth;
+ * see {@link CompiledSchema#hasRefLoops()}.
  */
-public class MaxDepthExceededException extends Exception {
+public class MaxDepthExceededException extends ValidationLimitExceededException {
   private static final long serialVersionUID = -5792237538755491171L;
 }
@@ -0,0 +1,13 @@
+package io.jddf.gson;
+
+/**
+ * MaxNodesExceededException indicates that the max nodes of a Validator was
+ * exceeded during validation.
+ * <p>
+ *
+ * See {@link Validator.Builder#setMaxNodes(long)} and
+ * {@link ValidationLimitExceededException}.
+ */
+public class MaxNodesExceededException extends ValidationLimitExceededException {
+  private static final long serialVersionUID = 3460985826093624613L;
+}
@@ -0,0 +1,183 @@
+package io.jddf.gson;
+
+import java.math.BigInteger;
+
+/**
+ * Numbers checks whether JSON numbers are integers within a given range.
+ * <p>
+ *
+ * JDDF's integer types accept any number with a zero fractional part, in
+ * whichever way it is written: {@code 100}, {@code 100.0} and {@code 1e2} are
+ * all the same integer. This class checks numbers exactly, rather than by way
+ * of a {@code double}, so that values very close to an integer or to the
+ * edge of a range are not rounded into acceptance.
+ * <p>
+ *
+ * Numbers parsed by Gson are held in their original textual form, and are
+ * checked by scanning that text once, without allocating.
+ */
+final class Numbers {
+  // Longer integers are out of range of every JDDF integer type.
+  private static final int MAX_DIGITS = 10;
+
+  private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+      100000000L, 1000000000L, 10000000000L };
+
+  private Numbers() {
+  }
+
+  /**
+   * Determines whether a number is an integer between min and max, inclusive.
+   */
+  static boolean isInt(Number number, long min, long max) {
+    if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+      long value = number.longValue();
+      return value >= min && value <= max;
+    }
+
+    if (number instanceof Double || number instanceof Float) {
+      // The bounds of every JDDF integer type are exactly representable as
+      // doubles, so these comparisons are exact.
+      double value = number.doubleValue();
+      return value >= min && value <= max && value == Math.rint(value);
+    }
+
+    if (number instanceof BigInteger) {
+      BigInteger value = (BigInteger) number;
+      return value.bitLength() < 64 && value.longValue() >= min && value.longValue() <= max;
+    }
+
+    // This covers Gson's LazilyParsedNumber, whose string form is the number as
+    // it appeared in the input, as well as BigDecimal.
+    return isInt(number.toString(), min, max);
+  }
+
+  /**
+   * Determines whether the textual form of a JSON number is an integer between
+   * min and max, inclusive.
+   * <p>
+   *
+   * Text which is not a number is never considered an integer.
+   */
+  static boolean isInt(CharSequence s, long min, long max) {
+    int n = s.length();
+    int i = 0;
+
+    boolean negative = false;
+    if (i < n && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+      negative = s.charAt(i) == '-';
+      i++;
+    }
+
+    int intStart = i;
+    while (i < n && isDigit(s.charAt(i))) {
+      i++;
+    }
+    int intEnd = i;
+
+    if (intStart == intEnd) {
+      return false;
+    }
+
+    int fracStart = i;
+    int fracEnd = i;
+    if (i < n && s.charAt(i) == '.') {
+      fracStart = ++i;
+      while (i < n && isDigit(s.charAt(i))) {
+        i++;
+      }
+      fracEnd = i;
+
+      if (fracStart == fracEnd) {
+        return false;
+      }
+    }
+
+    // Exponents are clamped while being parsed. Once an exponent outweighs every
+    // digit of the number by more than MAX_DIGITS, it pushes the number out of
+    // range, or away from being an integer, however much larger it is.
+    long maxExponent = (intEnd - intStart) + (fracEnd - fracStart) + MAX_DIGITS + 1L;
+    long exponent = 0;
+    if (i < n && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+      i++;
+
+      boolean negativeExponent = false;
+      if (i < n && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+        negativeExponent = s.charAt(i) == '-';
+        i++;
+      }
+
+      int expStart = i;
+      while (i < n && isDigit(s.charAt(i))) {
+        exponent = Math.min(exponent * 10 + (s.charAt(i) - '0'), maxExponent);
+        i++;
+      }
+
+      if (expStart == i) {
+        return false;
+      }
+
+      if (negativeExponent) {
+        exponent = -exponent;
+      }
+    }
+
+    if (i != n) {
+      return false;
+    }
+
+    // The number is the digits of its integer and fractional parts, taken
+    // together, times a power of ten. Find the significant digits within them.
+    int intLength = intEnd - intStart;
+    int length = intLength + (fracEnd - fracStart);
+
+    int first = 0;
+    while (first < length && digitAt(s, intStart, intLength, fracStart, first) == 0) {
+      first++;
+    }
+
+    if (first == length) {
+      // The number is zero.
+      return min <= 0 && max >= 0;
+    }
+
+    int last = length - 1;
+    while (digitAt(s, intStart, intLength, fracStart, last) == 0) {
+      last--;
+    }
+
+    // The value is now the digits from first to last, times ten to the power of
+    // scale. If scale is negative, some significant digits are fractional.
+    long scale = exponent - (length - intLength) + (length - 1 - last);
+    if (scale < 0) {
+      return false;
+    }
+
+    int significant = last - first + 1;
+    if (significant + scale > MAX_DIGITS) {
+      return false;
+    }
+
+    long value = 0;
+    for (int j = first; j <= last; j++) {
+      value = value * 10 + digitAt(s, intStart, intLength, fracStart, j);
+    }
+
+    value *= POWERS_OF_TEN[(int) scale];
+    if (negative) {
+      value = -value;
+    }
+
+    return value >= min && value <= max;
+  }
+
+  // Gets the digit at index j of the integer and fractional parts of a number,
+  // taken together.
+  private static int digitAt(CharSequence s, int intStart, int intLength, int fracStart, int j) {
+    return (j < intLength ? s.charAt(intStart + j) : s.charAt(fracStart + j - intLength)) - '0';
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -0,0 +1,95 @@
+package io.jddf.gson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Path is an immutable, parent-linked list of JSON Pointer tokens.
+ * <p>
+ *
+ * Paths share their prefixes with one another, so extending a path is cheap,
+ * and many errors at nearby locations can share most of their path. Array
+ * indices are stored as ints, and are only converted to strings when the path
+ * is materialized.
+ * <p>
+ *
+ * The schema paths which errors can point at are also numbered, once, as their
+ * schema is compiled. These numbers, called sites, let errors be counted per
+ * schema path without looking their paths up. The empty path is always site
+ * zero; every other path is only given a site by the compiler.
+ */
+final class Path {
+  static final Path EMPTY = new Path(null, null, -1);
+
+  private final Path parent;
+  private final String token;
+  private final int index;
+  private final int size;
+  private int site;
+
+  private Path(Path parent, String token, int index) {
+    this.parent = parent;
+    this.token = token;
+    this.index = index;
+    this.size = parent == null ? 0 : parent.size + 1;
+    this.site = parent == null ? 0 : -1;
+  }
+
+  Path child(String token) {
+    return new Path(this, token, -1);
+  }
+
+  Path child(int index) {
+    return new Path(this, null, index);
+  }
+
+  int size() {
+    return size;
+  }
+
+  int site() {
+    return site;
+  }
+
+  // Only called by the compiler, before the compiled schema is published.
+  void setSite(int site) {
+    this.site = site;
+  }
+
+  List<String> toList() {
+    String[] tokens = new String[this.size];
+    for (Path path = this; path.size > 0; path = path.parent) {
+      tokens[path.size - 1] = path.token != null ? path.token : Integer.toString(path.index);
+    }
+
+    return new ArrayList<>(Arrays.asList(tokens));
+  }
+
+  /**
+   * Formats a list of tokens as a JSON Pointer, as described in RFC 6901.
+   */
+  static String toPointer(List<String> tokens) {
+    StringBuilder builder = new StringBuilder();
+    for (String token : tokens) {
+      builder.append('/');
+      for (int i = 0; i < token.length(); i++) {
+        char c = token.charAt(i);
+        if (c == '~') {
+          builder.append("~0");
+        } else if (c == '/') {
+          builder.append("~1");
+        } else {
+          builder.append(c);
+        }
+      }
+    }
+
+    return builder.toString();
+  }
+
+  @Override
+  public String toString() {
+    return toPointer(this.toList());
+  }
+}
@@ -0,0 +1,451 @@
+package io.jddf.gson;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+/**
+ * Pipeline validates a batch of records across several threads, and reports
+ * the results in input order.
+ * <p>
+ *
+ * Records are read on the calling thread and grouped into chunks. Each chunk is
+ * parsed and validated as a task of its own, in the ForkJoinPool of the calling
+ * thread, or in the common pool if the calling thread is not part of a pool.
+ * Only a bounded number of chunks are in flight at a time: once that many have
+ * been submitted, the oldest is waited for and its results handed to the
+ * consumer before another is read. So memory use does not grow with the size of
+ * the batch, and the consumer is only ever called from the calling thread.
+ * <p>
+ *
+ * Records read as lines of text are validated straight from a JsonReader, with
+ * parsing and validation done in a single pass.
+ * <p>
+ *
+ * Records read from a file are never copied at all. The file is mapped into
+ * memory a segment at a time, and each segment is split on line boundaries into
+ * chunks of roughly equal size, which are scanned as UTF-8 bytes where they
+ * lie. The calling thread only looks at the bytes around chunk boundaries;
+ * finding lines, and counting them, is left to the chunks. Line numbers are
+ * worked out as the results are collected, in order.
+ * <p>
+ *
+ * A record which is malformed, or which goes over a limit of the validator,
+ * only fails on its own: it is reported as a failed RecordResult, and the rest
+ * of the batch carries on.
+ */
+final class Pipeline {
+  // How many records are parsed and validated together, as a single task.
+  private static final int CHUNK_SIZE = 512;
+
+  // How many bytes of a file are mapped into memory at once, and roughly how
+  // many bytes of it are validated together, as a single task. No line may be
+  // longer than a segment.
+  static final int SEGMENT_SIZE = 1 << 30;
+  private static final int CHUNK_BYTES = 1 << 20;
+
+  private final Validator validator;
+  private final CompiledSchema schema;
+  private final Consumer<RecordResult> consumer;
+  private final ForkJoinPool pool;
+  private final int maxInFlight;
+  private final Deque<Chunk> inFlight;
+  private final long start;
+  private long records;
+  private long invalidRecords;
+  private long lines;
+
+  Pipeline(Validator validator, CompiledSchema schema, Consumer<RecordResult> consumer) {
+    this.validator = validator;
+    this.schema = schema;
+    this.consumer = consumer;
+    this.pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+    this.maxInFlight = 2 * this.pool.getParallelism() + 1;
+    this.inFlight = new ArrayDeque<>();
+    this.start = System.nanoTime();
+  }
+
+  /**
+   * Validates each non-blank line of a reader as a separate record.
+   */
+  BatchSummary run(Reader reader) throws IOException {
+    BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+
+    try {
+      return this.readLines(lines);
+    } finally {
+      this.cancel();
+    }
+  }
+
+  /**
+   * Validates each non-blank line of a file as a separate record, mapping the
+   * file into memory in segments of the given size.
+   */
+  BatchSummary run(FileChannel channel, int segmentSize) throws IOException {
+    try {
+      return this.readFile(channel, segmentSize);
+    } finally {
+      this.cancel();
+    }
+  }
+
+  /**
+   * Validates each element of an iterable as a separate record.
+   */
+  BatchSummary run(Iterable<JsonElement> instances) {
+    try {
+      return this.readElements(instances);
+    } finally {
+      this.cancel();
+    }
+  }
+
+  private BatchSummary readLines(BufferedReader lines) throws IOException {
+    String[] chunk = new String[CHUNK_SIZE];
+    long[] lineNumbers = new long[CHUNK_SIZE];
+    long firstIndex = 0;
+    long lineNumber = 0;
+    int size = 0;
+
+    for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+      lineNumber++;
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+
+      chunk[size] = line;
+      lineNumbers[size] = lineNumber;
+      size++;
+
+      if (size == CHUNK_SIZE) {
+        this.submit(new LineChunk(firstIndex, chunk, lineNumbers, size));
+        chunk = new String[CHUNK_SIZE];
+        lineNumbers = new long[CHUNK_SIZE];
+        firstIndex += size;
+        size = 0;
+      }
+    }
+
+    if (size > 0) {
+      this.submit(new LineChunk(firstIndex, chunk, lineNumbers, size));
+    }
+
+    return this.finish();
+  }
+
+  private BatchSummary readFile(FileChannel channel, int segmentSize) throws IOException {
+    long size = channel.size();
+
+    for (long offset = 0; offset < size;) {
+      int length = (int) Math.min(segmentSize, size - offset);
+      MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+
+      // Lines may not span segments, so every segment but the last is cut short
+      // just after its last newline, and the next segment starts from there.
+      int end = length;
+      if (offset + length < size) {
+        while (end > 0 && segment.get(end - 1) != '\n') {
+          end--;
+        }
+
+        if (end == 0) {
+          throw new IOException("Line at byte " + offset + " is longer than " + segmentSize + " bytes");
+        }
+      }
+
+      for (int start = 0; start < end;) {
+        int chunkEnd = Math.min(start + CHUNK_BYTES, end);
+        while (chunkEnd < end && segment.get(chunkEnd - 1) != '\n') {
+          chunkEnd++;
+        }
+
+        this.submit(new FileChunk(segment, offset, start, chunkEnd));
+        start = chunkEnd;
+      }
+
+      offset += end;
+    }
+
+    return this.finish();
+  }
+
+  private BatchSummary readElements(Iterable<JsonElement> instances) {
+    JsonElement[] chunk = new JsonElement[CHUNK_SIZE];
+    long firstIndex = 0;
+    int size = 0;
+
+    for (JsonElement instance : instances) {
+      chunk[size++] = instance;
+
+      if (size == CHUNK_SIZE) {
+        this.submit(new ElementChunk(firstIndex, chunk, size));
+        chunk = new JsonElement[CHUNK_SIZE];
+        firstIndex += size;
+        size = 0;
+      }
+    }
+
+    if (size > 0) {
+      this.submit(new ElementChunk(firstIndex, chunk, size));
+    }
+
+    return this.finish();
+  }
+
+  private void submit(Chunk chunk) {
+    if (this.inFlight.size() == this.maxInFlight) {
+      this.collect();
+    }
+
+    this.pool.execute(chunk);
+    this.inFlight.addLast(chunk);
+  }
+
+  private BatchSummary finish() {
+    while (!this.inFlight.isEmpty()) {
+      this.collect();
+    }
+
+    return new BatchSummary(this.records, this.invalidRecords, System.nanoTime() - this.start);
+  }
+
+  // Waits for the oldest chunk in flight, and hands its results to the
+  // consumer.
+  private void collect() {
+    Chunk chunk = this.inFlight.removeFirst();
+    chunk.join();
+
+    RecordResult[] results = chunk.resolve(this.records, this.lines);
+    this.lines += chunk.lines;
+
+    for (RecordResult result : results) {
+      this.records++;
+      if (!result.isValid()) {
+        this.invalidRecords++;
+      }
+
+      this.consumer.accept(result);
+    }
+  }
+
+  // Cancels any chunks still in flight, once the batch has failed, such as by
+  // the input failing to be read. Once the batch has succeeded, there are none.
+  private void cancel() {
+    for (Chunk chunk : this.inFlight) {
+      chunk.cancel(false);
+    }
+
+    this.inFlight.clear();
+  }
+
+  /**
+   * Chunk validates a contiguous run of records.
+   * <p>
+   *
+   * Records which are malformed, or which go over a limit of the validator, are
+   * reported as failed results, so a chunk as a whole never fails.
+   */
+  private abstract static class Chunk extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private RecordResult[] results;
+
+    // How many lines the chunk covers, for chunks which count them.
+    int lines;
+
+    @Override
+    protected void compute() {
+      this.results = this.validate();
+    }
+
+    abstract RecordResult[] validate();
+
+    /**
+     * Returns the results of the chunk, once the numbers of records and lines
+     * before it are known.
+     */
+    RecordResult[] resolve(long records, long lines) {
+      return this.results;
+    }
+  }
+
+  private class LineChunk extends Chunk {
+    private static final long serialVersionUID = 1L;
+
+    private final long firstIndex;
+    private final String[] lines;
+    private final long[] lineNumbers;
+    private final int size;
+
+    private LineChunk(long firstIndex, String[] lines, long[] lineNumbers, int size) {
+      this.firstIndex = firstIndex;
+      this.lines = lines;
+      this.lineNumbers = lineNumbers;
+      this.size = size;
+    }
+
+    @Override
+    RecordResult[] validate() {
+      ValidationContext context = Pipeline.this.validator.newContext();
+      RecordResult[] results = new RecordResult[this.size];
+      for (int i = 0; i < this.size; i++) {
+        long index = this.firstIndex + i;
+        JsonReader reader = new JsonReader(new StringReader(this.lines[i]));
+
+        try {
+          List<ValidationError> errors = context.validate(Pipeline.this.schema, reader);
+          if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new MalformedJsonException("Expected a single JSON value");
+          }
+
+          results[i] = new RecordResult(index, this.lineNumbers[i], errors);
+        } catch (IOException | ValidationLimitExceededException e) {
+          results[i] = new RecordResult(index, this.lineNumbers[i], -1, e);
+        }
+      }
+
+      return results;
+    }
+  }
+
+  private class ElementChunk extends Chunk {
+    private static final long serialVersionUID = 1L;
+
+    private final long firstIndex;
+    private final JsonElement[] instances;
+    private final int size;
+
+    private ElementChunk(long firstIndex, JsonElement[] instances, int size) {
+      this.firstIndex = firstIndex;
+      this.instances = instances;
+      this.size = size;
+    }
+
+    @Override
+    RecordResult[] validate() {
+      ValidationContext context = Pipeline.this.validator.newContext();
+      RecordResult[] results = new RecordResult[this.size];
+      for (int i = 0; i < this.size; i++) {
+        try {
+          results[i] = new RecordResult(this.firstIndex + i, 0,
+              context.validate(Pipeline.this.schema, this.instances[i]));
+        } catch (ValidationLimitExceededException e) {
+          results[i] = new RecordResult(this.firstIndex + i, 0, -1, e);
+        }
+      }
+
+      return results;
+    }
+  }
+
+  private class FileChunk extends Chunk {
+    private static final long serialVersionUID = 1L;
+
+    private final ByteBuffer segment;
+    private final long segmentOffset;
+    private final int start;
+    private final int end;
+
+    // Each record's line number is relative to the start of the chunk. Records
+    // which could not be validated have no errors, and a failure instead.
+    private int size;
+    private int[] lineNumbers = new int[64];
+    private long[] byteOffsets = new long[64];
+    private Exception[] failures = new Exception[64];
+    private final List<List<ValidationError>> errors = new ArrayList<>();
+
+    private FileChunk(ByteBuffer segment, long segmentOffset, int start, int end) {
+      this.segment = segment;
+      this.segmentOffset = segmentOffset;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    RecordResult[] validate() {
+      ValidationContext context = Pipeline.this.validator.newContext();
+
+      // Each line is validated through a view of the segment limited to it.
+      ByteBuffer line = this.segment.duplicate();
+
+      for (int lineStart = this.start; lineStart < this.end; this.lines++) {
+        int lineEnd = lineStart;
+        while (lineEnd < this.end && this.segment.get(lineEnd) != '\n') {
+          lineEnd++;
+        }
+
+        if (!this.isBlank(lineStart, lineEnd)) {
+          line.limit(lineEnd);
+          line.position(lineStart);
+
+          if (this.size == this.lineNumbers.length) {
+            this.lineNumbers = Arrays.copyOf(this.lineNumbers, this.size * 2);
+            this.byteOffsets = Arrays.copyOf(this.byteOffsets, this.size * 2);
+            this.failures = Arrays.copyOf(this.failures, this.size * 2);
+          }
+
+          this.lineNumbers[this.size] = this.lines + 1;
+          this.byteOffsets[this.size] = this.segmentOffset + lineStart;
+          this.size++;
+
+          try {
+            this.errors.add(context.validate(Pipeline.this.schema, line));
+          } catch (IOException | ValidationLimitExceededException e) {
+            this.errors.add(null);
+            this.failures[this.size - 1] = e;
+          }
+        }
+
+        lineStart = lineEnd + 1;
+      }
+
+      return null;
+    }
+
+    @Override
+    RecordResult[] resolve(long records, long lines) {
+      RecordResult[] results = new RecordResult[this.size];
+      for (int i = 0; i < this.size; i++) {
+        if (this.failures[i] != null) {
+          results[i] = new RecordResult(records + i, lines + this.lineNumbers[i], this.byteOffsets[i],
+              this.failures[i]);
+        } else {
+          results[i] = new RecordResult(records + i, lines + this.lineNumbers[i], this.byteOffsets[i],
+              this.errors.get(i));
+        }
+      }
+
+      return results;
+    }
+
+    private boolean isBlank(int start, int end) {
+      for (int i = start; i < end; i++) {
+        byte b = this.segment.get(i);
+        if (b != ' ' && b != '\t' && b != '\r') {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package io.jddf.gson;
+
+import java.util.List;
+
+/**
+ * ProfileEntry is the number of errors a ValidationProfile has counted against
+ * a single schema path.
+ * <p>
+ *
+ * Instances of this class are returned by {@link ValidationProfile#report()}.
+ */
+public final class ProfileEntry {
+  private final String schemaPointer;
+  private final long count;
+  private final List<String> sampleInstancePointers;
+
+  ProfileEntry(String schemaPointer, long count, List<String> sampleInstancePointers) {
+    this.schemaPointer = schemaPointer;
+    this.count = count;
+    this.sampleInstancePointers = sampleInstancePointers;
+  }
+
+  /**
+   * Get the schema path the errors were raised by.
+   * <p>
+   *
+   * @return the schema path, as an RFC 6901 JSON Pointer
+   */
+  public String getSchemaPointer() {
+    return schemaPointer;
+  }
+
+  /**
+   * Get the number of errors counted against the schema path.
+   * <p>
+   *
+   * @return the number of errors
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Get the instance paths of some of the errors counted.
+   * <p>
+   *
+   * Only the first few errors counted against each schema path are sampled.
+   * When errors are counted from several threads at once, which errors count
+   * as the first few is up to how the threads are scheduled.
+   *
+   * @return the instance paths, as RFC 6901 JSON Pointers, of a sample of the
+   *         errors
+   */
+  public List<String> getSampleInstancePointers() {
+    return sampleInstancePointers;
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + (int) (count ^ (count >>> 32));
+    result = prime * result + ((sampleInstancePointers == null) ? 0 : sampleInstancePointers.hashCode());
+    result = prime * result + ((schemaPointer == null) ? 0 : schemaPointer.hashCode());
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    ProfileEntry other = (ProfileEntry) obj;
+    if (count != other.count)
+      return false;
+    if (sampleInstancePointers == null) {
+      if (other.sampleInstancePointers != null)
+        return false;
+    } else if (!sampleInstancePointers.equals(other.sampleInstancePointers))
+      return false;
+    if (schemaPointer == null) {
+      if (other.schemaPointer != null)
+        return false;
+    } else if (!schemaPointer.equals(other.schemaPointer))
+      return false;
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "ProfileEntry [schemaPointer=" + schemaPointer + ", count=" + count + ", sampleInstancePointers="
+        + sampleInstancePointers + "]";
+  }
+}
@@ -0,0 +1,145 @@
+package io.jddf.gson;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RecordResult is the outcome of validating a single record as part of a
+ * batch.
+ * <p>
+ *
+ * Instances of this class are passed, in input order, to the consumer given to
+ * {@link Validator#validateAll(CompiledSchema, java.io.Reader, java.util.function.Consumer)},
+ * {@link Validator#validateAll(CompiledSchema, java.nio.channels.FileChannel, java.util.function.Consumer)}
+ * and
+ * {@link Validator#validateAll(CompiledSchema, Iterable, java.util.function.Consumer)}.
+ * <p>
+ *
+ * A record which could not be validated, because it is not well-formed JSON or
+ * because validating it went over the max depth, max nodes or timeout of the
+ * validator, does not stop the batch. It is reported as a result of its own,
+ * which is not valid, has no validation errors, and carries the exception
+ * which stopped it. See {@link #getFailure()}.
+ */
+public final class RecordResult {
+  private final long index;
+  private final long lineNumber;
+  private final long byteOffset;
+  private final List<ValidationError> errors;
+  private final Exception failure;
+
+  RecordResult(long index, long lineNumber, List<ValidationError> errors) {
+    this(index, lineNumber, -1, errors);
+  }
+
+  RecordResult(long index, long lineNumber, long byteOffset, List<ValidationError> errors) {
+    this(index, lineNumber, byteOffset, errors, null);
+  }
+
+  RecordResult(long index, long lineNumber, long byteOffset, Exception failure) {
+    this(index, lineNumber, byteOffset, Collections.emptyList(), failure);
+  }
+
+  private RecordResult(long index, long lineNumber, long byteOffset, List<ValidationError> errors,
+      Exception failure) {
+    this.index = index;
+    this.lineNumber = lineNumber;
+    this.byteOffset = byteOffset;
+    this.errors = errors;
+    this.failure = failure;
+  }
+
+  /**
+   * Get the position of this record in the batch.
+   * <p>
+   *
+   * @return the zero-based index of this record among all records in the batch
+   */
+  public long getIndex() {
+    return index;
+  }
+
+  /**
+   * Get the line this record was read from.
+   * <p>
+   *
+   * @return the one-based line number of this record, or zero if the record was
+   *         not read from lines of text
+   */
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * Get where in its file this record starts.
+   * <p>
+   *
+   * @return the zero-based offset, in bytes, of the start of the line this
+   *         record was read from, or -1 if the record was not read from a file
+   */
+  public long getByteOffset() {
+    return byteOffset;
+  }
+
+  /**
+   * Get the validation errors of this record.
+   * <p>
+   *
+   * @return the validation errors associated with this record, which are empty
+   *         if the record could not be validated
+   */
+  public List<ValidationError> getErrors() {
+    return errors;
+  }
+
+  /**
+   * Get what stopped this record from being validated.
+   * <p>
+   *
+   * @return an IOException if the record is not a single, well-formed JSON
+   *         value, a ValidationLimitExceededException if validating it went
+   *         over a limit of the validator, or null if it was validated
+   */
+  public Exception getFailure() {
+    return failure;
+  }
+
+  /**
+   * Determine whether this record is not a single, well-formed JSON value.
+   * <p>
+   *
+   * @return whether this record could not be parsed
+   */
+  public boolean isMalformed() {
+    return failure instanceof IOException;
+  }
+
+  /**
+   * Determine whether validating this record went over the max depth, max
+   * nodes or timeout of the validator.
+   * <p>
+   *
+   * @return whether this record could not be validated within the limits of
+   *         the validator
+   */
+  public boolean isLimitExceeded() {
+    return failure instanceof ValidationLimitExceededException;
+  }
+
+  /**
+   * Determine whether this record is valid.
+   * <p>
+   *
+   * @return whether this record was validated, and has no validation errors
+   */
+  public boolean isValid() {
+    return failure == null && errors.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "RecordResult [index=" + index + ", lineNumber=" + lineNumber + ", byteOffset=" + byteOffset + ", errors="
+        + errors + ", failure=" + failure + "]";
+  }
+}
@@ -1,8 +1,10 @@
 package io.jddf.gson;
 
 import com.google.gson.annotations.SerializedName;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 /**
  * Schema represents a JSON Data Definition Format schema.
@@ -40,13 +42,53 @@ public class Schema {
     this.verify(this);
   }
 
+  /**
+   * Compile this schema into a form that can be efficiently validated against.
+   * <p>
+   *
+   * The schema is verified before it is compiled. Later changes to this schema
+   * are not reflected in the returned CompiledSchema.
+   * <p>
+   *
+   * @return a compiled version of this schema
+   * @throws InvalidSchemaException if the Schema is incorrect
+   */
+  public CompiledSchema compile() throws InvalidSchemaException {
+    this.verify();
+    return new CompiledSchema(this);
+  }
+
+  /**
+   * Freeze this schema into an ImmutableSchema.
+   * <p>
+   *
+   * The schema is verified before it is frozen. Later changes to this schema are
+   * not reflected in the returned ImmutableSchema. To share identical subschemas
+   * across many frozen schemas, use {@link SchemaInterner#intern(Schema)}
+   * instead.
+   * <p>
+   *
+   * @return an immutable copy of this schema
+   * @throws InvalidSchemaException if the Schema is incorrect
+   */
+  public ImmutableSchema freeze() throws InvalidSchemaException {
+    this.verify();
+    return ImmutableSchema.freeze(this, UnaryOperator.identity(), UnaryOperator.identity());
+  }
+
   private void verify(Schema root) throws InvalidSchemaException {
     boolean isEmpty = true;
 
-    if (this == root && this.getDefinitions() != null) {
+    if (this != root && this.getDefinitions() != null) {
       throw new NonRootDefinitionException();
     }
 
+    if (this == root && this.getDefinitions() != null) {
+      for (Schema schema : this.getDefinitions().values()) {
+        schema.verify(root);
+      }
+    }
+
     if (this.getRef() != null) {
       isEmpty = false;
       if (root.getDefinitions() == null || !root.getDefinitions().containsKey(this.getRef())) {
@@ -97,7 +139,9 @@ public class Schema {
     }
 
     if (this.getOptionalProperties() != null) {
-      if (!isEmpty) {
+      // properties and optionalProperties may appear together; they make up a
+      // single form.
+      if (!isEmpty && this.getProperties() == null) {
         throw new InvalidFormException();
       }
 
@@ -109,7 +153,7 @@ public class Schema {
     }
 
     if (this.getProperties() != null && this.getOptionalProperties() != null) {
-      Set<String> properties = this.getProperties().keySet();
+      Set<String> properties = new HashSet<>(this.getProperties().keySet());
       properties.retainAll(this.getOptionalProperties().keySet());
 
       if (!properties.isEmpty()) {
@@ -0,0 +1,71 @@
+package io.jddf.gson;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SchemaInterner freezes schemas so that identical parts of them are shared.
+ * <p>
+ *
+ * Schemas which are managed together often repeat the same fragments: the same
+ * timestamp or ID properties, the same address object, the same enums. Each
+ * subschema frozen by a SchemaInterner is looked up among those it has already
+ * frozen, and if an equal one exists, that instance is used in its place.
+ * Property names, enum values and discriminator tags are shared the same way.
+ * So a fragment repeated across thousands of schemas is held in memory once.
+ * <p>
+ *
+ * Lookups are cheap because ImmutableSchema hash codes are computed once, and
+ * because the subschemas of interned schemas are themselves interned, so they
+ * can usually be compared by identity.
+ * <p>
+ *
+ * An interner holds on to everything it has interned, for as long as the
+ * interner itself is reachable. Instances of this class are safe to use from
+ * multiple threads.
+ */
+public final class SchemaInterner {
+  private final ConcurrentHashMap<ImmutableSchema, ImmutableSchema> schemas;
+  private final ConcurrentHashMap<String, String> strings;
+
+  public SchemaInterner() {
+    this.schemas = new ConcurrentHashMap<>();
+    this.strings = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Verify a schema, and freeze it into an ImmutableSchema which shares
+   * identical subschemas with those already interned.
+   *
+   * @param schema the schema to freeze
+   * @return an immutable copy of the schema
+   * @throws InvalidSchemaException if the Schema is incorrect
+   */
+  public ImmutableSchema intern(Schema schema) throws InvalidSchemaException {
+    schema.verify();
+    return ImmutableSchema.freeze(schema, this::intern, this::intern);
+  }
+
+  /**
+   * Get the number of distinct schemas and subschemas this interner holds.
+   * <p>
+   *
+   * @return the number of distinct schemas interned
+   */
+  public int size() {
+    return this.schemas.size();
+  }
+
+  private ImmutableSchema intern(ImmutableSchema schema) {
+    ImmutableSchema existing = this.schemas.putIfAbsent(schema, schema);
+    return existing == null ? schema : existing;
+  }
+
+  private String intern(String string) {
+    if (string == null) {
+      return null;
+    }
+
+    String existing = this.strings.putIfAbsent(string, string);
+    return existing == null ? string : existing;
+  }
+}
@@ -0,0 +1,258 @@
+package io.jddf.gson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * SchemaRegistry is a bounded cache of verified, compiled schemas, keyed by
+ * ID.
+ * <p>
+ *
+ * Schemas are looked up by a string ID, which can encode a version as well,
+ * such as {@code "orders@3"}. When a schema is not in the registry, it is
+ * fetched from a loader, verified and compiled, and the result is cached. Only
+ * IDs are ever hashed or compared; the schemas themselves never are.
+ * <p>
+ *
+ * Lookups of schemas already in the registry do not take any locks. When the
+ * registry holds more than its maximum size, the schemas which have gone
+ * longest without being looked up are evicted. So that lookups don't contend
+ * with one another, recency is tracked in generations, which advance each time
+ * a schema is added to the registry: schemas looked up within the same
+ * generation are considered equally recent.
+ * <p>
+ *
+ * {@link #put(String, Schema)} replaces the schema for an ID atomically.
+ * Lookups which have already returned the old CompiledSchema, and validations
+ * using it, are unaffected, as CompiledSchemas are immutable.
+ * <p>
+ *
+ * The registry counts hits, misses and evictions, so that its size can be
+ * tuned. Each CompiledSchema it returns carries the ID it was looked up by, see
+ * {@link CompiledSchema#getId()}.
+ */
+public final class SchemaRegistry {
+  private final int maxSize;
+  private final Function<String, Schema> loader;
+  private final ConcurrentHashMap<String, Entry> entries;
+  private final AtomicLong generation;
+  private final ReentrantLock evictionLock;
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private final LongAdder evictions;
+
+  /**
+   * Construct a SchemaRegistry.
+   * <p>
+   *
+   * The loader is called with the ID of each schema which is looked up but not
+   * in the registry, and should return the current version of that schema, or
+   * null if there is no such schema. It may be called concurrently, including
+   * more than once for the same ID.
+   *
+   * @param maxSize the maximum number of schemas to hold
+   * @param loader  the function to fetch schemas not in the registry with
+   */
+  public SchemaRegistry(int maxSize, Function<String, Schema> loader) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+
+    this.maxSize = maxSize;
+    this.loader = loader;
+    this.entries = new ConcurrentHashMap<>();
+    this.generation = new AtomicLong();
+    this.evictionLock = new ReentrantLock();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.evictions = new LongAdder();
+  }
+
+  /**
+   * Get the compiled schema with a given ID, loading it if necessary.
+   *
+   * @param id the ID of the schema
+   * @return the compiled schema, or null if the loader has no such schema
+   * @throws InvalidSchemaException if the loaded schema is not correct
+   */
+  public CompiledSchema get(String id) throws InvalidSchemaException {
+    Entry entry = this.entries.get(id);
+    if (entry != null) {
+      this.hits.increment();
+      entry.touch(this.generation.get());
+      return entry.schema;
+    }
+
+    this.misses.increment();
+
+    Schema schema = this.loader.apply(id);
+    if (schema == null) {
+      return null;
+    }
+
+    // If another thread loaded or put this schema in the meantime, prefer
+    // theirs.
+    Entry loaded = new Entry(schema.compile().withId(id), this.nextGeneration());
+    Entry existing = this.entries.putIfAbsent(id, loaded);
+    if (existing != null) {
+      return existing.schema;
+    }
+
+    this.evict();
+    return loaded.schema;
+  }
+
+  /**
+   * Put a schema into the registry, replacing any schema with the same ID.
+   * <p>
+   *
+   * The schema is verified and compiled before it replaces anything, so if it
+   * is not correct the registry is left unchanged.
+   *
+   * @param id     the ID of the schema
+   * @param schema the schema
+   * @return the compiled schema
+   * @throws InvalidSchemaException if the schema is not correct
+   */
+  public CompiledSchema put(String id, Schema schema) throws InvalidSchemaException {
+    Entry entry = new Entry(schema.compile().withId(id), this.nextGeneration());
+    this.entries.put(id, entry);
+    this.evict();
+    return entry.schema;
+  }
+
+  /**
+   * Remove the schema with a given ID from the registry, so that it is loaded
+   * afresh the next time it is looked up.
+   *
+   * @param id the ID of the schema
+   */
+  public void invalidate(String id) {
+    this.entries.remove(id);
+  }
+
+  /**
+   * Get the number of schemas in the registry.
+   * <p>
+   *
+   * @return the number of schemas in the registry
+   */
+  public int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * Get the number of lookups which found their schema in the registry.
+   * <p>
+   *
+   * @return the number of hits
+   */
+  public long getHitCount() {
+    return this.hits.sum();
+  }
+
+  /**
+   * Get the number of lookups which did not find their schema in the registry.
+   * <p>
+   *
+   * @return the number of misses
+   */
+  public long getMissCount() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Get the number of schemas evicted from the registry to keep it within its
+   * maximum size.
+   * <p>
+   *
+   * @return the number of evictions
+   */
+  public long getEvictionCount() {
+    return this.evictions.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "SchemaRegistry [maxSize=" + maxSize + ", size=" + size() + ", hits=" + getHitCount() + ", misses="
+        + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+  }
+
+  // Returns the generation for a schema being added to the registry, and
+  // starts a new one, so that schemas looked up from now on are considered
+  // more recent than it.
+  private long nextGeneration() {
+    return this.generation.getAndIncrement();
+  }
+
+  // Evicts the least recently used schemas, if the registry is too big.
+  //
+  // Finding those schemas means looking at all of them, so to spread that cost
+  // over many additions, a little more is evicted than strictly necessary. If
+  // another thread is already evicting, this one leaves it to them.
+  private void evict() {
+    if (this.entries.size() <= this.maxSize || !this.evictionLock.tryLock()) {
+      return;
+    }
+
+    try {
+      int excess = this.entries.size() - this.maxSize;
+      if (excess <= 0) {
+        return;
+      }
+
+      // Lookups carry on while this happens, so take a snapshot of when each
+      // schema was last used to sort by.
+      List<Candidate> candidates = new ArrayList<>(this.entries.size());
+      for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+        candidates.add(new Candidate(entry.getKey(), entry.getValue()));
+      }
+      candidates.sort((a, b) -> Long.compare(a.lastUsed, b.lastUsed));
+
+      int target = Math.min(candidates.size(), excess + this.maxSize / 16);
+      for (int i = 0; i < target; i++) {
+        if (this.entries.remove(candidates.get(i).id, candidates.get(i).entry)) {
+          this.evictions.increment();
+        }
+      }
+    } finally {
+      this.evictionLock.unlock();
+    }
+  }
+
+  private static final class Entry {
+    private final CompiledSchema schema;
+    private volatile long lastUsed;
+
+    private Entry(CompiledSchema schema, long generation) {
+      this.schema = schema;
+      this.lastUsed = generation;
+    }
+
+    private void touch(long generation) {
+      // Only write when the generation has moved on, so that a schema which is
+      // looked up constantly does not have its cache line written constantly.
+      if (this.lastUsed != generation) {
+        this.lastUsed = generation;
+      }
+    }
+  }
+
+  private static final class Candidate {
+    private final String id;
+    private final Entry entry;
+    private final long lastUsed;
+
+    private Candidate(String id, Entry entry) {
+      this.id = id;
+      this.entry = entry;
+      this.lastUsed = entry.lastUsed;
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package io.jddf.gson;
+
+/**
+ * TimeoutExceededException indicates that the timeout of a Validator was
+ * exceeded during validation.
+ * <p>
+ *
+ * See {@link Validator.Builder#setTimeout(long)} and
+ * {@link ValidationLimitExceededException}.
+ */
+public class TimeoutExceededException extends ValidationLimitExceededException {
+  private static final long serialVersionUID = -2217431470907264590L;
+}
@@ -0,0 +1,124 @@
+package io.jddf.gson;
+
+/**
+ * Timestamps checks whether strings are RFC 3339 timestamps.
+ * <p>
+ *
+ * JDDF's {@code timestamp} type requires strings to match the
+ * {@code date-time} production of RFC 3339, section 5.6. This class checks that
+ * grammar directly, along with the ranges of each field, without allocating or
+ * throwing.
+ * <p>
+ *
+ * As RFC 3339 permits, the {@code T} and {@code Z} characters are
+ * case-insensitive. A seconds value of {@code 60} is accepted, to allow for leap
+ * seconds; whether a leap second really occurred at that instant is not
+ * checked.
+ */
+final class Timestamps {
+  private Timestamps() {
+  }
+
+  /**
+   * Determines whether a string is an RFC 3339 {@code date-time}.
+   */
+  static boolean isValid(CharSequence s) {
+    // The shortest possible timestamp is "YYYY-MM-DDTHH:MM:SSZ".
+    int n = s.length();
+    if (n < 20) {
+      return false;
+    }
+
+    int year = digits(s, 0, 4);
+    int month = digits(s, 5, 2);
+    int day = digits(s, 8, 2);
+    int hour = digits(s, 11, 2);
+    int minute = digits(s, 14, 2);
+    int second = digits(s, 17, 2);
+
+    if ((year | month | day | hour | minute | second) < 0) {
+      return false;
+    }
+
+    if (s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(13) != ':' || s.charAt(16) != ':') {
+      return false;
+    }
+
+    char t = s.charAt(10);
+    if (t != 'T' && t != 't') {
+      return false;
+    }
+
+    if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+      return false;
+    }
+
+    if (hour > 23 || minute > 59 || second > 60) {
+      return false;
+    }
+
+    int i = 19;
+    if (s.charAt(i) == '.') {
+      int start = ++i;
+      while (i < n && isDigit(s.charAt(i))) {
+        i++;
+      }
+
+      if (i == start || i == n) {
+        return false;
+      }
+    }
+
+    char offset = s.charAt(i);
+    if (offset == 'Z' || offset == 'z') {
+      return i + 1 == n;
+    }
+
+    if (offset != '+' && offset != '-') {
+      return false;
+    }
+
+    if (i + 6 != n || s.charAt(i + 3) != ':') {
+      return false;
+    }
+
+    int offsetHour = digits(s, i + 1, 2);
+    int offsetMinute = digits(s, i + 4, 2);
+    return offsetHour >= 0 && offsetHour <= 23 && offsetMinute >= 0 && offsetMinute <= 59;
+  }
+
+  // Parses count decimal digits starting at offset, or returns -1 if any of them
+  // are not digits.
+  private static int digits(CharSequence s, int offset, int count) {
+    int value = 0;
+    for (int i = offset; i < offset + count; i++) {
+      char c = s.charAt(i);
+      if (!isDigit(c)) {
+        return -1;
+      }
+
+      value = value * 10 + (c - '0');
+    }
+
+    return value;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static int daysInMonth(int year, int month) {
+    switch (month) {
+    case 2:
+      boolean leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+      return leap ? 29 : 28;
+    case 4:
+    case 6:
+    case 9:
+    case 11:
+      return 30;
+    default:
+      return 31;
+    }
+  }
+}
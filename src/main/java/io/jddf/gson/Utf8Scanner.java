@@ -0,0 +1,662 @@
+package io.jddf.gson;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+/**
+ * Utf8Scanner reads a single JSON value directly from UTF-8 bytes.
+ * <p>
+ *
+ * Its interface mirrors that of JsonReader, so that the validator can treat the
+ * two alike, but strings are never decoded. Instead, scanning a string or a
+ * name records where its contents lie in the buffer, along with the hash code
+ * the equivalent Java String would have. Callers can then compare the contents
+ * against precomputed UTF-8 sequences, see
+ * {@link CompiledSchema.PropertyTable#indexOf(Utf8Scanner)}, and
+ * only decode them into a String when they contain escape sequences or are
+ * needed for an error.
+ * <p>
+ *
+ * The whole of the input must be a single, well-formed JSON value, optionally
+ * surrounded by whitespace. Malformed JSON, and strings which are not
+ * well-formed UTF-8, cause a MalformedJsonException.
+ * <p>
+ *
+ * The buffer is read with absolute gets, so neither its position nor its limit
+ * are modified. Heap buffers are read through their backing array, which
+ * avoids a bounds check on every byte. Scanners are not thread-safe, but may be reused by calling
+ * {@link #reset(ByteBuffer)}.
+ */
+final class Utf8Scanner {
+  private static final int EMPTY_ARRAY = 1;
+  private static final int NONEMPTY_ARRAY = 2;
+  private static final int EMPTY_OBJECT = 3;
+  private static final int DANGLING_NAME = 4;
+  private static final int NONEMPTY_OBJECT = 5;
+  private static final int EMPTY_DOCUMENT = 6;
+  private static final int NONEMPTY_DOCUMENT = 7;
+
+  private ByteBuffer buffer;
+  private byte[] array;
+  private int arrayOffset;
+  private int pos;
+  private int limit;
+  private int[] stack = new int[32];
+  private int stackSize;
+  private JsonToken peeked;
+
+  // The contents of the last string or name scanned, excluding its quotes.
+  private int stringStart;
+  private int stringEnd;
+  private int stringHash;
+  private boolean stringEscaped;
+  private boolean stringAscii;
+
+  // The text of the last number scanned, or of an ASCII string.
+  private final Text text = new Text();
+
+  Utf8Scanner reset(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.array = buffer.hasArray() ? buffer.array() : null;
+    this.arrayOffset = buffer.hasArray() ? buffer.arrayOffset() : 0;
+    this.pos = buffer.position();
+    this.limit = buffer.limit();
+    this.stack[0] = EMPTY_DOCUMENT;
+    this.stackSize = 1;
+    this.peeked = null;
+    return this;
+  }
+
+  ByteBuffer buffer() {
+    return buffer;
+  }
+
+  /**
+   * Returns the number of arrays and objects the scanner is currently inside.
+   */
+  int depth() {
+    return stackSize - 1;
+  }
+
+  JsonToken peek() throws MalformedJsonException {
+    if (this.peeked != null) {
+      return this.peeked;
+    }
+
+    int top = this.stack[this.stackSize - 1];
+    switch (top) {
+    case EMPTY_ARRAY:
+      this.stack[this.stackSize - 1] = NONEMPTY_ARRAY;
+      if (this.nextNonWhitespace() == ']') {
+        return this.peeked = JsonToken.END_ARRAY;
+      }
+      break;
+    case NONEMPTY_ARRAY:
+      int c = this.nextNonWhitespace();
+      if (c == ']') {
+        return this.peeked = JsonToken.END_ARRAY;
+      }
+
+      this.expect(c == ',', "Expected ',' or ']'");
+      this.pos++;
+      break;
+    case EMPTY_OBJECT:
+    case NONEMPTY_OBJECT:
+      c = this.nextNonWhitespace();
+      if (c == '}') {
+        return this.peeked = JsonToken.END_OBJECT;
+      }
+
+      if (top == NONEMPTY_OBJECT) {
+        this.expect(c == ',', "Expected ',' or '}'");
+        this.pos++;
+        c = this.nextNonWhitespace();
+      }
+
+      this.expect(c == '"', "Expected name");
+      this.stack[this.stackSize - 1] = DANGLING_NAME;
+      return this.peeked = JsonToken.NAME;
+    case DANGLING_NAME:
+      this.expect(this.nextNonWhitespace() == ':', "Expected ':'");
+      this.pos++;
+      this.stack[this.stackSize - 1] = NONEMPTY_OBJECT;
+      break;
+    case EMPTY_DOCUMENT:
+      this.stack[this.stackSize - 1] = NONEMPTY_DOCUMENT;
+      break;
+    case NONEMPTY_DOCUMENT:
+      this.expect(this.nextNonWhitespace() == -1, "Expected end of document");
+      return this.peeked = JsonToken.END_DOCUMENT;
+    }
+
+    switch (this.nextNonWhitespace()) {
+    case '{':
+      return this.peeked = JsonToken.BEGIN_OBJECT;
+    case '[':
+      return this.peeked = JsonToken.BEGIN_ARRAY;
+    case '"':
+      return this.peeked = JsonToken.STRING;
+    case 't':
+    case 'f':
+      return this.peeked = JsonToken.BOOLEAN;
+    case 'n':
+      return this.peeked = JsonToken.NULL;
+    case '-':
+    case '0':
+    case '1':
+    case '2':
+    case '3':
+    case '4':
+    case '5':
+    case '6':
+    case '7':
+    case '8':
+    case '9':
+      return this.peeked = JsonToken.NUMBER;
+    default:
+      throw this.syntaxError("Expected value");
+    }
+  }
+
+  boolean hasNext() throws MalformedJsonException {
+    JsonToken token = this.peek();
+    return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+  }
+
+  void beginArray() throws MalformedJsonException {
+    this.consume(JsonToken.BEGIN_ARRAY);
+    this.pos++;
+    this.push(EMPTY_ARRAY);
+  }
+
+  void endArray() throws MalformedJsonException {
+    this.consume(JsonToken.END_ARRAY);
+    this.pos++;
+    this.stackSize--;
+  }
+
+  void beginObject() throws MalformedJsonException {
+    this.consume(JsonToken.BEGIN_OBJECT);
+    this.pos++;
+    this.push(EMPTY_OBJECT);
+  }
+
+  void endObject() throws MalformedJsonException {
+    this.consume(JsonToken.END_OBJECT);
+    this.pos++;
+    this.stackSize--;
+  }
+
+  /**
+   * Returns a mark which {@link #rewind(int)} can return to. Marks may only be
+   * taken directly after {@link #beginObject()}.
+   */
+  int mark() {
+    return this.pos;
+  }
+
+  /**
+   * Returns to the start of the members of an object, after some of them have
+   * been consumed. The members of the object must have been skipped, rather
+   * than entered.
+   */
+  void rewind(int mark) {
+    this.pos = mark;
+    this.stack[this.stackSize - 1] = EMPTY_OBJECT;
+    this.peeked = null;
+  }
+
+  /**
+   * Returns the position of the scanner in its buffer. Directly after a name
+   * has been scanned, this is a position which {@link #seekValue(int)} can
+   * return to, and directly after a member's value has been scanned, or once
+   * {@link #hasNext()} has returned false at the end of an object, one which
+   * {@link #seekMember(int)} can.
+   */
+  int position() {
+    return this.pos;
+  }
+
+  /**
+   * Returns to the value of a member of the current object, so that it can be
+   * scanned again, or for the first time if it was skipped.
+   */
+  void seekValue(int position) {
+    this.pos = position;
+    this.stack[this.stackSize - 1] = DANGLING_NAME;
+    this.peeked = null;
+  }
+
+  /**
+   * Returns to a position between two members of the current object, or
+   * before its end, after some of its other members have been scanned again.
+   */
+  void seekMember(int position) {
+    this.pos = position;
+    this.stack[this.stackSize - 1] = NONEMPTY_OBJECT;
+    this.peeked = null;
+  }
+
+  /**
+   * Scans a name. Its contents are described by {@link #stringStart()} and the
+   * methods which follow it.
+   */
+  void nextName() throws MalformedJsonException {
+    this.consume(JsonToken.NAME);
+    this.scanString();
+  }
+
+  /**
+   * Scans a string. Its contents are described by {@link #stringStart()} and
+   * the methods which follow it.
+   */
+  void nextString() throws MalformedJsonException {
+    this.consume(JsonToken.STRING);
+    this.scanString();
+  }
+
+  /**
+   * Scans a number, and returns its text.
+   * <p>
+   *
+   * The text is only valid until the next call to the scanner.
+   */
+  CharSequence nextNumber() throws MalformedJsonException {
+    this.consume(JsonToken.NUMBER);
+
+    int start = this.pos;
+    if (this.byteAt(this.pos) == '-') {
+      this.pos++;
+    }
+
+    if (this.byteAt(this.pos) == '0') {
+      this.pos++;
+    } else {
+      this.digits();
+    }
+
+    if (this.byteAt(this.pos) == '.') {
+      this.pos++;
+      this.digits();
+    }
+
+    int c = this.byteAt(this.pos);
+    if (c == 'e' || c == 'E') {
+      this.pos++;
+      c = this.byteAt(this.pos);
+      if (c == '+' || c == '-') {
+        this.pos++;
+      }
+
+      this.digits();
+    }
+
+    return this.text.of(start, this.pos);
+  }
+
+  void skipValue() throws MalformedJsonException {
+    int depth = 0;
+    do {
+      switch (this.peek()) {
+      case BEGIN_ARRAY:
+        this.beginArray();
+        depth++;
+        break;
+      case END_ARRAY:
+        this.endArray();
+        depth--;
+        break;
+      case BEGIN_OBJECT:
+        this.beginObject();
+        depth++;
+        break;
+      case END_OBJECT:
+        this.endObject();
+        depth--;
+        break;
+      case NAME:
+        this.nextName();
+        break;
+      case STRING:
+        this.nextString();
+        break;
+      case NUMBER:
+        this.nextNumber();
+        break;
+      case BOOLEAN:
+        this.peeked = null;
+        this.literal(this.byteAt(this.pos) == 't' ? "true" : "false");
+        break;
+      case NULL:
+        this.peeked = null;
+        this.literal("null");
+        break;
+      default:
+        throw this.syntaxError("Expected value");
+      }
+    } while (depth > 0);
+  }
+
+  int stringStart() {
+    return stringStart;
+  }
+
+  int stringEnd() {
+    return stringEnd;
+  }
+
+  /**
+   * Returns the hash code of the last string or name scanned, as computed by
+   * {@link String#hashCode()} on its decoded contents.
+   */
+  int stringHash() {
+    return stringHash;
+  }
+
+  /**
+   * Returns whether the last string or name scanned contained escape
+   * sequences. If it did, its bytes differ from the UTF-8 encoding of its
+   * contents.
+   */
+  boolean stringEscaped() {
+    return stringEscaped;
+  }
+
+  /**
+   * Returns whether the bytes of the last string or name scanned are exactly
+   * the given bytes.
+   */
+  boolean stringEquals(byte[] utf8) {
+    if (this.stringEnd - this.stringStart != utf8.length) {
+      return false;
+    }
+
+    for (int i = 0; i < utf8.length; i++) {
+      if (this.get(this.stringStart + i) != utf8[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the contents of the last string scanned as text, without decoding
+   * it into a String where possible.
+   * <p>
+   *
+   * The text is only valid until the next call to the scanner.
+   */
+  CharSequence stringText() {
+    if (this.stringAscii && !this.stringEscaped) {
+      return this.text.of(this.stringStart, this.stringEnd);
+    }
+
+    return decode(this.buffer, this.stringStart, this.stringEnd);
+  }
+
+  /**
+   * Decodes the contents of a well-formed JSON string, excluding its quotes,
+   * into a String.
+   */
+  static String decode(ByteBuffer buffer, int start, int end) {
+    StringBuilder builder = new StringBuilder(end - start);
+    int i = start;
+    while (i < end) {
+      int b = buffer.get(i++);
+      if (b == '\\') {
+        int e = buffer.get(i++);
+        switch (e) {
+        case 'b':
+          builder.append('\b');
+          break;
+        case 'f':
+          builder.append('\f');
+          break;
+        case 'n':
+          builder.append('\n');
+          break;
+        case 'r':
+          builder.append('\r');
+          break;
+        case 't':
+          builder.append('\t');
+          break;
+        case 'u':
+          int c = 0;
+          for (int j = 0; j < 4; j++) {
+            c = (c << 4) | Character.digit(buffer.get(i++), 16);
+          }
+
+          builder.append((char) c);
+          break;
+        default:
+          builder.append((char) e);
+        }
+      } else if (b >= 0) {
+        builder.append((char) b);
+      } else if ((b & 0xe0) == 0xc0) {
+        builder.append((char) (((b & 0x1f) << 6) | (buffer.get(i++) & 0x3f)));
+      } else if ((b & 0xf0) == 0xe0) {
+        builder.append((char) (((b & 0x0f) << 12) | ((buffer.get(i++) & 0x3f) << 6) | (buffer.get(i++) & 0x3f)));
+      } else {
+        builder.appendCodePoint(((b & 0x07) << 18) | ((buffer.get(i++) & 0x3f) << 12)
+            | ((buffer.get(i++) & 0x3f) << 6) | (buffer.get(i++) & 0x3f));
+      }
+    }
+
+    return builder.toString();
+  }
+
+  // Scans the string starting at the current position, checking that it is
+  // well-formed UTF-8 and computing the hash of its decoded contents as it
+  // goes.
+  private void scanString() throws MalformedJsonException {
+    int i = this.pos + 1;
+    int hash = 0;
+    boolean escaped = false;
+    boolean ascii = true;
+
+    this.stringStart = i;
+    for (;;) {
+      int b = this.byteAt(i++);
+      if (b == '"') {
+        break;
+      }
+
+      if (b == '\\') {
+        escaped = true;
+        int c;
+        switch (this.byteAt(i++)) {
+        case '"':
+          c = '"';
+          break;
+        case '\\':
+          c = '\\';
+          break;
+        case '/':
+          c = '/';
+          break;
+        case 'b':
+          c = '\b';
+          break;
+        case 'f':
+          c = '\f';
+          break;
+        case 'n':
+          c = '\n';
+          break;
+        case 'r':
+          c = '\r';
+          break;
+        case 't':
+          c = '\t';
+          break;
+        case 'u':
+          c = 0;
+          for (int j = 0; j < 4; j++) {
+            int digit = Character.digit(this.byteAt(i++), 16);
+            this.expect(digit >= 0, "Invalid escape sequence");
+            c = (c << 4) | digit;
+          }
+          break;
+        default:
+          throw this.syntaxError("Invalid escape sequence");
+        }
+
+        hash = 31 * hash + c;
+      } else if (b >= 0x20 && b < 0x80) {
+        hash = 31 * hash + b;
+      } else if (b < 0) {
+        throw this.syntaxError("Unterminated string");
+      } else if (b < 0x20) {
+        throw this.syntaxError("Unescaped control character");
+      } else {
+        // A multi-byte sequence. Overlong encodings, surrogates, and code
+        // points beyond U+10FFFF are rejected, as RFC 3629 requires.
+        ascii = false;
+        int lead = b;
+        int c;
+        if (lead >= 0xc2 && lead <= 0xdf) {
+          c = ((lead & 0x1f) << 6) | this.continuation(i++, 0x80, 0xbf);
+        } else if (lead >= 0xe0 && lead <= 0xef) {
+          int min = lead == 0xe0 ? 0xa0 : 0x80;
+          int max = lead == 0xed ? 0x9f : 0xbf;
+          c = ((lead & 0x0f) << 12) | (this.continuation(i++, min, max) << 6) | this.continuation(i++, 0x80, 0xbf);
+        } else if (lead >= 0xf0 && lead <= 0xf4) {
+          int min = lead == 0xf0 ? 0x90 : 0x80;
+          int max = lead == 0xf4 ? 0x8f : 0xbf;
+          c = ((lead & 0x07) << 18) | (this.continuation(i++, min, max) << 12)
+              | (this.continuation(i++, 0x80, 0xbf) << 6) | this.continuation(i++, 0x80, 0xbf);
+        } else {
+          throw this.syntaxError("Invalid UTF-8");
+        }
+
+        if (c < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+          hash = 31 * hash + c;
+        } else {
+          hash = 31 * (31 * hash + Character.highSurrogate(c)) + Character.lowSurrogate(c);
+        }
+      }
+    }
+
+    this.pos = i;
+    this.stringEnd = i - 1;
+    this.stringHash = hash;
+    this.stringEscaped = escaped;
+    this.stringAscii = ascii;
+  }
+
+  // Returns the low six bits of the continuation byte at i, which must lie
+  // between min and max.
+  private int continuation(int i, int min, int max) throws MalformedJsonException {
+    int b = this.byteAt(i);
+    this.expect(b >= min && b <= max, "Invalid UTF-8");
+    return b & 0x3f;
+  }
+
+  private void digits() throws MalformedJsonException {
+    int start = this.pos;
+    while (this.pos < this.limit && isDigit(this.get(this.pos))) {
+      this.pos++;
+    }
+
+    this.expect(this.pos > start, "Expected digit");
+  }
+
+  private void literal(String literal) throws MalformedJsonException {
+    for (int i = 0; i < literal.length(); i++) {
+      this.expect(this.byteAt(this.pos++) == literal.charAt(i), "Expected " + literal);
+    }
+  }
+
+  private void consume(JsonToken token) throws MalformedJsonException {
+    if (this.peek() != token) {
+      throw this.syntaxError("Expected " + token + " but was " + this.peeked);
+    }
+
+    this.peeked = null;
+  }
+
+  private void push(int state) {
+    if (this.stackSize == this.stack.length) {
+      this.stack = Arrays.copyOf(this.stack, this.stackSize * 2);
+    }
+
+    this.stack[this.stackSize++] = state;
+  }
+
+  // Skips whitespace, and returns the unsigned byte at the new position
+  // without consuming it, or -1 at the end of the input.
+  private int nextNonWhitespace() {
+    for (; this.pos < this.limit; this.pos++) {
+      int c = this.get(this.pos) & 0xff;
+      if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+        return c;
+      }
+    }
+
+    return -1;
+  }
+
+  // Returns the unsigned byte at i, or -1 past the end of the input.
+  private int byteAt(int i) {
+    return i < this.limit ? this.get(i) & 0xff : -1;
+  }
+
+  private byte get(int i) {
+    return this.array != null ? this.array[this.arrayOffset + i] : this.buffer.get(i);
+  }
+
+  private void expect(boolean condition, String message) throws MalformedJsonException {
+    if (!condition) {
+      throw this.syntaxError(message);
+    }
+  }
+
+  private MalformedJsonException syntaxError(String message) {
+    return new MalformedJsonException(message + " at byte " + (this.pos - this.buffer.position()));
+  }
+
+  private static boolean isDigit(int c) {
+    return c >= '0' && c <= '9';
+  }
+
+  /**
+   * Text presents a range of ASCII bytes in the buffer as characters, without
+   * copying them.
+   */
+  private final class Text implements CharSequence {
+    private int start;
+    private int end;
+
+    private Text of(int start, int end) {
+      this.start = start;
+      this.end = end;
+      return this;
+    }
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) get(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return this.toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return decode(buffer, start, end);
+    }
+  }
+}
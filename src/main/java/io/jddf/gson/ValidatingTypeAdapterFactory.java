@@ -0,0 +1,465 @@
+package io.jddf.gson;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * ValidatingTypeAdapterFactory makes Gson validate values of a given type
+ * against a schema as it reads and writes them.
+ * <p>
+ *
+ * Register the factory with a GsonBuilder:
+ *
+ * <pre>
+ * Gson gson = new GsonBuilder()
+ *     .registerTypeAdapterFactory(new ValidatingTypeAdapterFactory(validator, Order.class, schema))
+ *     .create();
+ *
+ * Order order = gson.fromJson(json, Order.class);
+ * </pre>
+ *
+ * This is a convenience, not a faster way to parse and validate. When reading,
+ * the value is validated from the JsonReader as it is parsed, in the same way
+ * as {@link Validator#validate(CompiledSchema, JsonReader)}, but the tokens are
+ * also collected into a full JsonElement as they go past. If the value is
+ * valid, it is then bound from that JsonElement by the adapter Gson would
+ * otherwise have used. This costs about as much as parsing a JsonElement,
+ * validating it and calling {@link Gson#fromJson(JsonElement, Class)}. The
+ * tree can't be skipped, because Gson's Map adapters only read object keys
+ * from Gson's own readers. If the value is not valid, nothing is bound, and an
+ * {@link InvalidInstanceException} is thrown with the validation errors.
+ * <p>
+ *
+ * When writing, the value is written to a JsonElement, which is validated, and
+ * then copied to the JsonWriter only if it is valid, so that invalid output is
+ * never partially written.
+ * <p>
+ *
+ * Like the adapters returned by {@link TypeAdapter#nullSafe()}, the adapters
+ * this factory creates read and write null as null, without validating it, so
+ * that a null field of the given type is left out of, or read from, the object
+ * containing it just as Gson would otherwise do.
+ * <p>
+ *
+ * If the max depth, max nodes or timeout of the validator is exceeded, a
+ * JsonParseException is thrown, caused by the ValidationLimitExceededException.
+ * Instances of this class are safe to share across threads.
+ */
+public final class ValidatingTypeAdapterFactory implements TypeAdapterFactory {
+  private static final TypeAdapter<JsonElement> ELEMENT_ADAPTER = new Gson().getAdapter(JsonElement.class);
+
+  private final Validator validator;
+  private final TypeToken<?> type;
+  private final CompiledSchema schema;
+
+  /**
+   * Construct a ValidatingTypeAdapterFactory.
+   *
+   * @param validator the validator to validate values with
+   * @param type      the type of values to validate, which must match the
+   *                  declared type exactly
+   * @param schema    the schema to validate values against
+   */
+  public ValidatingTypeAdapterFactory(Validator validator, Type type, CompiledSchema schema) {
+    this.validator = validator;
+    this.type = TypeToken.get(type);
+    this.schema = schema;
+  }
+
+  @Override
+  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    if (!this.type.equals(type)) {
+      return null;
+    }
+
+    return new Adapter<>(gson.getDelegateAdapter(this, type));
+  }
+
+  private final class Adapter<T> extends TypeAdapter<T> {
+    private final TypeAdapter<T> delegate;
+
+    private Adapter(TypeAdapter<T> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      TreeReader reader = new TreeReader(in);
+      List<ValidationError> errors;
+      try {
+        errors = ValidatingTypeAdapterFactory.this.validator.validate(ValidatingTypeAdapterFactory.this.schema, reader);
+      } catch (ValidationLimitExceededException e) {
+        throw new JsonParseException(e);
+      }
+
+      if (!errors.isEmpty()) {
+        throw new InvalidInstanceException(errors);
+      }
+
+      return this.delegate.fromJsonTree(reader.root);
+    }
+
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+
+      TreeWriter writer = new TreeWriter();
+      writer.setLenient(out.isLenient());
+      writer.setSerializeNulls(out.getSerializeNulls());
+      this.delegate.write(writer, value);
+
+      List<ValidationError> errors;
+      try {
+        errors = ValidatingTypeAdapterFactory.this.validator.validate(ValidatingTypeAdapterFactory.this.schema,
+            writer.root);
+      } catch (ValidationLimitExceededException e) {
+        throw new JsonParseException(e);
+      }
+
+      if (!errors.isEmpty()) {
+        throw new InvalidInstanceException(errors);
+      }
+
+      ELEMENT_ADAPTER.write(out, writer.root);
+    }
+  }
+
+  /**
+   * TreeReader reads from another JsonReader, and collects each value it reads
+   * into a JsonElement.
+   * <p>
+   *
+   * Values which are skipped are collected in full. Numbers are read with
+   * Gson's own JsonElement adapter, so that they keep their exact text.
+   */
+  private static final class TreeReader extends JsonReader {
+    private final JsonReader in;
+    private final Deque<JsonElement> containers;
+    private String name;
+    private JsonElement root;
+
+    private TreeReader(JsonReader in) {
+      super(UNREADABLE);
+      this.in = in;
+      this.containers = new ArrayDeque<>();
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+      this.in.beginArray();
+      JsonArray array = new JsonArray();
+      this.add(array);
+      this.containers.push(array);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+      this.in.endArray();
+      this.containers.pop();
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+      this.in.beginObject();
+      JsonObject object = new JsonObject();
+      this.add(object);
+      this.containers.push(object);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+      this.in.endObject();
+      this.containers.pop();
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+      return this.in.hasNext();
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+      return this.in.peek();
+    }
+
+    @Override
+    public String nextName() throws IOException {
+      this.name = this.in.nextName();
+      return this.name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+      return this.nextScalar().getAsString();
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+      return this.nextScalar().getAsBoolean();
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+      this.in.nextNull();
+      this.add(JsonNull.INSTANCE);
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+      return this.nextScalar().getAsDouble();
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+      return this.nextScalar().getAsLong();
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+      return this.nextScalar().getAsInt();
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+      this.add(ELEMENT_ADAPTER.read(this.in));
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.in.close();
+    }
+
+    @Override
+    public String getPath() {
+      return this.in.getPath();
+    }
+
+    @Override
+    public String toString() {
+      return "TreeReader [in=" + in + "]";
+    }
+
+    private JsonElement nextScalar() throws IOException {
+      JsonElement value;
+      switch (this.in.peek()) {
+      case STRING:
+        value = new JsonPrimitive(this.in.nextString());
+        break;
+      case BOOLEAN:
+        value = new JsonPrimitive(this.in.nextBoolean());
+        break;
+      case NUMBER:
+        value = ELEMENT_ADAPTER.read(this.in);
+        break;
+      default:
+        throw new IllegalStateException(
+            "Expected a scalar but was " + this.in.peek() + " at path " + this.in.getPath());
+      }
+
+      this.add(value);
+      return value;
+    }
+
+    private void add(JsonElement value) {
+      JsonElement container = this.containers.peek();
+      if (container == null) {
+        this.root = value;
+      } else if (container.isJsonArray()) {
+        ((JsonArray) container).add(value);
+      } else {
+        ((JsonObject) container).add(this.name, value);
+      }
+    }
+  }
+
+  /**
+   * TreeWriter collects the values written to it into a JsonElement.
+   * <p>
+   *
+   * Like any JsonWriter, it leaves out object members whose value is null,
+   * unless it is set to serialize nulls.
+   */
+  private static final class TreeWriter extends JsonWriter {
+    private final Deque<JsonElement> containers;
+    private String name;
+    private JsonElement root;
+
+    private TreeWriter() {
+      super(UNWRITABLE);
+      this.containers = new ArrayDeque<>();
+      this.root = JsonNull.INSTANCE;
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+      JsonArray array = new JsonArray();
+      this.add(array);
+      this.containers.push(array);
+      return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+      this.containers.pop();
+      return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+      JsonObject object = new JsonObject();
+      this.add(object);
+      this.containers.push(object);
+      return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+      this.containers.pop();
+      return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+      this.name = name;
+      return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+      return value == null ? this.nullValue() : this.add(new JsonPrimitive(value));
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+      return value == null ? this.nullValue() : this.add(ELEMENT_ADAPTER.fromJson(value));
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+      if (this.name != null && !this.getSerializeNulls()) {
+        this.name = null;
+        return this;
+      }
+
+      return this.add(JsonNull.INSTANCE);
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+      return this.add(new JsonPrimitive(value));
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+      return value == null ? this.nullValue() : this.add(new JsonPrimitive(value));
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+      if (!this.isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+        throw new IllegalArgumentException("JSON forbids NaN and infinities: " + value);
+      }
+
+      return this.add(new JsonPrimitive(value));
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+      return this.add(new JsonPrimitive(value));
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+      if (value == null) {
+        return this.nullValue();
+      }
+
+      double asDouble = value.doubleValue();
+      if (!this.isLenient() && (Double.isNaN(asDouble) || Double.isInfinite(asDouble))) {
+        throw new IllegalArgumentException("JSON forbids NaN and infinities: " + value);
+      }
+
+      return this.add(new JsonPrimitive(value));
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private JsonWriter add(JsonElement value) {
+      JsonElement container = this.containers.peek();
+      if (container == null) {
+        this.root = value;
+      } else if (container.isJsonArray()) {
+        ((JsonArray) container).add(value);
+      } else {
+        ((JsonObject) container).add(this.name, value);
+        this.name = null;
+      }
+
+      return this;
+    }
+  }
+
+  // TreeReader and TreeWriter do their own reading and writing, so the
+  // underlying reader and writer of their superclasses must never be used.
+  private static final Reader UNREADABLE = new Reader() {
+    @Override
+    public int read(char[] buffer, int offset, int count) {
+      throw new AssertionError();
+    }
+
+    @Override
+    public void close() {
+      throw new AssertionError();
+    }
+  };
+
+  private static final Writer UNWRITABLE = new Writer() {
+    @Override
+    public void write(char[] buffer, int offset, int count) {
+      throw new AssertionError();
+    }
+
+    @Override
+    public void flush() {
+      throw new AssertionError();
+    }
+
+    @Override
+    public void close() {
+      throw new AssertionError();
+    }
+  };
+}
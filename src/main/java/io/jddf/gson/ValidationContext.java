@@ -0,0 +1,244 @@
+package io.jddf.gson;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * ValidationContext validates instances using the settings of a Validator,
+ * reusing the same working state from one call to the next.
+ * <p>
+ *
+ * Each call to {@link Validator#validate(CompiledSchema, JsonElement)} sets up
+ * fresh buffers for tracking where in the instance it is, and for collecting
+ * errors. A ValidationContext keeps those buffers, and resets them between
+ * calls rather than allocating new ones. Validating a valid instance with a
+ * ValidationContext allocates no buffers or error lists at all, and the errors
+ * of an invalid instance are copied out into a list of their own.
+ * <p>
+ *
+ * Unlike Validator, ValidationContext is not thread-safe. A context can be
+ * reused by one thread after another, for instance by keeping contexts in a
+ * pool, but it must not be used by two threads at once. The simplest way to
+ * share contexts is to keep one per thread:
+ *
+ * <pre>
+ * ThreadLocal&lt;ValidationContext&gt; contexts = ThreadLocal.withInitial(validator::newContext);
+ * </pre>
+ *
+ * Instances of this class are constructed by {@link Validator#newContext()}.
+ */
+public final class ValidationContext {
+  private final Validator.VM vm;
+
+  ValidationContext(Validator.VM vm) {
+    this.vm = vm;
+  }
+
+  /**
+   * Validate an instance against a CompiledSchema.
+   * <p>
+   *
+   * This is equivalent to
+   * {@link Validator#validate(CompiledSchema, JsonElement)}.
+   *
+   * @param schema   the compiled schema to validate against
+   * @param instance the instance to validate
+   * @return the validation errors associated with the instance validated against
+   *         the schema, or an empty, immutable list if there are none
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of the validator is
+   *                                          exceeded
+   */
+  public List<ValidationError> validate(CompiledSchema schema, JsonElement instance)
+      throws ValidationLimitExceededException {
+    this.vm.reset();
+    return copy(this.vm.run(schema, instance));
+  }
+
+  /**
+   * Validate an instance, read through an InstanceAccessor, against a
+   * CompiledSchema.
+   * <p>
+   *
+   * This is equivalent to
+   * {@link Validator#validate(CompiledSchema, Object, InstanceAccessor)}.
+   *
+   * @param <T>      the type of the values in the instance
+   * @param schema   the compiled schema to validate against
+   * @param instance the instance to validate
+   * @param accessor the accessor to read the instance with
+   * @return the validation errors associated with the instance validated against
+   *         the schema, or an empty, immutable list if there are none
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of the validator is
+   *                                          exceeded
+   */
+  public <T> List<ValidationError> validate(CompiledSchema schema, T instance, InstanceAccessor<T> accessor)
+      throws ValidationLimitExceededException {
+    this.vm.reset();
+    return copy(this.vm.run(schema, instance, accessor));
+  }
+
+  /**
+   * Validate an instance, read from a JsonReader, against a CompiledSchema.
+   * <p>
+   *
+   * This is equivalent to
+   * {@link Validator#validate(CompiledSchema, JsonReader)}.
+   *
+   * @param schema the compiled schema to validate against
+   * @param reader the reader to consume a single instance from
+   * @return the validation errors associated with the instance validated against
+   *         the schema, or an empty, immutable list if there are none
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of the validator is
+   *                                          exceeded
+   * @throws IOException                      if the instance could not be read
+   */
+  public List<ValidationError> validate(CompiledSchema schema, JsonReader reader)
+      throws ValidationLimitExceededException, IOException {
+    this.vm.reset();
+    return copy(this.vm.run(schema, reader));
+  }
+
+  /**
+   * Validate an instance, encoded as UTF-8 bytes, against a CompiledSchema.
+   * <p>
+   *
+   * This is equivalent to
+   * {@link Validator#validate(CompiledSchema, ByteBuffer)}. The scanner used
+   * to read the bytes is reused from one call to the next, so validating a
+   * valid instance allocates nothing at all, as long as none of its keys or
+   * enum values contain escape sequences.
+   *
+   * @param schema the compiled schema to validate against
+   * @param bytes  the UTF-8 encoding of the instance
+   * @return the validation errors associated with the instance validated against
+   *         the schema, or an empty, immutable list if there are none
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of the validator is
+   *                                          exceeded
+   * @throws IOException                      if the bytes are not a single,
+   *                                          well-formed JSON value
+   */
+  public List<ValidationError> validate(CompiledSchema schema, ByteBuffer bytes)
+      throws ValidationLimitExceededException, IOException {
+    this.vm.reset();
+    return copy(this.vm.run(schema, bytes));
+  }
+
+  /**
+   * Validate an instance against a CompiledSchema, passing each error to a
+   * sink.
+   * <p>
+   *
+   * This is equivalent to
+   * {@link Validator#validate(CompiledSchema, JsonElement, ErrorSink)}.
+   *
+   * @param schema   the compiled schema to validate against
+   * @param instance the instance to validate
+   * @param sink     the sink to pass validation errors to
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of the validator is
+   *                                          exceeded
+   */
+  public void validate(CompiledSchema schema, JsonElement instance, ErrorSink sink)
+      throws ValidationLimitExceededException {
+    this.vm.reset(sink);
+    try {
+      this.vm.run(schema, instance);
+    } finally {
+      this.vm.reset();
+    }
+  }
+
+  /**
+   * Validate an instance, read through an InstanceAccessor, against a
+   * CompiledSchema, passing each error to a sink.
+   * <p>
+   *
+   * This is equivalent to
+   * {@link Validator#validate(CompiledSchema, Object, InstanceAccessor, ErrorSink)}.
+   *
+   * @param <T>      the type of the values in the instance
+   * @param schema   the compiled schema to validate against
+   * @param instance the instance to validate
+   * @param accessor the accessor to read the instance with
+   * @param sink     the sink to pass validation errors to
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of the validator is
+   *                                          exceeded
+   */
+  public <T> void validate(CompiledSchema schema, T instance, InstanceAccessor<T> accessor, ErrorSink sink)
+      throws ValidationLimitExceededException {
+    this.vm.reset(sink);
+    try {
+      this.vm.run(schema, instance, accessor);
+    } finally {
+      this.vm.reset();
+    }
+  }
+
+  /**
+   * Validate an instance, read from a JsonReader, against a CompiledSchema,
+   * passing each error to a sink.
+   * <p>
+   *
+   * This is equivalent to
+   * {@link Validator#validate(CompiledSchema, JsonReader, ErrorSink)}.
+   *
+   * @param schema the compiled schema to validate against
+   * @param reader the reader to consume a single instance from
+   * @param sink   the sink to pass validation errors to
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of the validator is
+   *                                          exceeded
+   * @throws IOException                      if the instance could not be read
+   */
+  public void validate(CompiledSchema schema, JsonReader reader, ErrorSink sink)
+      throws ValidationLimitExceededException, IOException {
+    this.vm.reset(sink);
+    try {
+      this.vm.run(schema, reader);
+    } finally {
+      this.vm.reset();
+    }
+  }
+
+  /**
+   * Validate an instance, encoded as UTF-8 bytes, against a CompiledSchema,
+   * passing each error to a sink.
+   * <p>
+   *
+   * This is equivalent to
+   * {@link Validator#validate(CompiledSchema, ByteBuffer, ErrorSink)}.
+   *
+   * @param schema the compiled schema to validate against
+   * @param bytes  the UTF-8 encoding of the instance
+   * @param sink   the sink to pass validation errors to
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of the validator is
+   *                                          exceeded
+   * @throws IOException                      if the bytes are not a single,
+   *                                          well-formed JSON value
+   */
+  public void validate(CompiledSchema schema, ByteBuffer bytes, ErrorSink sink)
+      throws ValidationLimitExceededException, IOException {
+    this.vm.reset(sink);
+    try {
+      this.vm.run(schema, bytes);
+    } finally {
+      this.vm.reset();
+    }
+  }
+
+  private static List<ValidationError> copy(List<ValidationError> errors) {
+    return errors.isEmpty() ? Collections.emptyList() : new ArrayList<>(errors);
+  }
+}
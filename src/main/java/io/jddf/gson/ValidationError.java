@@ -14,34 +14,84 @@ import java.util.List;
  *
  * Instances of this class are returned by
  * {@link Validator#validate(Schema, com.google.gson.JsonElement)}. That method
- * is the most common way to construct instances of this class.
+ * is the most common way to construct instances of this class. The paths of
+ * errors returned by Validator are only converted into lists of strings when
+ * they are first requested.
  */
 public class ValidationError {
+  private Path lazyInstancePath;
+  private Path lazySchemaPath;
   private List<String> instancePath;
   private List<String> schemaPath;
 
+  public ValidationError() {
+  }
+
+  ValidationError(Path instancePath, Path schemaPath) {
+    this.lazyInstancePath = instancePath;
+    this.lazySchemaPath = schemaPath;
+  }
+
+  // Returns the schema path this error was constructed with, if it has not
+  // since been replaced.
+  Path lazySchemaPath() {
+    return lazySchemaPath;
+  }
+
   public List<String> getInstancePath() {
+    if (instancePath == null && lazyInstancePath != null) {
+      instancePath = lazyInstancePath.toList();
+    }
+
     return instancePath;
   }
 
   public void setInstancePath(List<String> instancePath) {
+    this.lazyInstancePath = null;
     this.instancePath = instancePath;
   }
 
   public List<String> getSchemaPath() {
+    if (schemaPath == null && lazySchemaPath != null) {
+      schemaPath = lazySchemaPath.toList();
+    }
+
     return schemaPath;
   }
 
   public void setSchemaPath(List<String> schemaPath) {
+    this.lazySchemaPath = null;
     this.schemaPath = schemaPath;
   }
 
+  /**
+   * Get the instance path of this error, formatted as a JSON Pointer.
+   * <p>
+   *
+   * @return the instance path as an RFC 6901 JSON Pointer, or null if there is
+   *         no instance path
+   */
+  public String getInstancePointer() {
+    return getInstancePath() == null ? null : Path.toPointer(getInstancePath());
+  }
+
+  /**
+   * Get the schema path of this error, formatted as a JSON Pointer.
+   * <p>
+   *
+   * @return the schema path as an RFC 6901 JSON Pointer, or null if there is no
+   *         schema path
+   */
+  public String getSchemaPointer() {
+    return getSchemaPath() == null ? null : Path.toPointer(getSchemaPath());
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
     int result = 1;
-    result = prime * result + ((instancePath == null) ? 0 : instancePath.hashCode());
-    result = prime * result + ((schemaPath == null) ? 0 : schemaPath.hashCode());
+    result = prime * result + ((getInstancePath() == null) ? 0 : getInstancePath().hashCode());
+    result = prime * result + ((getSchemaPath() == null) ? 0 : getSchemaPath().hashCode());
     return result;
   }
 
@@ -54,21 +104,21 @@ public class ValidationError {
     if (getClass() != obj.getClass())
       return false;
     ValidationError other = (ValidationError) obj;
-    if (instancePath == null) {
-      if (other.instancePath != null)
+    if (getInstancePath() == null) {
+      if (other.getInstancePath() != null)
         return false;
-    } else if (!instancePath.equals(other.instancePath))
+    } else if (!getInstancePath().equals(other.getInstancePath()))
       return false;
-    if (schemaPath == null) {
-      if (other.schemaPath != null)
+    if (getSchemaPath() == null) {
+      if (other.getSchemaPath() != null)
         return false;
-    } else if (!schemaPath.equals(other.schemaPath))
+    } else if (!getSchemaPath().equals(other.getSchemaPath()))
       return false;
     return true;
   }
 
   @Override
   public String toString() {
-    return "ValidationError [instancePath=" + instancePath + ", schemaPath=" + schemaPath + "]";
+    return "ValidationError [instancePath=" + getInstancePath() + ", schemaPath=" + getSchemaPath() + "]";
   }
 }
@@ -0,0 +1,49 @@
+package io.jddf.gson;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * ValidationEvent is the JDK Flight Recorder event for a validation which went
+ * over its validator's duration or node threshold.
+ * <p>
+ *
+ * See {@link Validator.Builder#setEventDurationThreshold(long)}. This class is
+ * only ever loaded through ValidationRecorder, so that the rest of the library
+ * still works on JVMs without the {@code jdk.jfr} module.
+ */
+@Name("io.jddf.gson.Validation")
+@Label("JDDF Validation")
+@Category("JDDF")
+@Description("A validation which took longer, or visited more schema nodes, than its validator's threshold")
+final class ValidationEvent extends Event {
+  @Label("Schema ID")
+  String schemaId;
+
+  @Label("Instance Size")
+  @Description("The size of the instance, if it was validated as bytes, or -1")
+  @DataAmount
+  long instanceSize;
+
+  @Label("Nodes Visited")
+  long nodes;
+
+  @Label("Errors")
+  long errors;
+
+  @Label("Max Depth Exceeded")
+  boolean maxDepthExceeded;
+
+  @Label("Max Nodes Exceeded")
+  boolean maxNodesExceeded;
+
+  @Label("Timeout Exceeded")
+  boolean timeoutExceeded;
+
+  @Label("Max Errors Reached")
+  boolean maxErrorsReached;
+}
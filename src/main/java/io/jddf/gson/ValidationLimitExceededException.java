@@ -0,0 +1,20 @@
+package io.jddf.gson;
+
+/**
+ * ValidationLimitExceededException indicates that validation was stopped
+ * because it went over one of the limits of a Validator, rather than because
+ * of anything to do with the instance's errors.
+ * <p>
+ *
+ * It is never thrown itself. MaxDepthExceededException indicates that the max
+ * depth was exceeded, which usually means that the schema refers to itself in
+ * a way that can never finish. MaxNodesExceededException and
+ * TimeoutExceededException indicate that the work budget set with
+ * {@link Validator.Builder#setMaxNodes(long)} or
+ * {@link Validator.Builder#setTimeout(long)} ran out, which is a problem with
+ * the size of the instance, not with the schema. Catch the subclass for the
+ * limits you handle differently, and this class for the rest.
+ */
+public abstract class ValidationLimitExceededException extends Exception {
+  private static final long serialVersionUID = 5086434519236167513L;
+}
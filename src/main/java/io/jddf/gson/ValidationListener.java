@@ -0,0 +1,31 @@
+package io.jddf.gson;
+
+/**
+ * ValidationListener is told about each validation a Validator performs.
+ * <p>
+ *
+ * A listener is set with {@link Validator.Builder#setListener(ValidationListener)}.
+ * It is called once for each call to {@code validate}, on the thread which
+ * made the call, once validation has finished. Validations which end in an
+ * exception are not reported. Validations which only check whether an
+ * instance is valid, such as
+ * {@link Validator#isValid(CompiledSchema, com.google.gson.JsonElement)}, are
+ * not reported either.
+ * <p>
+ *
+ * Listeners are called on the validation hot path, and so should be cheap and
+ * must be safe to use from multiple threads. {@link ValidationMetrics} is a
+ * listener which adds stats up by schema ID.
+ */
+@FunctionalInterface
+public interface ValidationListener {
+  /**
+   * Receive the stats of a finished validation.
+   * <p>
+   *
+   * @param schema the schema the instance was validated against
+   * @param stats  the stats of the validation, which are only valid until this
+   *               method returns
+   */
+  void onValidation(CompiledSchema schema, ValidationStats stats);
+}
@@ -0,0 +1,99 @@
+package io.jddf.gson;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ValidationMetrics is a ValidationListener which adds up the stats of every
+ * validation, by schema ID.
+ * <p>
+ *
+ * Validations against schemas with an ID, see {@link CompiledSchema#getId()},
+ * are counted under that ID, and all others are counted together under the
+ * empty string. Counts are kept in LongAdders, so that many threads can report
+ * validations at once without contending with one another, and recording a
+ * validation against a schema seen before allocates nothing.
+ * <p>
+ *
+ * <pre>
+ * ValidationMetrics metrics = new ValidationMetrics();
+ * Validator validator = Validator.builder().setListener(metrics).build();
+ * </pre>
+ *
+ * Instances of this class are safe to use from multiple threads.
+ */
+public final class ValidationMetrics implements ValidationListener {
+  private final ConcurrentHashMap<String, Counters> schemas;
+
+  public ValidationMetrics() {
+    this.schemas = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void onValidation(CompiledSchema schema, ValidationStats stats) {
+    String id = schema.getId() == null ? "" : schema.getId();
+    Counters counters = this.schemas.get(id);
+    if (counters == null) {
+      counters = this.schemas.computeIfAbsent(id, key -> new Counters());
+    }
+
+    counters.add(stats);
+  }
+
+  /**
+   * Get the stats of the validations against each schema.
+   * <p>
+   *
+   * While other threads are still validating, the stats are a snapshot which
+   * may or may not include their latest validations, and the fields of a
+   * single ValidationStats may have been read at slightly different times.
+   *
+   * @return the stats added up so far, by schema ID, sorted by ID
+   */
+  public Map<String, ValidationStats> getStats() {
+    Map<String, ValidationStats> stats = new TreeMap<>();
+    for (Map.Entry<String, Counters> entry : this.schemas.entrySet()) {
+      stats.put(entry.getKey(), entry.getValue().toStats());
+    }
+
+    return stats;
+  }
+
+  /**
+   * Forget the stats of all validations so far.
+   */
+  public void reset() {
+    this.schemas.clear();
+  }
+
+  @Override
+  public String toString() {
+    return "ValidationMetrics [stats=" + getStats() + "]";
+  }
+
+  private static final class Counters {
+    private final LongAdder validations = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder refs = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAccumulator maxInstanceDepth = new LongAccumulator(Math::max, 0);
+    private final LongAdder elapsedNanos = new LongAdder();
+
+    private void add(ValidationStats stats) {
+      this.validations.add(stats.validations);
+      this.nodes.add(stats.nodes);
+      this.refs.add(stats.refs);
+      this.errors.add(stats.errors);
+      this.maxInstanceDepth.accumulate(stats.maxInstanceDepth);
+      this.elapsedNanos.add(stats.elapsedNanos);
+    }
+
+    private ValidationStats toStats() {
+      return new ValidationStats(this.validations.sum(), this.nodes.sum(), this.refs.sum(), this.errors.sum(),
+          (int) this.maxInstanceDepth.get(), this.elapsedNanos.sum());
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package io.jddf.gson;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ValidationProfile counts validation errors by schema path, across any number
+ * of instances.
+ * <p>
+ *
+ * Bulk data-quality checks are usually more interested in how often each part
+ * of a schema fails than in individual errors. A ValidationProfile is an
+ * ErrorSink which, rather than keeping errors, counts them against the schema
+ * path which raised them, and keeps the instance paths of the first few errors
+ * at each schema path as samples. Its memory use depends only on the size of
+ * its schema, however many instances and errors are profiled.
+ * <p>
+ *
+ * When a Validator or ValidationContext is given a ValidationProfile for its
+ * own schema, errors are counted without constructing ValidationErrors at all,
+ * and instance paths are only built for samples.
+ * <p>
+ *
+ * Instances of this class are safe to use from multiple threads. Counts are
+ * kept in LongAdders, so many threads can profile into the same
+ * ValidationProfile at once without contending with one another:
+ *
+ * <pre>
+ * ValidationProfile profile = new ValidationProfile(compiled);
+ * records.parallelStream().forEach(record -&gt; contexts.get().validate(compiled, record, profile));
+ * List&lt;ProfileEntry&gt; report = profile.report();
+ * </pre>
+ */
+public final class ValidationProfile implements ErrorSink {
+  private final CompiledSchema schema;
+  private final Path[] sites;
+  private final Map<String, Integer> pointers;
+  private final LongAdder[] counts;
+  private final int samplesPerSite;
+  private final AtomicIntegerArray sampled;
+  private final AtomicReferenceArray<String> samples;
+
+  /**
+   * Constructs a profile for a schema, which samples the instance paths of the
+   * first three errors against each schema path.
+   *
+   * @param schema the compiled schema whose errors to count
+   */
+  public ValidationProfile(CompiledSchema schema) {
+    this(schema, 3);
+  }
+
+  /**
+   * Constructs a profile for a schema.
+   *
+   * @param schema         the compiled schema whose errors to count
+   * @param samplesPerSite the number of instance paths to keep for each schema
+   *                       path
+   */
+  public ValidationProfile(CompiledSchema schema, int samplesPerSite) {
+    if (samplesPerSite < 0) {
+      throw new IllegalArgumentException("samplesPerSite must not be negative");
+    }
+
+    this.schema = schema;
+    this.sites = schema.getSites();
+    this.pointers = new HashMap<>();
+    this.counts = new LongAdder[this.sites.length];
+    for (int i = 0; i < this.sites.length; i++) {
+      this.pointers.put(this.sites[i].toString(), i);
+      this.counts[i] = new LongAdder();
+    }
+
+    this.samplesPerSite = samplesPerSite;
+    this.sampled = new AtomicIntegerArray(this.sites.length);
+    this.samples = new AtomicReferenceArray<>(this.sites.length * samplesPerSite);
+  }
+
+  /**
+   * Get the schema this profile counts errors against.
+   * <p>
+   *
+   * @return the compiled schema of this profile
+   */
+  public CompiledSchema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Count a validation error.
+   * <p>
+   *
+   * The error must have been raised by this profile's schema, or by another
+   * compilation of the same schema.
+   *
+   * @param error the error to count
+   * @return true, as profiling never stops validation
+   * @throws IllegalArgumentException if the error's schema path is not one
+   *                                  which this profile's schema can raise
+   */
+  @Override
+  public boolean accept(ValidationError error) {
+    Path schemaPath = error.lazySchemaPath();
+    int site = schemaPath != null ? this.count(schemaPath) : this.count(error.getSchemaPointer());
+    if (this.isSampling(site)) {
+      this.sample(site, error.getInstancePointer());
+    }
+
+    return true;
+  }
+
+  /**
+   * Report the errors counted so far.
+   * <p>
+   *
+   * There is one entry for each schema path with at least one error, ordered
+   * from the most to the least frequent. While other threads are still
+   * counting, the report is a snapshot which may or may not include their
+   * latest errors.
+   *
+   * @return the errors counted, by schema path
+   */
+  public List<ProfileEntry> report() {
+    List<ProfileEntry> entries = new ArrayList<>();
+    for (int site = 0; site < this.sites.length; site++) {
+      long count = this.counts[site].sum();
+      if (count == 0) {
+        continue;
+      }
+
+      List<String> samples = new ArrayList<>();
+      int sampled = Math.min(this.sampled.get(site), this.samplesPerSite);
+      for (int i = 0; i < sampled; i++) {
+        // A slot may have been claimed by a thread which hasn't yet filled it.
+        String sample = this.samples.get(site * this.samplesPerSite + i);
+        if (sample != null) {
+          samples.add(sample);
+        }
+      }
+
+      entries.add(new ProfileEntry(this.sites[site].toString(), count, Collections.unmodifiableList(samples)));
+    }
+
+    // The sort is stable, so equally frequent paths stay in schema order.
+    entries.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+    return entries;
+  }
+
+  /**
+   * Clear all counts and samples.
+   * <p>
+   *
+   * This must not be called while other threads are counting errors.
+   */
+  public void reset() {
+    for (int site = 0; site < this.sites.length; site++) {
+      this.counts[site].reset();
+      this.sampled.set(site, 0);
+    }
+
+    for (int i = 0; i < this.samples.length(); i++) {
+      this.samples.set(i, null);
+    }
+  }
+
+  // Counts an error at a schema path, and returns the path's site.
+  int count(Path schemaPath) {
+    int site = schemaPath.site();
+    if (site < 0 || site >= this.sites.length || this.sites[site] != schemaPath) {
+      // The path was compiled separately from this profile's schema.
+      return this.count(schemaPath.toString());
+    }
+
+    this.counts[site].increment();
+    return site;
+  }
+
+  private int count(String schemaPointer) {
+    Integer site = this.pointers.get(schemaPointer);
+    if (site == null) {
+      throw new IllegalArgumentException("Not a schema path of this profile's schema: " + schemaPointer);
+    }
+
+    this.counts[site].increment();
+    return site;
+  }
+
+  // Returns whether the instance path of the latest error at a site should be
+  // kept as a sample.
+  boolean isSampling(int site) {
+    return this.sampled.get(site) < this.samplesPerSite;
+  }
+
+  void sample(int site, String instancePointer) {
+    int slot = this.sampled.getAndIncrement(site);
+    if (slot < this.samplesPerSite) {
+      this.samples.set(site * this.samplesPerSite + slot, instancePointer);
+    }
+  }
+}
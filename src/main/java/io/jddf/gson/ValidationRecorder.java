@@ -0,0 +1,58 @@
+package io.jddf.gson;
+
+import jdk.jfr.EventType;
+
+/**
+ * ValidationRecorder emits a ValidationEvent for each validation over a
+ * duration or node threshold.
+ * <p>
+ *
+ * Validator only refers to this class once it has thresholds to record, and
+ * treats a LinkageError while constructing it as JFR being unavailable. Events
+ * are typed as Object outside this class for the same reason.
+ */
+final class ValidationRecorder {
+  private static final EventType TYPE = EventType.getEventType(ValidationEvent.class);
+
+  private final long durationThreshold;
+  private final long nodeThreshold;
+
+  ValidationRecorder(long durationThreshold, long nodeThreshold) {
+    this.durationThreshold = durationThreshold;
+    this.nodeThreshold = nodeThreshold;
+  }
+
+  // Returns an event which has begun, or null if the event is not being
+  // recorded. This is all a validation costs while nothing is recording.
+  Object begin() {
+    if (!TYPE.isEnabled()) {
+      return null;
+    }
+
+    ValidationEvent event = new ValidationEvent();
+    event.begin();
+    return event;
+  }
+
+  // Ends an event returned by begin, and commits it if the validation went over
+  // either threshold. The exception is the one the validation ended in, if any.
+  void end(Object begun, String schemaId, long instanceSize, long nodes, long errors, long elapsedNanos,
+      ValidationLimitExceededException exception, boolean maxErrorsReached) {
+    ValidationEvent event = (ValidationEvent) begun;
+    event.end();
+
+    boolean slow = this.durationThreshold > 0 && elapsedNanos >= this.durationThreshold;
+    boolean large = this.nodeThreshold > 0 && nodes >= this.nodeThreshold;
+    if ((slow || large) && event.shouldCommit()) {
+      event.schemaId = schemaId;
+      event.instanceSize = instanceSize;
+      event.nodes = nodes;
+      event.errors = errors;
+      event.maxNodesExceeded = exception instanceof MaxNodesExceededException;
+      event.timeoutExceeded = exception instanceof TimeoutExceededException;
+      event.maxDepthExceeded = exception instanceof MaxDepthExceededException;
+      event.maxErrorsReached = maxErrorsReached;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package io.jddf.gson;
+
+/**
+ * ValidationStats describes the work done by one or more validations.
+ * <p>
+ *
+ * A ValidationListener is passed the stats of each validation as it finishes.
+ * Those stats describe a single validation, and belong to the validator: they
+ * are overwritten by its next validation, so they must not be kept beyond the
+ * call to the listener. {@link ValidationMetrics} returns stats which add up
+ * many validations, and which are never modified.
+ */
+public final class ValidationStats {
+  long validations;
+  long nodes;
+  long refs;
+  long errors;
+  int maxInstanceDepth;
+  long elapsedNanos;
+
+  ValidationStats() {
+  }
+
+  ValidationStats(long validations, long nodes, long refs, long errors, int maxInstanceDepth, long elapsedNanos) {
+    this.validations = validations;
+    this.nodes = nodes;
+    this.refs = refs;
+    this.errors = errors;
+    this.maxInstanceDepth = maxInstanceDepth;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Get the number of validations described.
+   * <p>
+   *
+   * @return the number of validations, which is one for the stats passed to a
+   *         listener
+   */
+  public long getValidations() {
+    return validations;
+  }
+
+  /**
+   * Get the number of schema nodes visited.
+   * <p>
+   *
+   * Each schema node is counted once for every part of the instance it is
+   * applied to. Nodes are not visited once validation has been stopped, such as
+   * by reaching the max errors.
+   *
+   * @return the number of schema nodes visited
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Get the number of refs followed.
+   * <p>
+   *
+   * @return the number of times a {@code ref} was followed to its definition
+   */
+  public long getRefs() {
+    return refs;
+  }
+
+  /**
+   * Get the number of validation errors found.
+   * <p>
+   *
+   * @return the number of errors
+   */
+  public long getErrors() {
+    return errors;
+  }
+
+  /**
+   * Get the depth of the most deeply nested part of the instance visited.
+   * <p>
+   *
+   * @return the greatest number of tokens in the instance path of any value
+   *         validated, which is zero for the instance itself
+   */
+  public int getMaxInstanceDepth() {
+    return maxInstanceDepth;
+  }
+
+  /**
+   * Get the time spent validating.
+   * <p>
+   *
+   * @return the wall-clock time spent, in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "ValidationStats [validations=" + validations + ", nodes=" + nodes + ", refs=" + refs + ", errors="
+        + errors + ", maxInstanceDepth=" + maxInstanceDepth + ", elapsedNanos=" + elapsedNanos + "]";
+  }
+}
@@ -1,28 +1,43 @@
 package io.jddf.gson;
 
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * Validator evaluates inputs (called "instances") against JDDF schemas.
  * <p>
  *
  * To help improve performance and prevent accidental stack overflows, Validator
- * supports two "circuit-breaker" mechanisms:
+ * supports four "circuit-breaker" mechanisms:
  * <p>
  *
  * The "max depth" of a Validator is the maximum number of JDDF {@code ref}s it
  * will follow. This is to help resist against schemas which have circular
  * definitions. When the max depth is exceeded,
  * {@link #validate(Schema, JsonElement)} throws MaxDepthExceededException.
+ * Whatever the max depth, a ref which leads into a loop of refs, and so could
+ * never finish, throws MaxDepthExceededException as soon as it is reached; see
+ * {@link CompiledSchema#hasRefLoops()}.
  * <p>
  *
  * The "max errors" of a Validator is the maximum number of validation errors
@@ -33,309 +48,2192 @@ import com.google.gson.JsonPrimitive;
  * errors to this value.
  * <p>
  *
- * By default, Validator does not enforce a maximum depth, and does not have a
- * maximum number of errors to return.
+ * The "max nodes" and the "timeout" of a Validator bound the total work of a
+ * single validation, however large the instance, such as an enormous array or
+ * an object validated against a {@code values} schema. When either is exceeded,
+ * validation stops with a MaxNodesExceededException or a
+ * TimeoutExceededException respectively. See {@link Builder#setMaxNodes(long)}
+ * and {@link Builder#setTimeout(long)}.
+ * <p>
+ *
+ * Validator can also validate large arrays, and objects against a
+ * {@code values} schema, in parallel. See
+ * {@link Builder#setParallelThreshold(int)}.
+ * <p>
+ *
+ * Validators are immutable, and so they are safe to share across threads. To
+ * construct a Validator with settings other than the defaults, use
+ * {@link #builder()}. By default, Validator does not enforce a maximum depth,
+ * does not have a maximum number of errors to return, does not limit the work
+ * or time spent on a validation, and validates instances on a single thread.
+ * <p>
+ *
+ * Each call to {@code validate} sets up some state for tracking errors. To
+ * reuse that state across calls, use a {@link ValidationContext}, from
+ * {@link #newContext()}.
  */
 public class Validator {
-  private int maxDepth;
-  private int maxErrors;
+  private final int maxDepth;
+  private final int maxErrors;
+  private final long maxNodes;
+  private final long timeout;
+  private final int parallelThreshold;
+  private final ValidationListener listener;
+  private final long eventDurationThreshold;
+  private final long eventNodeThreshold;
+  private final ValidationRecorder recorder;
+
+  /**
+   * Construct a Validator with the default settings.
+   */
+  public Validator() {
+    this(new Builder());
+  }
+
+  private Validator(Builder builder) {
+    this.maxDepth = builder.maxDepth;
+    this.maxErrors = builder.maxErrors;
+    this.maxNodes = builder.maxNodes;
+    this.timeout = builder.timeout;
+    this.parallelThreshold = builder.parallelThreshold;
+    this.listener = builder.listener;
+    this.eventDurationThreshold = builder.eventDurationThreshold;
+    this.eventNodeThreshold = builder.eventNodeThreshold;
+    this.recorder = newRecorder(this.eventDurationThreshold, this.eventNodeThreshold);
+  }
+
+  // Returns a recorder of JFR events for validations over the given
+  // thresholds, or null if there are no thresholds or JFR is not available.
+  private static ValidationRecorder newRecorder(long durationThreshold, long nodeThreshold) {
+    if (durationThreshold <= 0 && nodeThreshold <= 0) {
+      return null;
+    }
+
+    try {
+      return new ValidationRecorder(durationThreshold, nodeThreshold);
+    } catch (LinkageError e) {
+      // The runtime does not include the jdk.jfr module.
+      return null;
+    }
+  }
+
+  /**
+   * Construct a Builder for a Validator.
+   * <p>
+   *
+   * @return a builder with the default settings
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Construct a new ValidationContext for this validator.
+   * <p>
+   *
+   * @return a context which validates using the settings of this validator
+   */
+  public ValidationContext newContext() {
+    return new ValidationContext(this.newVM());
+  }
+
+  VM newVM() {
+    return new VM(this.maxDepth, this.maxErrors, this.maxNodes, this.timeout, this.parallelThreshold, this.listener,
+        this.recorder);
+  }
+
+  /**
+   * Validate an input JSON element (called an "instance") against a Schema.
+   * <p>
+   *
+   * The schema is compiled on every call to this method, which verifies and
+   * interprets the whole of it, including every definition, whether or not the
+   * instance uses them. This costs time and memory proportional to the size of
+   * the schema, on top of validating the instance. If you are validating more
+   * than one instance against the same schema, compile it once with
+   * {@link Schema#compile()} and use
+   * {@link #validate(CompiledSchema, JsonElement)} instead.
+   *
+   * @param schema   the schema to validate against
+   * @param instance the instance to validate
+   * @return the validation errors associated with the instance validated against
+   *         the schema
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   */
+  public List<ValidationError> validate(Schema schema, JsonElement instance) throws ValidationLimitExceededException {
+    return this.validate(new CompiledSchema(schema), instance);
+  }
+
+  /**
+   * Validate an input JSON element (called an "instance") against a
+   * CompiledSchema.
+   *
+   * @param schema   the compiled schema to validate against
+   * @param instance the instance to validate
+   * @return the validation errors associated with the instance validated against
+   *         the schema
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   */
+  public List<ValidationError> validate(CompiledSchema schema, JsonElement instance)
+      throws ValidationLimitExceededException {
+    return this.newVM().run(schema, instance);
+  }
+
+  /**
+   * Validate an instance, read through an InstanceAccessor, against a
+   * CompiledSchema.
+   * <p>
+   *
+   * This lets instances which are not Gson trees, such as the maps and lists
+   * produced by other JSON libraries, be validated without first being
+   * converted. The errors returned are the same as those which
+   * {@link #validate(CompiledSchema, JsonElement)} would return for the
+   * equivalent JsonElement. Specialized schemas, see
+   * {@link CompiledSchema#specialize()}, only apply to JsonElements, so
+   * instances validated this way are always interpreted.
+   *
+   * @param <T>      the type of the values in the instance
+   * @param schema   the compiled schema to validate against
+   * @param instance the instance to validate
+   * @param accessor the accessor to read the instance with
+   * @return the validation errors associated with the instance validated against
+   *         the schema
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   */
+  public <T> List<ValidationError> validate(CompiledSchema schema, T instance, InstanceAccessor<T> accessor)
+      throws ValidationLimitExceededException {
+    return this.newVM().run(schema, instance, accessor);
+  }
+
+  /**
+   * Validate an instance, read from a JsonReader, against a Schema.
+   * <p>
+   *
+   * See {@link #validate(CompiledSchema, JsonReader)} for details on how this
+   * differs from {@link #validate(Schema, JsonElement)}. Like that method, this
+   * compiles the whole schema on every call, so prefer
+   * {@link #validate(CompiledSchema, JsonReader)} with a schema compiled once.
+   *
+   * @param schema the schema to validate against
+   * @param reader the reader to consume a single instance from
+   * @return the validation errors associated with the instance validated against
+   *         the schema
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   * @throws IOException                      if the instance could not be read
+   */
+  public List<ValidationError> validate(Schema schema, JsonReader reader)
+      throws ValidationLimitExceededException, IOException {
+    return this.validate(new CompiledSchema(schema), reader);
+  }
+
+  /**
+   * Validate an instance, read from a JsonReader, against a CompiledSchema.
+   * <p>
+   *
+   * The instance is validated as it is read, without first being parsed into a
+   * JsonElement. Parts of the instance which the schema accepts without
+   * inspection, such as values of the empty schema, are skipped over. The
+   * exception is the properties of an object which appear before its
+   * discriminator tag: these are buffered until the tag is known.
+   * <p>
+   *
+   * The errors returned are the same as those returned by
+   * {@link #validate(CompiledSchema, JsonElement)}, but they may be returned in
+   * a different order. As a result, when the max errors of this validator is
+   * reached, a different subset of errors may be returned.
+   * <p>
+   *
+   * Exactly one JSON value is consumed from the reader, unless an exception is
+   * thrown. This is true even if the max errors of this validator is reached.
+   *
+   * @param schema the compiled schema to validate against
+   * @param reader the reader to consume a single instance from
+   * @return the validation errors associated with the instance validated against
+   *         the schema
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   * @throws IOException                      if the instance could not be read
+   */
+  public List<ValidationError> validate(CompiledSchema schema, JsonReader reader)
+      throws ValidationLimitExceededException, IOException {
+    return this.newVM().run(schema, reader);
+  }
+
+  /**
+   * Validate an instance, encoded as UTF-8 bytes, against a Schema.
+   * <p>
+   *
+   * See {@link #validate(CompiledSchema, ByteBuffer)} for details. Like
+   * {@link #validate(Schema, JsonElement)}, this compiles the whole schema on
+   * every call, so prefer {@link #validate(CompiledSchema, ByteBuffer)} with a
+   * schema compiled once.
+   *
+   * @param schema the schema to validate against
+   * @param bytes  the UTF-8 encoding of the instance
+   * @return the validation errors associated with the instance validated against
+   *         the schema
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   * @throws IOException                      if the bytes are not a single,
+   *                                          well-formed JSON value
+   */
+  public List<ValidationError> validate(Schema schema, ByteBuffer bytes)
+      throws ValidationLimitExceededException, IOException {
+    return this.validate(new CompiledSchema(schema), bytes);
+  }
+
+  /**
+   * Validate an instance, encoded as UTF-8 bytes, against a CompiledSchema.
+   * <p>
+   *
+   * The instance is the whole of the buffer's remaining bytes, from its
+   * position to its limit, which must be a single JSON value, optionally
+   * surrounded by whitespace. The buffer may be a heap, direct or mapped
+   * buffer; its position and limit are left as they are.
+   * <p>
+   *
+   * The bytes are validated as they are scanned, without being decoded. Object
+   * keys, enum values and discriminator tags are matched against the UTF-8
+   * encodings of the keys and values in the schema, and no Strings are
+   * constructed, except for strings containing escape sequences and the paths
+   * of any errors. Objects against a discriminator schema are scanned twice:
+   * once to find their tag, and once to validate them.
+   * <p>
+   *
+   * The errors returned are the same as those returned by
+   * {@link #validate(CompiledSchema, JsonElement)}, in the same order. Unlike
+   * Gson, which only keeps the last of several members of an object with the
+   * same key, every member is validated, and so objects with such members may
+   * have extra errors, which are not in the order of the schema.
+   *
+   * @param schema the compiled schema to validate against
+   * @param bytes  the UTF-8 encoding of the instance
+   * @return the validation errors associated with the instance validated against
+   *         the schema
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   * @throws IOException                      if the bytes are not a single,
+   *                                          well-formed JSON value
+   */
+  public List<ValidationError> validate(CompiledSchema schema, ByteBuffer bytes)
+      throws ValidationLimitExceededException, IOException {
+    return this.newVM().run(schema, bytes);
+  }
+
+  /**
+   * Validate an instance, encoded as UTF-8 bytes, against a CompiledSchema.
+   * <p>
+   *
+   * This is equivalent to {@link #validate(CompiledSchema, ByteBuffer)} with a
+   * buffer wrapping the whole of the array.
+   *
+   * @param schema the compiled schema to validate against
+   * @param bytes  the UTF-8 encoding of the instance
+   * @return the validation errors associated with the instance validated against
+   *         the schema
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   * @throws IOException                      if the bytes are not a single,
+   *                                          well-formed JSON value
+   */
+  public List<ValidationError> validate(CompiledSchema schema, byte[] bytes)
+      throws ValidationLimitExceededException, IOException {
+    return this.validate(schema, ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Validate an instance against a CompiledSchema, passing each error to a sink
+   * rather than returning them.
+   * <p>
+   *
+   * The sink receives the same errors, in the same order, as
+   * {@link #validate(CompiledSchema, JsonElement)} would return. None of them
+   * are kept by the validator, and validation stops as soon as the sink returns
+   * false.
+   *
+   * @param schema   the compiled schema to validate against
+   * @param instance the instance to validate
+   * @param sink     the sink to pass validation errors to
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   */
+  public void validate(CompiledSchema schema, JsonElement instance, ErrorSink sink)
+      throws ValidationLimitExceededException {
+    VM vm = this.newVM();
+    vm.reset(sink);
+    vm.run(schema, instance);
+  }
+
+  /**
+   * Validate an instance, read through an InstanceAccessor, against a
+   * CompiledSchema, passing each error to a sink rather than returning them.
+   * <p>
+   *
+   * The sink receives the same errors, in the same order, as
+   * {@link #validate(CompiledSchema, Object, InstanceAccessor)} would return.
+   *
+   * @param <T>      the type of the values in the instance
+   * @param schema   the compiled schema to validate against
+   * @param instance the instance to validate
+   * @param accessor the accessor to read the instance with
+   * @param sink     the sink to pass validation errors to
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   */
+  public <T> void validate(CompiledSchema schema, T instance, InstanceAccessor<T> accessor, ErrorSink sink)
+      throws ValidationLimitExceededException {
+    VM vm = this.newVM();
+    vm.reset(sink);
+    vm.run(schema, instance, accessor);
+  }
+
+  /**
+   * Validate an instance, read from a JsonReader, against a CompiledSchema,
+   * passing each error to a sink rather than returning them.
+   * <p>
+   *
+   * The sink receives the same errors, in the same order, as
+   * {@link #validate(CompiledSchema, JsonReader)} would return. Together, they
+   * let an instance of any size be validated in a bounded amount of memory.
+   * Exactly one JSON value is consumed from the reader, unless an exception is
+   * thrown, even if the sink stops validation early.
+   *
+   * @param schema the compiled schema to validate against
+   * @param reader the reader to consume a single instance from
+   * @param sink   the sink to pass validation errors to
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   * @throws IOException                      if the instance could not be read
+   */
+  public void validate(CompiledSchema schema, JsonReader reader, ErrorSink sink)
+      throws ValidationLimitExceededException, IOException {
+    VM vm = this.newVM();
+    vm.reset(sink);
+    vm.run(schema, reader);
+  }
+
+  /**
+   * Validate an instance, encoded as UTF-8 bytes, against a CompiledSchema,
+   * passing each error to a sink rather than returning them.
+   * <p>
+   *
+   * The sink receives the same errors, in the same order, as
+   * {@link #validate(CompiledSchema, ByteBuffer)} would return. The whole of
+   * the instance is still checked to be well-formed, even if the sink stops
+   * validation early.
+   *
+   * @param schema the compiled schema to validate against
+   * @param bytes  the UTF-8 encoding of the instance
+   * @param sink   the sink to pass validation errors to
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   * @throws IOException                      if the bytes are not a single,
+   *                                          well-formed JSON value
+   */
+  public void validate(CompiledSchema schema, ByteBuffer bytes, ErrorSink sink)
+      throws ValidationLimitExceededException, IOException {
+    VM vm = this.newVM();
+    vm.reset(sink);
+    vm.run(schema, bytes);
+  }
+
+  /**
+   * Validate each line of newline-delimited JSON from a reader against a
+   * Schema.
+   * <p>
+   *
+   * See {@link #validateAll(CompiledSchema, Reader, Consumer)} for details.
+   *
+   * @param schema   the schema to validate against
+   * @param reader   the reader to consume records from, one per line
+   * @param consumer the consumer to pass the result of each record to
+   * @return a summary of the batch
+   * @throws IOException if the reader could not be read
+   */
+  public BatchSummary validateAll(Schema schema, Reader reader, Consumer<RecordResult> consumer)
+      throws IOException {
+    return this.validateAll(new CompiledSchema(schema), reader, consumer);
+  }
+
+  /**
+   * Validate each line of newline-delimited JSON from a reader against a
+   * CompiledSchema.
+   * <p>
+   *
+   * Each non-blank line of the reader is a separate record. Records are parsed
+   * and validated in parallel, as ForkJoinTasks, in the ForkJoinPool of the
+   * calling thread or in the common pool. The result of each record is passed
+   * to the consumer on the calling thread, in the order the records were read,
+   * and only a bounded number of records are held in memory at any time. So
+   * batches of any size can be validated.
+   * <p>
+   *
+   * Records are validated as though by
+   * {@link #validate(CompiledSchema, JsonReader)}. A line which is not a single,
+   * well-formed JSON value, or whose validation goes over the max depth, max
+   * nodes or timeout of this validator, does not stop the batch. Its result
+   * carries its line number and the exception which stopped it, see
+   * {@link RecordResult#getFailure()}, and it is counted as invalid.
+   *
+   * @param schema   the compiled schema to validate against
+   * @param reader   the reader to consume records from, one per line
+   * @param consumer the consumer to pass the result of each record to
+   * @return a summary of the batch
+   * @throws IOException if the reader could not be read
+   */
+  public BatchSummary validateAll(CompiledSchema schema, Reader reader, Consumer<RecordResult> consumer)
+      throws IOException {
+    return new Pipeline(this, schema, consumer).run(reader);
+  }
+
+  /**
+   * Validate each line of a newline-delimited JSON file against a Schema.
+   * <p>
+   *
+   * See {@link #validateAll(CompiledSchema, FileChannel, Consumer)} for
+   * details.
+   *
+   * @param schema   the schema to validate against
+   * @param channel  the channel of the file to validate
+   * @param consumer the consumer to pass the result of each record to
+   * @return a summary of the batch
+   * @throws IOException if the file could not be read, or has a line longer
+   *                     than a segment
+   */
+  public BatchSummary validateAll(Schema schema, FileChannel channel, Consumer<RecordResult> consumer)
+      throws IOException {
+    return this.validateAll(new CompiledSchema(schema), channel, consumer);
+  }
+
+  /**
+   * Validate each line of a newline-delimited JSON file against a
+   * CompiledSchema.
+   * <p>
+   *
+   * This is the fastest way to validate large files. The file, from its start
+   * to its current size, is mapped into memory in segments of up to a
+   * gigabyte, and each segment is split on line boundaries into chunks of
+   * about a megabyte, which are validated in parallel in the same way as
+   * {@link #validateAll(CompiledSchema, Reader, Consumer)} validates records.
+   * Lines are validated as UTF-8 bytes where they lie in the mapping, as though
+   * by {@link #validate(CompiledSchema, ByteBuffer)}, without being copied or
+   * decoded. The position of the channel is not used or changed.
+   * <p>
+   *
+   * Each result carries the line number of its record and the byte offset at
+   * which the line starts, see {@link RecordResult#getByteOffset()}. Malformed
+   * lines, and lines which go over a limit of this validator, are reported as
+   * failed results in the same way as
+   * {@link #validateAll(CompiledSchema, Reader, Consumer)} reports them. Only a
+   * line longer than a segment stops the batch, with an IOException.
+   *
+   * @param schema   the compiled schema to validate against
+   * @param channel  the channel of the file to validate
+   * @param consumer the consumer to pass the result of each record to
+   * @return a summary of the batch
+   * @throws IOException if the file could not be read, or has a line longer
+   *                     than a segment
+   */
+  public BatchSummary validateAll(CompiledSchema schema, FileChannel channel, Consumer<RecordResult> consumer)
+      throws IOException {
+    return new Pipeline(this, schema, consumer).run(channel, Pipeline.SEGMENT_SIZE);
+  }
+
+  /**
+   * Validate each of a sequence of instances against a Schema.
+   * <p>
+   *
+   * See {@link #validateAll(CompiledSchema, Iterable, Consumer)} for details.
+   *
+   * @param schema    the schema to validate against
+   * @param instances the instances to validate
+   * @param consumer  the consumer to pass the result of each instance to
+   * @return a summary of the batch
+   */
+  public BatchSummary validateAll(Schema schema, Iterable<JsonElement> instances, Consumer<RecordResult> consumer) {
+    return this.validateAll(new CompiledSchema(schema), instances, consumer);
+  }
+
+  /**
+   * Validate each of a sequence of instances against a CompiledSchema.
+   * <p>
+   *
+   * Instances are validated in parallel, in the same way as
+   * {@link #validateAll(CompiledSchema, Reader, Consumer)} validates records,
+   * and as though by {@link #validate(CompiledSchema, JsonElement)}. The
+   * sequence is only iterated over once, on the calling thread. Instances whose
+   * validation goes over a limit of this validator are reported as failed
+   * results, and do not stop the batch.
+   *
+   * @param schema    the compiled schema to validate against
+   * @param instances the instances to validate
+   * @param consumer  the consumer to pass the result of each instance to
+   * @return a summary of the batch
+   */
+  public BatchSummary validateAll(CompiledSchema schema, Iterable<JsonElement> instances,
+      Consumer<RecordResult> consumer) {
+    return new Pipeline(this, schema, consumer).run(instances);
+  }
+
+  /**
+   * Determine whether an instance is valid against a Schema.
+   * <p>
+   *
+   * See {@link #isValid(CompiledSchema, JsonElement)} for details. Unlike that
+   * method, this one allocates: it compiles the whole schema on every call, at
+   * a cost proportional to the size of the schema. Callers on a hot path should
+   * compile the schema once, with {@link Schema#compile()}, and call
+   * {@link #isValid(CompiledSchema, JsonElement)} instead.
+   *
+   * @param schema   the schema to validate against
+   * @param instance the instance to validate
+   * @return whether the instance has no validation errors
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   */
+  public boolean isValid(Schema schema, JsonElement instance) throws ValidationLimitExceededException {
+    return this.isValid(new CompiledSchema(schema), instance);
+  }
+
+  /**
+   * Determine whether an instance is valid against a CompiledSchema.
+   * <p>
+   *
+   * This is equivalent to checking whether
+   * {@link #validate(CompiledSchema, JsonElement)} returns no errors, but is
+   * much cheaper. No error paths are tracked and no errors are constructed, and
+   * validation stops at the first problem found. Apart from iterating over the
+   * members of objects against a {@code values} schema, this method does not
+   * allocate.
+   * <p>
+   *
+   * The max errors of this validator has no effect on this method. If the
+   * validator has a max nodes or a timeout, the instance is instead validated
+   * in the same way as {@code validate} does, stopping at the first error, so
+   * that the same budget applies. Doing so allocates, much as {@code validate}
+   * does.
+   *
+   * @param schema   the compiled schema to validate against
+   * @param instance the instance to validate
+   * @return whether the instance has no validation errors
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   */
+  public boolean isValid(CompiledSchema schema, JsonElement instance) throws ValidationLimitExceededException {
+    if (this.hasBudget()) {
+      return this.newBudgetVM().run(schema, instance).isEmpty();
+    }
+
+    if (schema.getCheck() != null) {
+      return schema.getCheck().isValid(instance, 1, this.maxDepth);
+    }
+
+    return this.isValid(schema.getRoot(), instance, JsonElementAccessor.INSTANCE, 1);
+  }
+
+  /**
+   * Determine whether an instance, read through an InstanceAccessor, is valid
+   * against a CompiledSchema.
+   * <p>
+   *
+   * This is equivalent to checking whether
+   * {@link #validate(CompiledSchema, Object, InstanceAccessor)} returns no
+   * errors, in the same way as {@link #isValid(CompiledSchema, JsonElement)}.
+   *
+   * @param <T>      the type of the values in the instance
+   * @param schema   the compiled schema to validate against
+   * @param instance the instance to validate
+   * @param accessor the accessor to read the instance with
+   * @return whether the instance has no validation errors
+   * @throws ValidationLimitExceededException if the max depth, max nodes or
+   *                                          timeout of this validator is
+   *                                          exceeded
+   */
+  public <T> boolean isValid(CompiledSchema schema, T instance, InstanceAccessor<T> accessor)
+      throws ValidationLimitExceededException {
+    if (this.hasBudget()) {
+      return this.newBudgetVM().run(schema, instance, accessor).isEmpty();
+    }
+
+    return this.isValid(schema.getRoot(), instance, accessor, 1);
+  }
+
+  private boolean hasBudget() {
+    return this.maxNodes != 0 || this.timeout != 0;
+  }
+
+  // Constructs a VM which only looks for the first error, and which doesn't
+  // report to the listener or to JFR, for the isValid methods to enforce the
+  // max nodes and timeout with. The interpreter used by those methods doesn't
+  // count nodes.
+  private VM newBudgetVM() {
+    return new VM(this.maxDepth, 1, this.maxNodes, this.timeout, 0, null, null);
+  }
+
+  private <T> boolean isValid(CompiledSchema.Node schema, T instance, InstanceAccessor<T> accessor, int depth)
+      throws ValidationLimitExceededException {
+    switch (schema.form) {
+    case EMPTY:
+      return true;
+    case REF:
+      if (schema.loops || depth == this.maxDepth) {
+        throw new MaxDepthExceededException();
+      }
+
+      return this.isValid(schema.target, instance, accessor, depth + 1);
+    case TYPE:
+      return isValidType(schema.type, instance, accessor);
+    case ENUM:
+      return isValidEnum(schema.enm, instance, accessor);
+    case ELEMENTS:
+      if (!accessor.isArray(instance)) {
+        return false;
+      }
+
+      int size = accessor.getArraySize(instance);
+      for (int i = 0; i < size; i++) {
+        if (!this.isValid(schema.elements, accessor.getElement(instance, i), accessor, depth)) {
+          return false;
+        }
+      }
+
+      return true;
+    case PROPERTIES:
+      if (!accessor.isObject(instance)) {
+        return false;
+      }
+
+      // Each member of the object is classified with a single lookup. Rather
+      // than checking for each required property, count the ones seen.
+      int required = 0;
+      for (Map.Entry<String, T> entry : accessor.getMembers(instance)) {
+        int index = schema.propertyTable.indexOf(entry.getKey());
+        if (index == CompiledSchema.PropertyTable.NOT_FOUND) {
+          if (!schema.additionalProperties) {
+            return false;
+          }
+        } else if (index < schema.propertyNodes.length) {
+          if (!this.isValid(schema.propertyNodes[index], entry.getValue(), accessor, depth)) {
+            return false;
+          }
+
+          if (index < schema.requiredProperties) {
+            required++;
+          }
+        }
+      }
+
+      return required == schema.requiredProperties;
+    case VALUES:
+      if (!accessor.isObject(instance)) {
+        return false;
+      }
+
+      for (Map.Entry<String, T> entry : accessor.getMembers(instance)) {
+        if (!this.isValid(schema.values, entry.getValue(), accessor, depth)) {
+          return false;
+        }
+      }
+
+      return true;
+    case DISCRIMINATOR:
+      if (!accessor.isObject(instance) || !accessor.hasMember(instance, schema.tag)) {
+        return false;
+      }
+
+      T instanceTag = accessor.getMember(instance, schema.tag);
+      if (!accessor.isString(instanceTag)) {
+        return false;
+      }
+
+      CompiledSchema.Node subSchema = schema.mapping.get(accessor.getString(instanceTag));
+      return subSchema != null && this.isValid(subSchema, instance, accessor, depth);
+    }
+
+    return true;
+  }
+
+  private static <T> boolean isValidType(Type type, T instance, InstanceAccessor<T> accessor) {
+    switch (type) {
+    case BOOLEAN:
+      return accessor.isBoolean(instance);
+    case FLOAT32:
+    case FLOAT64:
+      return accessor.isNumber(instance);
+    case INT8:
+      return accessor.isNumber(instance) && Numbers.isInt(accessor.getNumber(instance), -128, 127);
+    case UINT8:
+      return accessor.isNumber(instance) && Numbers.isInt(accessor.getNumber(instance), 0, 255);
+    case INT16:
+      return accessor.isNumber(instance) && Numbers.isInt(accessor.getNumber(instance), -32768, 32767);
+    case UINT16:
+      return accessor.isNumber(instance) && Numbers.isInt(accessor.getNumber(instance), 0, 65535);
+    case INT32:
+      return accessor.isNumber(instance) && Numbers.isInt(accessor.getNumber(instance), -2147483648, 2147483647);
+    case UINT32:
+      return accessor.isNumber(instance) && Numbers.isInt(accessor.getNumber(instance), 0, 4294967295L);
+    case STRING:
+      return accessor.isString(instance);
+    case TIMESTAMP:
+      return accessor.isString(instance) && Timestamps.isValid(accessor.getString(instance));
+    }
+
+    return true;
+  }
+
+  // Consumes a single value from the reader, and returns whether it satisfies
+  // the given type.
+  private static boolean isValidType(Type type, JsonReader reader) throws IOException {
+    JsonToken token = reader.peek();
+    switch (type) {
+    case BOOLEAN:
+      reader.skipValue();
+      return token == JsonToken.BOOLEAN;
+    case FLOAT32:
+    case FLOAT64:
+      reader.skipValue();
+      return token == JsonToken.NUMBER;
+    case INT8:
+      return token == JsonToken.NUMBER ? Numbers.isInt(reader.nextString(), -128, 127) : skip(reader);
+    case UINT8:
+      return token == JsonToken.NUMBER ? Numbers.isInt(reader.nextString(), 0, 255) : skip(reader);
+    case INT16:
+      return token == JsonToken.NUMBER ? Numbers.isInt(reader.nextString(), -32768, 32767) : skip(reader);
+    case UINT16:
+      return token == JsonToken.NUMBER ? Numbers.isInt(reader.nextString(), 0, 65535) : skip(reader);
+    case INT32:
+      return token == JsonToken.NUMBER ? Numbers.isInt(reader.nextString(), -2147483648, 2147483647) : skip(reader);
+    case UINT32:
+      return token == JsonToken.NUMBER ? Numbers.isInt(reader.nextString(), 0, 4294967295L) : skip(reader);
+    case STRING:
+      reader.skipValue();
+      return token == JsonToken.STRING;
+    case TIMESTAMP:
+      return token == JsonToken.STRING ? Timestamps.isValid(reader.nextString()) : skip(reader);
+    }
+
+    reader.skipValue();
+    return true;
+  }
+
+  private static <T> boolean isValidEnum(Set<String> enm, T instance, InstanceAccessor<T> accessor) {
+    return accessor.isString(instance) && enm.contains(accessor.getString(instance));
+  }
+
+  // Skips a value which does not satisfy the type being checked for.
+  private static boolean skip(JsonReader reader) throws IOException {
+    reader.skipValue();
+    return false;
+  }
+
+  // Consumes a single value from the scanner, and returns whether it satisfies
+  // the given type.
+  private static boolean isValidType(Type type, Utf8Scanner scanner) throws IOException {
+    JsonToken token = scanner.peek();
+    switch (type) {
+    case BOOLEAN:
+      scanner.skipValue();
+      return token == JsonToken.BOOLEAN;
+    case FLOAT32:
+    case FLOAT64:
+      scanner.skipValue();
+      return token == JsonToken.NUMBER;
+    case INT8:
+      return token == JsonToken.NUMBER ? Numbers.isInt(scanner.nextNumber(), -128, 127) : skip(scanner);
+    case UINT8:
+      return token == JsonToken.NUMBER ? Numbers.isInt(scanner.nextNumber(), 0, 255) : skip(scanner);
+    case INT16:
+      return token == JsonToken.NUMBER ? Numbers.isInt(scanner.nextNumber(), -32768, 32767) : skip(scanner);
+    case UINT16:
+      return token == JsonToken.NUMBER ? Numbers.isInt(scanner.nextNumber(), 0, 65535) : skip(scanner);
+    case INT32:
+      return token == JsonToken.NUMBER ? Numbers.isInt(scanner.nextNumber(), -2147483648, 2147483647)
+          : skip(scanner);
+    case UINT32:
+      return token == JsonToken.NUMBER ? Numbers.isInt(scanner.nextNumber(), 0, 4294967295L) : skip(scanner);
+    case STRING:
+      scanner.skipValue();
+      return token == JsonToken.STRING;
+    case TIMESTAMP:
+      if (token != JsonToken.STRING) {
+        return skip(scanner);
+      }
+
+      scanner.nextString();
+      return Timestamps.isValid(scanner.stringText());
+    }
+
+    scanner.skipValue();
+    return true;
+  }
+
+  private static boolean skip(Utf8Scanner scanner) throws IOException {
+    scanner.skipValue();
+    return false;
+  }
+
+  // Returns whether the name last read by the scanner is the given key.
+  private static boolean isKey(Utf8Scanner scanner, String key, byte[] utf8) {
+    if (scanner.stringEscaped()) {
+      return key.equals(Utf8Scanner.decode(scanner.buffer(), scanner.stringStart(), scanner.stringEnd()));
+    }
+
+    return scanner.stringHash() == key.hashCode() && scanner.stringEquals(utf8);
+  }
+
+  /**
+   * Subschema validates a single part of an instance against some part of a
+   * schema, as part of a larger validation.
+   * <p>
+   *
+   * This lets the interpreter and specialized schemas share the parallel
+   * validation of arrays and objects.
+   */
+  interface Subschema<T> {
+    boolean validate(T instance, VM vm) throws ValidationLimitExceededException;
+  }
+
+  // VM is visible to the rest of the package so that specialized schemas, see
+  // Check, can report errors in the same way as the interpreter does.
+  static class VM {
+    private static final TypeAdapter<JsonElement> ELEMENT_ADAPTER = new Gson().getAdapter(JsonElement.class);
+
+    private InstanceTokens instanceTokens;
+    private ArrayList<ValidationError> errors;
+    private ErrorSink collector;
+    private ErrorSink sink;
+    private ValidationProfile profile;
+    private int errorCount;
+    private Utf8Scanner scanner;
+    private int maxDepth;
+    private int maxErrors;
+    private int parallelThreshold;
+    private int refDepth;
+    private int readerDepth;
+
+    // The members of the objects being validated against properties-form
+    // schemas, set aside by property index, so that each member is looked up
+    // only once and the properties are then validated in the order of the
+    // schema. Each object takes a frame of slots on top of the frames of the
+    // objects it is nested within. Frames of in-memory objects hold the values
+    // of their members, with JSON nulls held as NULL_MEMBER so that an empty
+    // slot means the property is absent. Frames of objects scanned from bytes
+    // hold three marks for each property, see validateProperties(Node,
+    // Utf8Scanner).
+    //
+    // Frames are released as each object is finished with. Validation which
+    // is stopped early leaves its frames behind, and they are cleared by reset.
+    private static final Object NULL_MEMBER = new Object();
+    private Object[] members = new Object[16];
+    private int membersSize;
+    private int[] marks = new int[48];
+    private int marksSize;
+
+    // The budget of nodes and of time for a run. Rather than checking it on
+    // every node visited, the budget is only checked once nodes reaches
+    // checkpoint, which is always at or before the point where the max nodes
+    // is exceeded, and every CHECK_INTERVAL nodes if there is a timeout.
+    //
+    // The VMs validating the chunks of a parallel validation can't see each
+    // other's nodes, and so add them at each checkpoint to a pool they share,
+    // which started out holding the nodes visited before they were split off.
+    // pooled is how many of this VM's nodes are already in the pool.
+    private static final int CHECK_INTERVAL = 4096;
+    private long maxNodes;
+    private long timeout;
+    private long deadline;
+    private long checkpoint;
+    private AtomicLong pool;
+    private long pooled;
+
+    // Counts of the work done, which are always kept, as they cost next to
+    // nothing, but are only reported when there is a listener.
+    private final ValidationListener listener;
+    private final ValidationStats stats;
+    private final ValidationRecorder recorder;
+    private Object event;
+    private long nodes;
+    private long refs;
+    private int mergedInstanceDepth;
+
+    public VM(int maxDepth, int maxErrors, long maxNodes, long timeout, int parallelThreshold,
+        ValidationListener listener, ValidationRecorder recorder) {
+      this.instanceTokens = new InstanceTokens(Path.EMPTY);
+      this.errors = new ArrayList<>();
+      this.collector = this.errors::add;
+      this.sink = this.collector;
+      this.maxDepth = maxDepth;
+      this.maxErrors = maxErrors;
+      this.maxNodes = maxNodes;
+      this.timeout = timeout;
+      this.checkpoint = Long.MAX_VALUE;
+      this.parallelThreshold = parallelThreshold;
+      this.listener = listener;
+      this.stats = listener != null ? new ValidationStats() : null;
+      this.recorder = recorder;
+    }
+
+    // Validates an instance against a whole schema, and returns the errors
+    // found.
+    List<ValidationError> run(CompiledSchema schema, JsonElement instance) throws ValidationLimitExceededException {
+      long start = this.begin();
+      try {
+        if (schema.getCheck() != null) {
+          schema.getCheck().validate(instance, this);
+        } else {
+          this.validate(schema.getRoot(), instance, JsonElementAccessor.INSTANCE);
+        }
+      } catch (ValidationLimitExceededException e) {
+        this.end(schema, start, -1, e);
+        throw e;
+      }
+
+      this.end(schema, start, -1, null);
+      return this.errors;
+    }
+
+    // Validates an instance read through an accessor against a whole schema,
+    // and returns the errors found.
+    <T> List<ValidationError> run(CompiledSchema schema, T instance, InstanceAccessor<T> accessor)
+        throws ValidationLimitExceededException {
+      long start = this.begin();
+      try {
+        this.validate(schema.getRoot(), instance, accessor);
+      } catch (ValidationLimitExceededException e) {
+        this.end(schema, start, -1, e);
+        throw e;
+      }
+
+      this.end(schema, start, -1, null);
+      return this.errors;
+    }
+
+    // Validates an instance read from a JsonReader against a whole schema, and
+    // returns the errors found.
+    List<ValidationError> run(CompiledSchema schema, JsonReader reader)
+        throws ValidationLimitExceededException, IOException {
+      long start = this.begin();
+      try {
+        if (!this.validate(schema.getRoot(), reader)) {
+          this.unwind(reader);
+        }
+      } catch (ValidationLimitExceededException e) {
+        this.end(schema, start, -1, e);
+        throw e;
+      }
+
+      this.end(schema, start, -1, null);
+      return this.errors;
+    }
+
+    // Validates an instance encoded as UTF-8 bytes against a whole schema, and
+    // returns the errors found.
+    List<ValidationError> run(CompiledSchema schema, ByteBuffer bytes)
+        throws ValidationLimitExceededException, IOException {
+      long start = this.begin();
+      if (this.scanner == null) {
+        this.scanner = new Utf8Scanner();
+      }
+
+      Utf8Scanner scanner = this.scanner.reset(bytes);
+      try {
+        if (!this.validate(schema.getRoot(), scanner)) {
+          this.unwind(scanner);
+        }
+      } catch (ValidationLimitExceededException e) {
+        this.end(schema, start, bytes.remaining(), e);
+        throw e;
+      }
+
+      // Anything but whitespace after the instance is malformed.
+      scanner.peek();
+      this.end(schema, start, bytes.remaining(), null);
+      return this.errors;
+    }
+
+    // Starts a run, and returns the time it started at, if anything will need
+    // to know how long it took. Runs are only timed, and only begin a JFR
+    // event, when there is a listener, a timeout or when the event is being
+    // recorded.
+    private long begin() {
+      this.event = this.recorder != null ? this.recorder.begin() : null;
+      long start = this.listener != null || this.event != null || this.timeout != 0 ? System.nanoTime() : 0;
+      this.deadline = start + this.timeout;
+      this.checkpoint = this.nextCheckpoint();
+      return start;
+    }
+
+    // Finishes a run which started at the given time, either normally or by
+    // exceeding the max depth or the budget, and reports it to the listener and
+    // to JFR.
+    private void end(CompiledSchema schema, long start, long instanceSize, ValidationLimitExceededException exception) {
+      if (this.listener != null && exception == null) {
+        this.report(schema, start);
+      }
+
+      if (this.event != null) {
+        this.recorder.end(this.event, schema.getId(), instanceSize, this.nodes, this.errorCount,
+            System.nanoTime() - start, exception, this.maxErrors != 0 && this.errorCount >= this.maxErrors);
+        this.event = null;
+      }
+    }
+
+    // Passes the stats of the run which started at the given time to the
+    // listener.
+    private void report(CompiledSchema schema, long start) {
+      this.stats.validations = 1;
+      this.stats.nodes = this.nodes;
+      this.stats.refs = this.refs;
+      this.stats.errors = this.errorCount;
+      this.stats.maxInstanceDepth = this.instanceDepth();
+      this.stats.elapsedNanos = System.nanoTime() - start;
+      this.listener.onValidation(schema, this.stats);
+    }
+
+    // Returns the depth of the most deeply nested part of the instance visited
+    // by this VM, or by any VM it handed part of the instance to.
+    private int instanceDepth() {
+      return Math.max(this.mergedInstanceDepth, this.instanceTokens.base.size() + this.instanceTokens.maxSize);
+    }
+
+    // Clears all state left over from a previous run, including one which was
+    // stopped by an exception, without giving up any of the memory allocated
+    // for it.
+    void reset() {
+      this.reset(this.collector);
+    }
+
+    // Does the same as reset(), and then passes errors found by the next run
+    // to the given sink rather than collecting them.
+    void reset(ErrorSink sink) {
+      this.instanceTokens.reset();
+      this.errors.clear();
+      this.sink = sink;
+      this.profile = sink instanceof ValidationProfile ? (ValidationProfile) sink : null;
+      this.errorCount = 0;
+      this.refDepth = 0;
+      this.readerDepth = 0;
+      this.event = null;
+      this.nodes = 0;
+      this.refs = 0;
+      this.mergedInstanceDepth = 0;
+      this.checkpoint = Long.MAX_VALUE;
+      this.pooled = 0;
+      Arrays.fill(this.members, 0, this.membersSize, null);
+      this.membersSize = 0;
+      Arrays.fill(this.marks, 0, this.marksSize, 0);
+      this.marksSize = 0;
+    }
+
+    // Constructs a VM to validate part of an instance on behalf of another VM,
+    // starting from the other VM's current position and with whatever remains
+    // of its error budget. The VM shares the other VM's deadline, and the
+    // given pool of nodes, if there is a max nodes.
+    private VM(VM parent, AtomicLong pool) {
+      this.instanceTokens = new InstanceTokens(parent.instanceTokens.toPath());
+      this.errors = new ArrayList<>();
+      this.collector = this.errors::add;
+      this.sink = this.collector;
+      this.maxDepth = parent.maxDepth;
+      this.maxErrors = parent.maxErrors == 0 ? 0 : parent.maxErrors - parent.errorCount;
+      this.maxNodes = parent.maxNodes;
+      this.timeout = parent.timeout;
+      this.deadline = parent.deadline;
+      this.pool = pool;
+      this.checkpoint = this.nextCheckpoint();
+      this.parallelThreshold = parent.parallelThreshold;
+      this.refDepth = parent.refDepth;
+      this.listener = null;
+      this.stats = null;
+      this.recorder = null;
+    }
+
+    // Each of the validate methods returns whether validation should continue.
+    // Once pushError reports that the max errors has been reached, or that the
+    // sink has asked to stop, every frame returns false straight away, without
+    // doing any further work.
+    public boolean validate(CompiledSchema.Node schema, JsonElement instance) throws ValidationLimitExceededException {
+      return this.validate(schema, instance, JsonElementAccessor.INSTANCE);
+    }
+
+    public <T> boolean validate(CompiledSchema.Node schema, T instance, InstanceAccessor<T> accessor)
+        throws ValidationLimitExceededException {
+      if (++this.nodes >= this.checkpoint) {
+        this.checkBudget();
+      }
+
+      switch (schema.form) {
+      case EMPTY:
+        return true;
+      case REF:
+        if (!this.pushRef(schema)) {
+          return this.validate(schema.target, instance, accessor);
+        }
+
+        boolean ok = this.validate(schema.target, instance, accessor);
+        this.popRef();
+        return ok;
+      case TYPE:
+        return isValidType(schema.type, instance, accessor) || this.pushError(schema.errorPath);
+      case ENUM:
+        return isValidEnum(schema.enm, instance, accessor) || this.pushError(schema.errorPath);
+      case ELEMENTS:
+        if (!accessor.isArray(instance)) {
+          return this.pushError(schema.errorPath);
+        }
+
+        int size = accessor.getArraySize(instance);
+        if (this.isParallel(size)) {
+          List<T> values = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            values.add(accessor.getElement(instance, i));
+          }
+
+          CompiledSchema.Node elements = schema.elements;
+          return this.validateParallel(null, values,
+              (subInstance, vm) -> vm.validate(elements, subInstance, accessor));
+        }
+
+        for (int i = 0; i < size; i++) {
+          this.instanceTokens.push(i);
+          if (!this.validate(schema.elements, accessor.getElement(instance, i), accessor)) {
+            return false;
+          }
+          this.instanceTokens.pop();
+        }
+
+        return true;
+      case PROPERTIES:
+        if (!accessor.isObject(instance)) {
+          return this.pushError(schema.errorPath);
+        }
+
+        // Each member of the object is classified with a single lookup, and
+        // set aside by property index. The properties are then validated in
+        // the order of the schema, and any other members reported last.
+        int base = this.reserveMembers(schema.propertyNodes.length);
+        boolean unknown = false;
+        for (Map.Entry<String, T> entry : accessor.getMembers(instance)) {
+          int index = schema.propertyTable.indexOf(entry.getKey());
+          if (index == CompiledSchema.PropertyTable.NOT_FOUND) {
+            unknown = true;
+          } else if (index < schema.propertyNodes.length) {
+            this.putMember(base + index, entry.getValue());
+          }
+        }
+
+        for (int i = 0; i < schema.propertyNodes.length; i++) {
+          Object member = this.takeMember(base + i);
+          if (member == null) {
+            if (i < schema.requiredProperties && !this.pushError(schema.propertyNodes[i].path)) {
+              return false;
+            }
+
+            continue;
+          }
+
+          this.instanceTokens.push(schema.propertyKeys[i]);
+          if (!this.validate(schema.propertyNodes[i], VM.<T>memberValue(member), accessor)) {
+            return false;
+          }
+          this.instanceTokens.pop();
+        }
+        this.releaseMembers(base);
+
+        if (unknown && !schema.additionalProperties) {
+          for (Map.Entry<String, T> entry : accessor.getMembers(instance)) {
+            if (schema.propertyTable.indexOf(entry.getKey()) == CompiledSchema.PropertyTable.NOT_FOUND
+                && !this.pushError(schema.path, entry.getKey())) {
+              return false;
+            }
+          }
+        }
+
+        return true;
+      case VALUES:
+        if (!accessor.isObject(instance)) {
+          return this.pushError(schema.errorPath);
+        }
+
+        if (this.isParallel(accessor.getObjectSize(instance))) {
+          CompiledSchema.Node values = schema.values;
+          return this.validateParallel(accessor.getMembers(instance), accessor.getObjectSize(instance),
+              (subInstance, vm) -> vm.validate(values, subInstance, accessor));
+        }
+
+        for (Map.Entry<String, T> entry : accessor.getMembers(instance)) {
+          this.instanceTokens.push(entry.getKey());
+          if (!this.validate(schema.values, entry.getValue(), accessor)) {
+            return false;
+          }
+          this.instanceTokens.pop();
+        }
+
+        return true;
+      case DISCRIMINATOR:
+        if (!accessor.isObject(instance)) {
+          return this.pushError(schema.errorPath);
+        }
+
+        if (!accessor.hasMember(instance, schema.tag)) {
+          return this.pushError(schema.tagPath);
+        }
+
+        T instanceTag = accessor.getMember(instance, schema.tag);
+        if (!accessor.isString(instanceTag)) {
+          return this.pushError(schema.tagPath, schema.tag);
+        }
+
+        CompiledSchema.Node subSchema = schema.mapping.get(accessor.getString(instanceTag));
+        if (subSchema == null) {
+          return this.pushError(schema.mappingPath, schema.tag);
+        }
+
+        return this.validate(subSchema, instance, accessor);
+      }
+
+      return true;
+    }
+
+    // The methods below validate an instance as it is read from a JsonReader.
+    //
+    // Each of these methods consumes exactly one value from the reader, unless
+    // validation is stopped. Errors are only pushed once the offending value
+    // has been consumed, so that when validation stops the reader is left in a
+    // state which can be unwound using readerDepth.
+    public boolean validate(CompiledSchema.Node schema, JsonReader reader)
+        throws ValidationLimitExceededException, IOException {
+      if (++this.nodes >= this.checkpoint) {
+        this.checkBudget();
+      }
+
+      switch (schema.form) {
+      case EMPTY:
+        reader.skipValue();
+        return true;
+      case REF:
+        if (!this.pushRef(schema)) {
+          return this.validate(schema.target, reader);
+        }
+
+        boolean ok = this.validate(schema.target, reader);
+        this.popRef();
+        return ok;
+      case TYPE:
+        return isValidType(schema.type, reader) || this.pushError(schema.errorPath);
+      case ENUM:
+        if (reader.peek() != JsonToken.STRING) {
+          reader.skipValue();
+          return this.pushError(schema.errorPath);
+        }
+
+        return schema.enm.contains(reader.nextString()) || this.pushError(schema.errorPath);
+      case ELEMENTS:
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+          reader.skipValue();
+          return this.pushError(schema.errorPath);
+        }
+
+        this.beginArray(reader);
+        for (int index = 0; reader.hasNext(); index++) {
+          this.instanceTokens.push(index);
+          if (!this.validate(schema.elements, reader)) {
+            return false;
+          }
+          this.instanceTokens.pop();
+        }
+        this.endArray(reader);
+
+        return true;
+      case PROPERTIES:
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+          reader.skipValue();
+          return this.pushError(schema.errorPath);
+        }
+
+        this.beginObject(reader);
+        return this.validateProperties(schema, null, reader);
+      case VALUES:
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+          reader.skipValue();
+          return this.pushError(schema.errorPath);
+        }
+
+        this.beginObject(reader);
+        while (reader.hasNext()) {
+          this.instanceTokens.push(reader.nextName());
+          if (!this.validate(schema.values, reader)) {
+            return false;
+          }
+          this.instanceTokens.pop();
+        }
+        this.endObject(reader);
+
+        return true;
+      case DISCRIMINATOR:
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+          reader.skipValue();
+          return this.pushError(schema.errorPath);
+        }
+
+        this.beginObject(reader);
+
+        // Properties which appear before the tag can't be validated until the
+        // tag is known, so they are buffered.
+        List<Map.Entry<String, JsonElement>> buffered = new ArrayList<>();
+        while (reader.hasNext()) {
+          String key = reader.nextName();
+          if (!key.equals(schema.tag)) {
+            buffered.add(new AbstractMap.SimpleImmutableEntry<>(key, ELEMENT_ADAPTER.read(reader)));
+            continue;
+          }
+
+          if (reader.peek() != JsonToken.STRING) {
+            reader.skipValue();
+            this.skipObject(reader);
+
+            return this.pushError(schema.tagPath, schema.tag);
+          }
+
+          CompiledSchema.Node subSchema = schema.mapping.get(reader.nextString());
+          if (subSchema == null) {
+            this.skipObject(reader);
+
+            return this.pushError(schema.mappingPath, schema.tag);
+          }
+
+          return this.validateProperties(subSchema, buffered, reader);
+        }
+
+        this.endObject(reader);
+        return this.pushError(schema.tagPath);
+      }
+
+      return true;
+    }
+
+    // Validates the remainder of an object against a properties-form schema.
+    //
+    // The reader must already be inside the object. Any properties in buffered
+    // are treated as though they appeared in the object before the reader's
+    // current position.
+    private boolean validateProperties(CompiledSchema.Node schema, List<Map.Entry<String, JsonElement>> buffered,
+        JsonReader reader) throws ValidationLimitExceededException, IOException {
+      boolean[] seen = schema.requiredProperties == 0 ? null : new boolean[schema.requiredProperties];
+
+      if (buffered != null) {
+        for (Map.Entry<String, JsonElement> entry : buffered) {
+          int index = schema.propertyTable.indexOf(entry.getKey());
+
+          this.instanceTokens.push(entry.getKey());
+          if (index == CompiledSchema.PropertyTable.NOT_FOUND) {
+            if (!schema.additionalProperties && !this.pushError(schema.path)) {
+              return false;
+            }
+          } else if (index < schema.propertyNodes.length) {
+            if (index < schema.requiredProperties) {
+              seen[index] = true;
+            }
+
+            if (!this.validate(schema.propertyNodes[index], entry.getValue())) {
+              return false;
+            }
+          }
+          this.instanceTokens.pop();
+        }
+      }
+
+      while (reader.hasNext()) {
+        String key = reader.nextName();
+        int index = schema.propertyTable.indexOf(key);
+
+        this.instanceTokens.push(key);
+        if (index == CompiledSchema.PropertyTable.NOT_FOUND) {
+          reader.skipValue();
+
+          if (!schema.additionalProperties && !this.pushError(schema.path)) {
+            return false;
+          }
+        } else if (index < schema.propertyNodes.length) {
+          if (index < schema.requiredProperties) {
+            seen[index] = true;
+          }
+
+          if (!this.validate(schema.propertyNodes[index], reader)) {
+            return false;
+          }
+        } else {
+          // This is the discriminator tag, which has already been checked.
+          reader.skipValue();
+        }
+        this.instanceTokens.pop();
+      }
+
+      this.endObject(reader);
+
+      if (seen != null) {
+        for (int i = 0; i < seen.length; i++) {
+          if (!seen[i] && !this.pushError(schema.propertyNodes[i].path)) {
+            return false;
+          }
+        }
+      }
+
+      return true;
+    }
+
+    // The methods below validate an instance as it is scanned from UTF-8
+    // bytes. They follow the same rules as the JsonReader methods above, with
+    // one difference: rather than buffering the members of an object which
+    // appear before its discriminator tag, the scanner skips ahead to the tag
+    // and then rewinds to the start of the object.
+    public boolean validate(CompiledSchema.Node schema, Utf8Scanner scanner)
+        throws ValidationLimitExceededException, IOException {
+      if (++this.nodes >= this.checkpoint) {
+        this.checkBudget();
+      }
+
+      switch (schema.form) {
+      case EMPTY:
+        scanner.skipValue();
+        return true;
+      case REF:
+        if (!this.pushRef(schema)) {
+          return this.validate(schema.target, scanner);
+        }
+
+        boolean ok = this.validate(schema.target, scanner);
+        this.popRef();
+        return ok;
+      case TYPE:
+        return isValidType(schema.type, scanner) || this.pushError(schema.errorPath);
+      case ENUM:
+        if (scanner.peek() != JsonToken.STRING) {
+          scanner.skipValue();
+          return this.pushError(schema.errorPath);
+        }
+
+        scanner.nextString();
+        return schema.enumTable.indexOf(scanner) != CompiledSchema.PropertyTable.NOT_FOUND
+            || this.pushError(schema.errorPath);
+      case ELEMENTS:
+        if (scanner.peek() != JsonToken.BEGIN_ARRAY) {
+          scanner.skipValue();
+          return this.pushError(schema.errorPath);
+        }
+
+        scanner.beginArray();
+        for (int index = 0; scanner.hasNext(); index++) {
+          this.instanceTokens.push(index);
+          if (!this.validate(schema.elements, scanner)) {
+            return false;
+          }
+          this.instanceTokens.pop();
+        }
+        scanner.endArray();
+
+        return true;
+      case PROPERTIES:
+        if (scanner.peek() != JsonToken.BEGIN_OBJECT) {
+          scanner.skipValue();
+          return this.pushError(schema.errorPath);
+        }
+
+        scanner.beginObject();
+        return this.validateProperties(schema, scanner);
+      case VALUES:
+        if (scanner.peek() != JsonToken.BEGIN_OBJECT) {
+          scanner.skipValue();
+          return this.pushError(schema.errorPath);
+        }
+
+        scanner.beginObject();
+        while (scanner.hasNext()) {
+          scanner.nextName();
+          this.instanceTokens.push(scanner);
+          if (!this.validate(schema.values, scanner)) {
+            return false;
+          }
+          this.instanceTokens.pop();
+        }
+        scanner.endObject();
+
+        return true;
+      case DISCRIMINATOR:
+        if (scanner.peek() != JsonToken.BEGIN_OBJECT) {
+          scanner.skipValue();
+          return this.pushError(schema.errorPath);
+        }
+
+        scanner.beginObject();
+        int mark = scanner.mark();
+        while (scanner.hasNext()) {
+          scanner.nextName();
+          if (!isKey(scanner, schema.tag, schema.tagUtf8)) {
+            scanner.skipValue();
+            continue;
+          }
+
+          if (scanner.peek() != JsonToken.STRING) {
+            scanner.skipValue();
+            this.skipObject(scanner);
+
+            return this.pushError(schema.tagPath, schema.tag);
+          }
+
+          scanner.nextString();
+          int index = schema.mappingTable.indexOf(scanner);
+          if (index == CompiledSchema.PropertyTable.NOT_FOUND) {
+            this.skipObject(scanner);
+
+            return this.pushError(schema.mappingPath, schema.tag);
+          }
+
+          scanner.rewind(mark);
+          return this.validateProperties(schema.mappingNodes[index], scanner);
+        }
+
+        scanner.endObject();
+        return this.pushError(schema.tagPath);
+      }
+
+      return true;
+    }
+
+    // Validates the members of an object against a properties-form schema. The
+    // scanner must be directly inside the object, with none of its members
+    // consumed.
+    //
+    // As for in-memory objects, the properties are validated in the order of
+    // the schema, with any other members reported last. A member is validated
+    // as soon as it is scanned if every property before it in the schema has
+    // already been validated, which is always the case when an object's
+    // members appear in the same order as in the schema. Otherwise, it is
+    // skipped, and its frame records where its value starts, which is zero for
+    // a member not skipped, and where its name starts and ends. The scanner
+    // returns to the value once the properties before it are done with.
+    private boolean validateProperties(CompiledSchema.Node schema, Utf8Scanner scanner)
+        throws ValidationLimitExceededException, IOException {
+      int mark = scanner.mark();
+      int base = this.reserveMarks(schema.propertyNodes.length * 3);
+      int next = 0;
+      boolean unknown = false;
+
+      while (scanner.hasNext()) {
+        scanner.nextName();
+        int index = schema.propertyTable.indexOf(scanner);
+        if (index == CompiledSchema.PropertyTable.NOT_FOUND) {
+          unknown = true;
+          scanner.skipValue();
+        } else if (index >= schema.propertyNodes.length) {
+          // This is the discriminator tag, which has already been checked.
+          scanner.skipValue();
+        } else if (index <= next) {
+          // Members with the same key as one already validated are validated
+          // too, although Gson keeps only the last of them.
+          this.instanceTokens.push(scanner);
+          if (!this.validate(schema.propertyNodes[index], scanner)) {
+            return false;
+          }
+          this.instanceTokens.pop();
+
+          if (index == next) {
+            int position = scanner.position();
+            next = this.validateSkipped(schema, base, next + 1, scanner);
+            if (next < 0) {
+              return false;
+            }
+            scanner.seekMember(position);
+          }
+        } else {
+          int slot = base + index * 3;
+          int position = scanner.position();
+          int nameStart = scanner.stringStart();
+          int nameEnd = scanner.stringEnd();
+          if (this.marks[slot] != 0) {
+            // A member with the same key as one already skipped, which is
+            // validated now that it has been superseded.
+            if (!this.validateMember(schema.propertyNodes[index], slot, scanner)) {
+              return false;
+            }
+            scanner.seekValue(position);
+          }
+
+          this.marks[slot] = position;
+          this.marks[slot + 1] = nameStart;
+          this.marks[slot + 2] = nameEnd;
+          scanner.skipValue();
+        }
+      }
+
+      int end = scanner.position();
+      for (int i = next; i < schema.propertyNodes.length; i++) {
+        if (this.marks[base + i * 3] != 0) {
+          if (!this.validateMember(schema.propertyNodes[i], base + i * 3, scanner)) {
+            return false;
+          }
+        } else if (i < schema.requiredProperties && !this.pushError(schema.propertyNodes[i].path)) {
+          return false;
+        }
+      }
+      Arrays.fill(this.marks, base, this.marksSize, 0);
+      this.marksSize = base;
+
+      if (unknown && !schema.additionalProperties) {
+        scanner.rewind(mark);
+        while (scanner.hasNext()) {
+          scanner.nextName();
+          if (schema.propertyTable.indexOf(scanner) == CompiledSchema.PropertyTable.NOT_FOUND) {
+            this.instanceTokens.push(scanner);
+            boolean ok = this.pushError(schema.path);
+            this.instanceTokens.pop();
+            if (!ok) {
+              return false;
+            }
+          }
+          scanner.skipValue();
+        }
+      } else {
+        scanner.seekMember(end);
+      }
+
+      scanner.endObject();
+      return true;
+    }
+
+    // Validates the skipped members of an object, starting from the given
+    // property index, until it reaches a property which has not been scanned
+    // yet. Returns the index of that property, or -1 if validation should stop.
+    private int validateSkipped(CompiledSchema.Node schema, int base, int next, Utf8Scanner scanner)
+        throws ValidationLimitExceededException, IOException {
+      for (; next < schema.propertyNodes.length && this.marks[base + next * 3] != 0; next++) {
+        int slot = base + next * 3;
+        if (!this.validateMember(schema.propertyNodes[next], slot, scanner)) {
+          return -1;
+        }
+        this.marks[slot] = 0;
+      }
 
-  /**
-   * Validate an input JSON element (called an "instance") against a Schema.
-   *
-   * @param schema   the schema to validate against
-   * @param instance the instance to validate
-   * @return the validation errors associated with the instance validated against
-   *         the schema
-   * @throws MaxDepthExceededException if the max depth of this validator is
-   *                                   exceeded
-   */
-  public List<ValidationError> validate(Schema schema, JsonElement instance) throws MaxDepthExceededException {
-    VM vm = new VM(this.maxDepth, this.maxErrors, schema);
+      return next;
+    }
 
-    try {
-      vm.validate(schema, instance, null);
-    } catch (TooManyErrorsException e) {
-      // Ignore this error. It's just a circuit-breaker internal to VM.
+    // Validates the value of a member of an object scanned from bytes, whose
+    // marks are at the given slot, and leaves the scanner just past the value.
+    private boolean validateMember(CompiledSchema.Node schema, int slot, Utf8Scanner scanner)
+        throws ValidationLimitExceededException, IOException {
+      scanner.seekValue(this.marks[slot]);
+      this.instanceTokens.push(scanner.buffer(), this.marks[slot + 1], this.marks[slot + 2]);
+      if (!this.validate(schema, scanner)) {
+        return false;
+      }
+      this.instanceTokens.pop();
+      return true;
     }
 
-    return vm.errors;
-  }
+    // Takes a frame of the given number of member slots, and returns the index
+    // of its first slot. The frame is released by setting membersSize back to
+    // that index, once its slots have all been emptied.
+    int reserveMembers(int count) {
+      int base = this.membersSize;
+      if (base + count > this.members.length) {
+        this.members = Arrays.copyOf(this.members, Math.max(this.members.length * 2, base + count));
+      }
 
-  private static class VM {
-    private ArrayList<String> instanceTokens;
-    private ArrayList<ArrayList<String>> schemaTokens;
-    private ArrayList<ValidationError> errors;
-    private int maxDepth;
-    private int maxErrors;
-    private Schema root;
+      this.membersSize = base + count;
+      return base;
+    }
 
-    public VM(int maxDepth, int maxErrors, Schema root) {
-      this.instanceTokens = new ArrayList<>();
-      this.schemaTokens = new ArrayList<>();
-      this.schemaTokens.add(new ArrayList<>());
-      this.errors = new ArrayList<>();
-      this.maxDepth = maxDepth;
-      this.maxErrors = maxErrors;
-      this.root = root;
+    void releaseMembers(int base) {
+      this.membersSize = base;
     }
 
-    public void validate(Schema schema, JsonElement instance, String parentTag)
-        throws TooManyErrorsException, MaxDepthExceededException {
-      switch (schema.getForm()) {
-      case EMPTY:
-        return;
-      case REF:
-        if (this.schemaTokens.size() == this.maxDepth) {
-          throw new MaxDepthExceededException();
-        }
+    void putMember(int slot, Object value) {
+      this.members[slot] = value == null ? NULL_MEMBER : value;
+    }
 
-        this.schemaTokens.add(new ArrayList<>(Arrays.asList("definitions", schema.getRef())));
-        this.validate(this.root.getDefinitions().get(schema.getRef()), instance, null);
+    // Empties a member slot, and returns what it held, which is null if the
+    // property is absent.
+    Object takeMember(int slot) {
+      Object member = this.members[slot];
+      this.members[slot] = null;
+      return member;
+    }
 
-        this.schemaTokens.remove(this.schemaTokens.size() - 1);
-        return;
-      case TYPE:
-        this.pushSchemaToken("type");
-        switch (schema.getType()) {
-        case BOOLEAN:
-          if (!instance.isJsonPrimitive() || !((JsonPrimitive) instance).isBoolean()) {
-            this.pushError();
-          }
-
-          break;
-        case FLOAT32:
-        case FLOAT64:
-          if (!instance.isJsonPrimitive() || !((JsonPrimitive) instance).isNumber()) {
-            this.pushError();
-          }
-
-          break;
-        case INT8:
-          this.checkInt(-128, 127, instance);
-          break;
-        case UINT8:
-          this.checkInt(0, 255, instance);
-          break;
-        case INT16:
-          this.checkInt(-32768, 32767, instance);
-          break;
-        case UINT16:
-          this.checkInt(0, 65535, instance);
-          break;
-        case INT32:
-          this.checkInt(-2147483648, 2147483647, instance);
-          break;
-        case UINT32:
-          this.checkInt(0, 4294967295L, instance);
-          break;
-        case STRING:
-          if (!instance.isJsonPrimitive() || !((JsonPrimitive) instance).isString()) {
-            this.pushError();
-          }
-
-          break;
-        case TIMESTAMP:
-          if (!instance.isJsonPrimitive() || !((JsonPrimitive) instance).isString()) {
-            this.pushError();
-          } else {
-            // The value *is* a JSON string. Let's verify it's a well-formatted
-            // RFC3339 timestamp.
-            try {
-              DateTimeFormatter.ISO_ZONED_DATE_TIME.parse(instance.getAsString());
-            } catch (DateTimeParseException e) {
-              this.pushError();
-            }
-          }
-          break;
-        }
+    @SuppressWarnings("unchecked")
+    static <T> T memberValue(Object member) {
+      return member == NULL_MEMBER ? null : (T) member;
+    }
 
-        this.popSchemaToken();
-        return;
-      case ENUM:
-        this.pushSchemaToken("enum");
-        if (!instance.isJsonPrimitive() || !((JsonPrimitive) instance).isString()) {
-          this.pushError();
-        } else {
-          if (!schema.getEnum().contains(instance.getAsString())) {
-            this.pushError();
+    private int reserveMarks(int count) {
+      int base = this.marksSize;
+      if (base + count > this.marks.length) {
+        this.marks = Arrays.copyOf(this.marks, Math.max(this.marks.length * 2, base + count));
+      }
+
+      this.marksSize = base + count;
+      return base;
+    }
+
+    // Returns whether an array or object of the given size should be validated
+    // in parallel.
+    //
+    // Chunks hold on to their errors until they have all finished, so errors
+    // bound for a caller's sink, or for a profile, are never split into chunks:
+    // that would keep errors the sink was given to avoid keeping, and do work
+    // past the point where the sink asked to stop.
+    boolean isParallel(int size) {
+      return this.parallelThreshold > 0 && size > this.parallelThreshold && this.sink == this.collector;
+    }
+
+    // Validates each element of an array against a subschema, in parallel.
+    boolean validateParallel(JsonArray instanceArr, Subschema<JsonElement> subschema)
+        throws ValidationLimitExceededException {
+      List<JsonElement> values = new ArrayList<>(instanceArr.size());
+      for (JsonElement value : instanceArr) {
+        values.add(value);
+      }
+
+      return this.validateParallel(null, values, subschema);
+    }
+
+    // Validates each member of an object against a subschema, in parallel.
+    boolean validateParallel(JsonObject instanceObj, Subschema<JsonElement> subschema)
+        throws ValidationLimitExceededException {
+      return this.validateParallel(instanceObj.entrySet(), instanceObj.size(), subschema);
+    }
+
+    private <T> boolean validateParallel(Iterable<Map.Entry<String, T>> members, int size, Subschema<T> subschema)
+        throws ValidationLimitExceededException {
+      String[] keys = new String[size];
+      List<T> values = new ArrayList<>(size);
+      for (Map.Entry<String, T> entry : members) {
+        keys[values.size()] = entry.getKey();
+        values.add(entry.getValue());
+      }
+
+      return this.validateParallel(keys, values, subschema);
+    }
+
+    // Splits the values into chunks of at most parallelThreshold values, and
+    // validates each chunk in a task of its own, with a VM of its own.
+    //
+    // Once all the tasks have finished, their errors are passed on in order.
+    // This produces exactly the errors that validating the values one after
+    // another would have: each chunk stops once it alone has used up the error
+    // budget, and passing errors on stops once the chunks together have, or
+    // once the sink asks to stop. Likewise, a
+    // ValidationLimitExceededException is only rethrown if validating sequentially
+    // would have reached it before running out of errors. The chunks share the
+    // node budget and the deadline, and once they have all finished, the budget
+    // is checked against the nodes they visited between them.
+    private <T> boolean validateParallel(String[] keys, List<T> values, Subschema<T> subschema)
+        throws ValidationLimitExceededException {
+      AtomicLong pool = this.sharePool();
+      List<Chunk<T>> chunks = new ArrayList<>();
+      for (int start = 0; start < values.size(); start += this.parallelThreshold) {
+        int end = Math.min(start + this.parallelThreshold, values.size());
+        chunks.add(new Chunk<>(new VM(this, pool), keys, values, start, end, subschema));
+      }
+
+      ForkJoinTask.invokeAll(chunks);
+
+      for (Chunk<T> chunk : chunks) {
+        this.nodes += chunk.vm.nodes;
+        this.pooled += chunk.vm.pooled;
+        this.refs += chunk.vm.refs;
+        this.mergedInstanceDepth = Math.max(this.mergedInstanceDepth, chunk.vm.instanceDepth());
+      }
+
+      for (Chunk<T> chunk : chunks) {
+        for (ValidationError error : chunk.vm.errors) {
+          if (!this.pushError(error)) {
+            return false;
           }
         }
-        this.popSchemaToken();
-        return;
-      case ELEMENTS:
-        this.pushSchemaToken("elements");
-        if (!instance.isJsonArray()) {
-          this.pushError();
-        } else {
-          int index = 0;
-          for (JsonElement subInstance : instance.getAsJsonArray()) {
-            this.pushInstanceToken(Integer.toString(index));
-            this.validate(schema.getElements(), subInstance, null);
-            this.popInstanceToken();
 
-            index += 1;
-          }
+        if (chunk.exception != null) {
+          throw chunk.exception;
         }
-        this.popSchemaToken();
-        return;
-      case PROPERTIES:
-        if (instance.isJsonObject()) {
-          if (schema.getProperties() != null) {
-            this.pushSchemaToken("properties");
-            for (Map.Entry<String, Schema> entry : schema.getProperties().entrySet()) {
-              this.pushSchemaToken(entry.getKey());
-              if (instance.getAsJsonObject().has(entry.getKey())) {
-                this.pushInstanceToken(entry.getKey());
-                this.validate(entry.getValue(), instance.getAsJsonObject().get(entry.getKey()), null);
-                this.popInstanceToken();
-              } else {
-                this.pushError();
-              }
-              this.popSchemaToken();
-            }
-            this.popSchemaToken();
-          }
-
-          if (schema.getOptionalProperties() != null) {
-            this.pushSchemaToken("optionalProperties");
-            for (Map.Entry<String, Schema> entry : schema.getOptionalProperties().entrySet()) {
-              this.pushSchemaToken(entry.getKey());
-              if (instance.getAsJsonObject().has(entry.getKey())) {
-                this.pushInstanceToken(entry.getKey());
-                this.validate(entry.getValue(), instance.getAsJsonObject().get(entry.getKey()), null);
-                this.popInstanceToken();
-              }
-              this.popSchemaToken();
-            }
-            this.popSchemaToken();
-          }
+      }
 
-          if (schema.getAdditionalProperties() == null || !schema.getAdditionalProperties()) {
-            for (String key : instance.getAsJsonObject().keySet()) {
-              boolean inProperties = schema.getProperties() != null && schema.getProperties().containsKey(key);
-              boolean inOptionalProperties = schema.getOptionalProperties() != null
-                  && schema.getOptionalProperties().containsKey(key);
-              boolean discriminatorTagException = key.equals(parentTag);
+      if (this.nodes >= this.checkpoint) {
+        this.checkBudget();
+      }
 
-              if (!inProperties && !inOptionalProperties && !discriminatorTagException) {
-                this.pushInstanceToken(key);
-                this.pushError();
-                this.popInstanceToken();
-              }
-            }
-          }
-        } else {
-          if (schema.getProperties() == null) {
-            this.pushSchemaToken("optionalProperties");
-          } else {
-            this.pushSchemaToken("properties");
-          }
+      return true;
+    }
+
+    private void beginArray(JsonReader reader) throws IOException {
+      reader.beginArray();
+      this.readerDepth++;
+    }
+
+    private void endArray(JsonReader reader) throws IOException {
+      reader.endArray();
+      this.readerDepth--;
+    }
+
+    private void beginObject(JsonReader reader) throws IOException {
+      reader.beginObject();
+      this.readerDepth++;
+    }
+
+    private void endObject(JsonReader reader) throws IOException {
+      reader.endObject();
+      this.readerDepth--;
+    }
 
-          this.pushError();
-          this.popSchemaToken();
+    private void skipObject(JsonReader reader) throws IOException {
+      while (reader.hasNext()) {
+        reader.skipValue();
+      }
+
+      this.endObject(reader);
+    }
+
+    private void skipObject(Utf8Scanner scanner) throws IOException {
+      while (scanner.hasNext()) {
+        scanner.skipValue();
+      }
+
+      scanner.endObject();
+    }
+
+    private void unwind(Utf8Scanner scanner) throws IOException {
+      while (scanner.depth() > 0) {
+        while (scanner.hasNext()) {
+          scanner.skipValue();
         }
 
-        return;
-      case VALUES:
-        this.pushSchemaToken("values");
-        if (instance.isJsonObject()) {
-          for (Map.Entry<String, JsonElement> entry : instance.getAsJsonObject().entrySet()) {
-            this.pushInstanceToken(entry.getKey());
-            this.validate(schema.getValues(), entry.getValue(), null);
-            this.popInstanceToken();
-          }
+        if (scanner.peek() == JsonToken.END_ARRAY) {
+          scanner.endArray();
         } else {
-          this.pushError();
+          scanner.endObject();
         }
-        this.popSchemaToken();
-        return;
-      case DISCRIMINATOR:
-        this.pushSchemaToken("discriminator");
-        if (instance.isJsonObject()) {
-          JsonObject instanceObj = instance.getAsJsonObject();
-
-          if (instanceObj.has(schema.getDiscriminator().getTag())) {
-            JsonElement instanceTag = instanceObj.get(schema.getDiscriminator().getTag());
-            if (instanceTag.isJsonPrimitive() && ((JsonPrimitive) instanceTag).isString()) {
-              String instanceTagString = instanceTag.getAsString();
-              if (schema.getDiscriminator().getMapping().containsKey(instanceTagString)) {
-                Schema subSchema = schema.getDiscriminator().getMapping().get(instanceTagString);
-
-                this.pushSchemaToken("mapping");
-                this.pushSchemaToken(instanceTagString);
-                this.validate(subSchema, instance, schema.getDiscriminator().getTag());
-                this.popSchemaToken();
-                this.popSchemaToken();
-              } else {
-                this.pushSchemaToken("mapping");
-                this.pushInstanceToken(schema.getDiscriminator().getTag());
-                this.pushError();
-                this.popInstanceToken();
-                this.popSchemaToken();
-              }
-            } else {
-              this.pushSchemaToken("tag");
-              this.pushInstanceToken(schema.getDiscriminator().getTag());
-              this.pushError();
-              this.popInstanceToken();
-              this.popSchemaToken();
-            }
-          } else {
-            this.pushSchemaToken("tag");
-            this.pushError();
-            this.popSchemaToken();
-          }
+      }
+    }
+
+    // Skips over whatever remains of an instance after validation has been
+    // stopped, so that the reader is left just past the instance.
+    private void unwind(JsonReader reader) throws IOException {
+      for (; this.readerDepth > 0; this.readerDepth--) {
+        while (reader.hasNext()) {
+          reader.skipValue();
+        }
+
+        if (reader.peek() == JsonToken.END_ARRAY) {
+          reader.endArray();
         } else {
-          this.pushError();
+          reader.endObject();
         }
-        this.popSchemaToken();
-        return;
       }
     }
 
-    private void checkInt(long min, long max, JsonElement instance) throws TooManyErrorsException {
-      if (!instance.isJsonPrimitive() || !((JsonPrimitive) instance).isNumber()) {
-        this.pushError();
-      } else {
-        double val = instance.getAsDouble();
-        if (val < min || val > max || val != Math.round(val)) {
-          this.pushError();
-        }
+    // Returns whether the ref was counted towards the max depth, in which case
+    // it must be followed by a call to popRef. Refs which don't loop can only
+    // recurse as deeply as the instance is nested, so without a max depth they
+    // aren't counted at all.
+    boolean pushRef(CompiledSchema.Node schema) throws ValidationLimitExceededException {
+      this.refs++;
+      if (schema.loops) {
+        throw new MaxDepthExceededException();
+      }
+
+      if (this.maxDepth == 0) {
+        return false;
+      }
+
+      // The max depth counts the root schema as well as each ref followed.
+      if (this.refDepth + 1 == this.maxDepth) {
+        throw new MaxDepthExceededException();
+      }
+
+      this.refDepth++;
+      return true;
+    }
+
+    void popRef() {
+      this.refDepth--;
+    }
+
+    // Counts a schema node visited by a specialized schema; the interpreter
+    // counts its own.
+    void visitNode() throws ValidationLimitExceededException {
+      if (++this.nodes >= this.checkpoint) {
+        this.checkBudget();
+      }
+    }
+
+    // Throws if the max nodes or the timeout has been exceeded, and otherwise
+    // sets the next checkpoint.
+    private void checkBudget() throws ValidationLimitExceededException {
+      long nodes = this.nodes;
+      if (this.pool != null) {
+        nodes = this.pool.addAndGet(this.nodes - this.pooled);
+        this.pooled = this.nodes;
+      }
+
+      if (this.maxNodes != 0 && nodes > this.maxNodes) {
+        throw new MaxNodesExceededException();
+      }
+
+      if (this.timeout != 0 && System.nanoTime() - this.deadline >= 0) {
+        throw new TimeoutExceededException();
+      }
+
+      this.checkpoint = this.nextCheckpoint();
+    }
+
+    private long nextCheckpoint() {
+      long checkpoint = Long.MAX_VALUE;
+      if (this.timeout != 0 || this.pool != null) {
+        checkpoint = this.nodes + CHECK_INTERVAL;
+      }
+
+      if (this.maxNodes != 0 && this.pool == null) {
+        checkpoint = Math.min(checkpoint, this.maxNodes + 1);
+      }
+
+      return checkpoint;
+    }
+
+    // Returns the pool for the VMs validating the chunks of a parallel
+    // validation to share, or null if there is no max nodes.
+    private AtomicLong sharePool() {
+      if (this.maxNodes == 0) {
+        return null;
+      }
+
+      if (this.pool == null) {
+        return new AtomicLong(this.nodes);
       }
+
+      // This VM is itself validating a chunk, and so its chunks share its pool.
+      this.pool.addAndGet(this.nodes - this.pooled);
+      this.pooled = this.nodes;
+      return this.pool;
+    }
+
+    void pushToken(String key) {
+      this.instanceTokens.push(key);
+    }
+
+    void pushToken(int index) {
+      this.instanceTokens.push(index);
     }
 
-    private void pushInstanceToken(String token) {
-      this.instanceTokens.add(token);
+    void popToken() {
+      this.instanceTokens.pop();
     }
 
-    private void popInstanceToken() {
-      this.instanceTokens.remove(this.instanceTokens.size() - 1);
+    // Records an error at the current instance path, and returns whether
+    // validation should continue.
+    boolean pushError(Path schemaPath) {
+      if (this.profile != null) {
+        // Profiles only need the error's site, and its instance path if it is
+        // to be sampled, so no ValidationError is constructed.
+        this.errorCount++;
+        int site = this.profile.count(schemaPath);
+        if (this.profile.isSampling(site)) {
+          this.profile.sample(site, this.instanceTokens.toPath().toString());
+        }
+
+        return this.errorCount != this.maxErrors;
+      }
+
+      return this.pushError(new ValidationError(this.instanceTokens.toPath(), schemaPath));
     }
 
-    private void pushSchemaToken(String token) {
-      this.schemaTokens.get(this.schemaTokens.size() - 1).add(token);
+    private boolean pushError(ValidationError error) {
+      this.errorCount++;
+      return this.sink.accept(error) && this.errorCount != this.maxErrors;
     }
 
-    private void popSchemaToken() {
-      ArrayList<String> tokens = this.schemaTokens.get(this.schemaTokens.size() - 1);
-      tokens.remove(tokens.size() - 1);
+    // Records an error at the current instance path extended by one token, and
+    // returns whether validation should continue.
+    boolean pushError(Path schemaPath, String token) {
+      this.instanceTokens.push(token);
+      boolean ok = this.pushError(schemaPath);
+      this.instanceTokens.pop();
+      return ok;
+    }
+  }
+
+  /**
+   * Chunk validates a contiguous range of the elements of an array, or of the
+   * members of an object, as part of a parallel validation.
+   */
+  private static class Chunk<T> extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final VM vm;
+    private final String[] keys;
+    private final List<T> values;
+    private final int start;
+    private final int end;
+    private final Subschema<T> subschema;
+    private ValidationLimitExceededException exception;
+
+    private Chunk(VM vm, String[] keys, List<T> values, int start, int end, Subschema<T> subschema) {
+      this.vm = vm;
+      this.keys = keys;
+      this.values = values;
+      this.start = start;
+      this.end = end;
+      this.subschema = subschema;
     }
 
-    private void pushError() throws TooManyErrorsException {
-      ValidationError validationError = new ValidationError();
-      validationError.setInstancePath(new ArrayList<>(this.instanceTokens));
-      validationError.setSchemaPath(new ArrayList<>(this.schemaTokens.get(this.schemaTokens.size() - 1)));
-      this.errors.add(validationError);
+    @Override
+    protected void compute() {
+      try {
+        for (int i = this.start; i < this.end; i++) {
+          if (this.keys == null) {
+            this.vm.instanceTokens.push(i);
+          } else {
+            this.vm.instanceTokens.push(this.keys[i]);
+          }
 
-      if (this.errors.size() == this.maxErrors) {
-        throw new TooManyErrorsException();
+          if (!this.subschema.validate(this.values.get(i), this.vm)) {
+            return;
+          }
+          this.vm.instanceTokens.pop();
+        }
+      } catch (ValidationLimitExceededException e) {
+        this.exception = e;
       }
     }
   }
 
-  private static class TooManyErrorsException extends Exception {
-    private static final long serialVersionUID = 8424595334761933278L;
+  /**
+   * InstanceTokens is a stack of the tokens leading to the part of the instance
+   * currently being validated.
+   * <p>
+   *
+   * Pushing and popping tokens does not allocate. The stack is only converted
+   * into a Path when an error is raised, and the Path built for each level of
+   * the stack is kept around, so that subsequent errors beneath the same level
+   * share it.
+   * <p>
+   *
+   * The stack may sit on top of a base path, for validating part of an instance
+   * on behalf of another stack.
+   * <p>
+   *
+   * Keys scanned from UTF-8 bytes are pushed as the range of the buffer holding
+   * them, in indices and ends, and are only decoded if a path is built.
+   */
+  private static class InstanceTokens {
+    private final Path base;
+    private String[] keys = new String[8];
+    private int[] indices = new int[8];
+    private int[] ends = new int[8];
+    private Path[] paths = new Path[8];
+    private ByteBuffer bytes;
+    private int size;
+    private int maxSize;
+
+    private InstanceTokens(Path base) {
+      this.base = base;
+    }
+
+    private void push(String key) {
+      this.grow();
+      this.keys[this.size] = key;
+      this.paths[this.size] = null;
+      this.size++;
+      this.maxSize = Math.max(this.maxSize, this.size);
+    }
+
+    private void push(int index) {
+      this.grow();
+      this.keys[this.size] = null;
+      this.indices[this.size] = index;
+      this.ends[this.size] = -1;
+      this.paths[this.size] = null;
+      this.size++;
+      this.maxSize = Math.max(this.maxSize, this.size);
+    }
+
+    // Pushes the name last read by the scanner.
+    private void push(Utf8Scanner scanner) {
+      this.push(scanner.buffer(), scanner.stringStart(), scanner.stringEnd());
+    }
+
+    // Pushes the name encoded in the given range of the buffer.
+    private void push(ByteBuffer bytes, int start, int end) {
+      this.grow();
+      this.keys[this.size] = null;
+      this.indices[this.size] = start;
+      this.ends[this.size] = end;
+      this.paths[this.size] = null;
+      this.bytes = bytes;
+      this.size++;
+      this.maxSize = Math.max(this.maxSize, this.size);
+    }
+
+    private void pop() {
+      this.size--;
+      this.keys[this.size] = null;
+      this.paths[this.size] = null;
+    }
+
+    private void reset() {
+      Arrays.fill(this.keys, 0, this.size, null);
+      Arrays.fill(this.paths, 0, this.size, null);
+      this.bytes = null;
+      this.size = 0;
+      this.maxSize = 0;
+    }
+
+    private Path toPath() {
+      // Paths are only ever cleared from the top of the stack, so the levels
+      // which already have a path are always a prefix of the stack.
+      int i = this.size;
+      while (i > 0 && this.paths[i - 1] == null) {
+        i--;
+      }
+
+      Path path = i == 0 ? this.base : this.paths[i - 1];
+      for (; i < this.size; i++) {
+        if (this.keys[i] != null) {
+          path = path.child(this.keys[i]);
+        } else if (this.ends[i] >= 0) {
+          path = path.child(Utf8Scanner.decode(this.bytes, this.indices[i], this.ends[i]));
+        } else {
+          path = path.child(this.indices[i]);
+        }
+        this.paths[i] = path;
+      }
+
+      return path;
+    }
+
+    private void grow() {
+      if (this.size == this.keys.length) {
+        this.keys = Arrays.copyOf(this.keys, this.size * 2);
+        this.indices = Arrays.copyOf(this.indices, this.size * 2);
+        this.ends = Arrays.copyOf(this.ends, this.size * 2);
+        this.paths = Arrays.copyOf(this.paths, this.size * 2);
+      }
+    }
   }
 
   /**
@@ -349,44 +2247,297 @@ public class Validator {
   }
 
   /**
-   * Set the maximum depth of this validator.
+   * Get the maximum number of errors this validator should return.
+   * <p>
+   *
+   * @return the max errors of this validator
+   */
+  public int getMaxErrors() {
+    return maxErrors;
+  }
+
+  /**
+   * Get the maximum number of schema nodes this validator visits in a single
+   * validation.
    * <p>
    *
-   * Setting the maximum depth to zero has the same effect as disabling a max
-   * depth altogether.
+   * @return the max nodes of this validator, or zero for none
+   */
+  public long getMaxNodes() {
+    return maxNodes;
+  }
+
+  /**
+   * Get the timeout of a single validation by this validator.
+   * <p>
    *
-   * @param maxDepth the max depth
+   * @return the timeout, in nanoseconds, or zero for none
    */
-  public void setMaxDepth(int maxDepth) {
-    this.maxDepth = maxDepth;
+  public long getTimeout() {
+    return timeout;
   }
 
   /**
-   * Get the maximum number of errors this validator should return.
+   * Get the parallel threshold of this validator.
    * <p>
    *
-   * @return the max errors of this validator
+   * @return the parallel threshold of this validator
    */
-  public int getMaxErrors() {
-    return maxErrors;
+  public int getParallelThreshold() {
+    return parallelThreshold;
+  }
+
+  /**
+   * Get the listener of this validator.
+   * <p>
+   *
+   * @return the listener of this validator, or null if it has none
+   */
+  public ValidationListener getListener() {
+    return listener;
+  }
+
+  /**
+   * Get the duration threshold of this validator's JFR events.
+   * <p>
+   *
+   * @return the duration threshold, in nanoseconds, or zero for none
+   */
+  public long getEventDurationThreshold() {
+    return eventDurationThreshold;
+  }
+
+  /**
+   * Get the node threshold of this validator's JFR events.
+   * <p>
+   *
+   * @return the node threshold, or zero for none
+   */
+  public long getEventNodeThreshold() {
+    return eventNodeThreshold;
   }
 
   /**
-   * Set the maximum number of errors this validator should return.
+   * Construct a Builder with the settings of this validator.
    * <p>
    *
-   * Setting the max errors to zero has the same effect as forcing the validator
-   * to always return all errors.
+   * @return a builder which builds a copy of this validator
+   */
+  public Builder toBuilder() {
+    return new Builder().setMaxDepth(maxDepth).setMaxErrors(maxErrors).setMaxNodes(maxNodes).setTimeout(timeout)
+        .setParallelThreshold(parallelThreshold).setListener(listener).setEventDurationThreshold(eventDurationThreshold)
+        .setEventNodeThreshold(eventNodeThreshold);
+  }
+
+  /**
+   * Builder constructs Validators.
+   * <p>
    *
-   * @param maxErrors the max errors
+   * Builders are not thread-safe, but the Validators they build are.
    */
-  public void setMaxErrors(int maxErrors) {
-    this.maxErrors = maxErrors;
+  public static final class Builder {
+    private int maxDepth;
+    private int maxErrors;
+    private long maxNodes;
+    private long timeout;
+    private int parallelThreshold;
+    private ValidationListener listener;
+    private long eventDurationThreshold;
+    private long eventNodeThreshold;
+
+    private Builder() {
+    }
+
+    /**
+     * Set the maximum depth of the validator.
+     * <p>
+     *
+     * Setting the maximum depth to zero has the same effect as disabling a max
+     * depth altogether.
+     *
+     * @param maxDepth the max depth
+     * @return this builder
+     */
+    public Builder setMaxDepth(int maxDepth) {
+      this.maxDepth = maxDepth;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of errors the validator should return.
+     * <p>
+     *
+     * Setting the max errors to zero has the same effect as forcing the
+     * validator to always return all errors.
+     *
+     * @param maxErrors the max errors
+     * @return this builder
+     */
+    public Builder setMaxErrors(int maxErrors) {
+      this.maxErrors = maxErrors;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of schema nodes the validator visits in a single
+     * validation.
+     * <p>
+     *
+     * Each schema node is counted once for every part of the instance it is
+     * applied to, as in {@link ValidationStats#getNodes()}, and so this bounds
+     * the work of validating an instance of any size. As soon as a validation
+     * visits more nodes than this, it throws MaxNodesExceededException, which
+     * is a ValidationLimitExceededException but not a MaxDepthExceededException.
+     * When validating in parallel, see {@link #setParallelThreshold(int)}, the
+     * chunks share the budget, and may overshoot it by a few thousand nodes
+     * between them before they all stop.
+     * <p>
+     *
+     * Setting the max nodes to zero, which is the default, has the same effect
+     * as disabling a max nodes altogether.
+     *
+     * @param maxNodes the max nodes
+     * @return this builder
+     */
+    public Builder setMaxNodes(long maxNodes) {
+      this.maxNodes = maxNodes;
+      return this;
+    }
+
+    /**
+     * Set how long the validator may spend on a single validation.
+     * <p>
+     *
+     * The clock is read once every few thousand schema nodes visited, so that
+     * the timeout costs almost nothing, and a validation which takes longer
+     * than this throws TimeoutExceededException soon after its time is up. Like
+     * MaxNodesExceededException, that is a ValidationLimitExceededException but
+     * not a MaxDepthExceededException.
+     * Validations which visit fewer nodes than that never read the clock at
+     * all. The timeout bounds the time spent validating, not the time spent
+     * reading the instance from a JsonReader or scanning over bytes which no
+     * schema node looks at.
+     * <p>
+     *
+     * Setting the timeout to zero, which is the default, disables it.
+     *
+     * @param nanos the timeout, in nanoseconds, or zero for none
+     * @return this builder
+     */
+    public Builder setTimeout(long nanos) {
+      this.timeout = nanos;
+      return this;
+    }
+
+    /**
+     * Set the parallel threshold of the validator.
+     * <p>
+     *
+     * Arrays with more elements than the parallel threshold, and objects
+     * validated against a {@code values} schema with more members than it, are
+     * split into chunks of at most that many elements or members, which are
+     * validated in parallel as ForkJoinTasks. The tasks run in the ForkJoinPool
+     * of the calling thread, or in the common pool if the calling thread is not
+     * part of a pool.
+     * <p>
+     *
+     * Parallel validation returns exactly the same errors, in the same order, as
+     * sequential validation does, including when the max errors is reached.
+     * Only validation of instances which are already in memory, rather than
+     * read from a JsonReader, is done in parallel, and only when errors are
+     * returned as a list: validating into an ErrorSink or a ValidationProfile
+     * is always sequential.
+     * <p>
+     *
+     * Setting the parallel threshold to zero, which is the default, disables
+     * parallel validation.
+     *
+     * @param parallelThreshold the parallel threshold
+     * @return this builder
+     */
+    public Builder setParallelThreshold(int parallelThreshold) {
+      this.parallelThreshold = parallelThreshold;
+      return this;
+    }
+
+    /**
+     * Set the listener of the validator.
+     * <p>
+     *
+     * The listener is told about every call to {@code validate}, with stats of
+     * the work it did, such as the number of schema nodes visited and the time
+     * it took. See {@link ValidationListener}. The validator always counts
+     * this work, at very little cost; without a listener, which is the default,
+     * it is simply never reported.
+     *
+     * @param listener the listener, or null for none
+     * @return this builder
+     */
+    public Builder setListener(ValidationListener listener) {
+      this.listener = listener;
+      return this;
+    }
+
+    /**
+     * Set how long a validation must take for the validator to emit a JDK
+     * Flight Recorder event for it.
+     * <p>
+     *
+     * Validations which take at least this long, or which visit at least the
+     * node threshold's number of schema nodes, see
+     * {@link #setEventNodeThreshold(long)}, are recorded as
+     * {@code io.jddf.gson.Validation} events. Each event carries the ID of the
+     * schema, the size of the instance in bytes where it is known, the number
+     * of nodes visited and errors found, and whether the max depth, max nodes
+     * or timeout was exceeded or the max errors reached. Validations which
+     * exceed any of those limits are recorded too, even though they end in an
+     * exception.
+     * <p>
+     *
+     * While the event is not being recorded, checking for it costs a single
+     * field read per validation. Setting both thresholds to zero, which is the
+     * default, disables events altogether, as does running on a JVM without
+     * the {@code jdk.jfr} module.
+     *
+     * @param nanos the duration threshold, in nanoseconds, or zero for none
+     * @return this builder
+     */
+    public Builder setEventDurationThreshold(long nanos) {
+      this.eventDurationThreshold = nanos;
+      return this;
+    }
+
+    /**
+     * Set how many schema nodes a validation must visit for the validator to
+     * emit a JDK Flight Recorder event for it.
+     * <p>
+     *
+     * See {@link #setEventDurationThreshold(long)} for details.
+     *
+     * @param nodes the node threshold, or zero for none
+     * @return this builder
+     */
+    public Builder setEventNodeThreshold(long nodes) {
+      this.eventNodeThreshold = nodes;
+      return this;
+    }
+
+    /**
+     * Construct a Validator with the settings of this builder.
+     * <p>
+     *
+     * @return a new validator
+     */
+    public Validator build() {
+      return new Validator(this);
+    }
   }
 
   @Override
   public String toString() {
-    return "Validator [maxDepth=" + maxDepth + ", maxErrors=" + maxErrors + "]";
+    return "Validator [maxDepth=" + maxDepth + ", maxErrors=" + maxErrors + ", maxNodes=" + maxNodes + ", timeout="
+        + timeout + ", parallelThreshold=" + parallelThreshold + ", listener=" + listener + ", eventDurationThreshold="
+        + eventDurationThreshold + ", eventNodeThreshold=" + eventNodeThreshold + "]";
   }
 
   @Override
@@ -395,6 +2546,12 @@ public class Validator {
     int result = 1;
     result = prime * result + maxDepth;
     result = prime * result + maxErrors;
+    result = prime * result + (int) (maxNodes ^ (maxNodes >>> 32));
+    result = prime * result + (int) (timeout ^ (timeout >>> 32));
+    result = prime * result + parallelThreshold;
+    result = prime * result + ((listener == null) ? 0 : listener.hashCode());
+    result = prime * result + (int) (eventDurationThreshold ^ (eventDurationThreshold >>> 32));
+    result = prime * result + (int) (eventNodeThreshold ^ (eventNodeThreshold >>> 32));
     return result;
   }
 
@@ -411,6 +2568,21 @@ public class Validator {
       return false;
     if (maxErrors != other.maxErrors)
       return false;
+    if (maxNodes != other.maxNodes)
+      return false;
+    if (timeout != other.timeout)
+      return false;
+    if (parallelThreshold != other.parallelThreshold)
+      return false;
+    if (listener == null) {
+      if (other.listener != null)
+        return false;
+    } else if (!listener.equals(other.listener))
+      return false;
+    if (eventDurationThreshold != other.eventDurationThreshold)
+      return false;
+    if (eventNodeThreshold != other.eventNodeThreshold)
+      return false;
     return true;
   }
 }
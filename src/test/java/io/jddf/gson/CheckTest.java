@@ -0,0 +1,313 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * CheckTest holds the checks built by {@link CompiledSchema#specialize()} to
+ * the interpreter they duplicate, on randomly generated schemas and instances.
+ *
+ * <p>
+ * Errors are compared as ordered lists, since a drift in the order the two
+ * copies visit members would still pass a comparison of sorted errors.
+ */
+public class CheckTest {
+  private static final String[] NAMES = { "a", "b", "c", "foo", "bar", "x/y", "t~u", "\u00e9" };
+  private static final String[] TYPES = { "boolean", "float32", "float64", "int8", "uint8", "int16", "uint16",
+      "int32", "uint32", "string", "timestamp" };
+
+  private final Random random = new Random(20191006);
+
+  @Test
+  public void testSpecializedMatchesInterpreter() throws InvalidSchemaException, ValidationLimitExceededException {
+    Gson gson = new Gson();
+
+    for (int i = 0; i < 2000; i++) {
+      JsonObject root = this.randomRoot();
+      CompiledSchema compiled = gson.fromJson(root, Schema.class).compile();
+      CompiledSchema specialized = compiled.specialize();
+
+      for (int j = 0; j < 5; j++) {
+        JsonElement instance = this.randomInstance(root, root, 0);
+        String message = root + " " + instance;
+
+        for (int maxErrors = 0; maxErrors <= 3; maxErrors++) {
+          Validator validator = Validator.builder().setMaxErrors(maxErrors).build();
+          assertEquals(validator.validate(compiled, instance), validator.validate(specialized, instance), message);
+          assertEquals(validator.isValid(compiled, instance), validator.isValid(specialized, instance), message);
+        }
+      }
+    }
+  }
+
+  private JsonObject randomRoot() {
+    int count = this.random.nextInt(3);
+    List<String> definitions = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      definitions.add("d" + i);
+    }
+
+    JsonObject root = this.randomSchema(0, definitions, true);
+    if (count > 0) {
+      // A definition may not be a bare ref, or refs could loop without
+      // consuming any of the instance.
+      JsonObject object = new JsonObject();
+      for (String definition : definitions) {
+        object.add(definition, this.randomSchema(0, definitions, false));
+      }
+
+      root.add("definitions", object);
+    }
+
+    return root;
+  }
+
+  private JsonObject randomSchema(int depth, List<String> definitions, boolean allowRef) {
+    JsonObject schema = new JsonObject();
+    switch (this.random.nextInt(depth > 3 ? 4 : 9)) {
+    case 0:
+      break;
+    case 1:
+      schema.addProperty("type", TYPES[this.random.nextInt(TYPES.length)]);
+      break;
+    case 2:
+      JsonArray values = new JsonArray();
+      for (String name : this.randomNames(1 + this.random.nextInt(4))) {
+        values.add(name);
+      }
+
+      schema.add("enum", values);
+      break;
+    case 3:
+      if (allowRef && !definitions.isEmpty()) {
+        schema.addProperty("ref", definitions.get(this.random.nextInt(definitions.size())));
+      }
+
+      break;
+    case 4:
+      schema.add("elements", this.randomSchema(depth + 1, definitions, true));
+      break;
+    case 5:
+    case 6:
+      schema = this.randomProperties(depth, definitions, null);
+      break;
+    case 7:
+      schema.add("values", this.randomSchema(depth + 1, definitions, true));
+      break;
+    default:
+      String tag = NAMES[this.random.nextInt(NAMES.length)];
+      JsonObject mapping = new JsonObject();
+      for (String name : this.randomNames(1 + this.random.nextInt(3))) {
+        mapping.add(name, this.randomProperties(depth + 1, definitions, tag));
+      }
+
+      JsonObject discriminator = new JsonObject();
+      discriminator.addProperty("tag", tag);
+      discriminator.add("mapping", mapping);
+      schema.add("discriminator", discriminator);
+      break;
+    }
+
+    return schema;
+  }
+
+  private JsonObject randomProperties(int depth, List<String> definitions, String tag) {
+    List<String> names = this.randomNames(this.random.nextInt(6));
+    names.remove(tag);
+
+    JsonObject required = new JsonObject();
+    JsonObject optional = new JsonObject();
+    for (String name : names) {
+      JsonObject properties = this.random.nextBoolean() ? required : optional;
+      properties.add(name, this.randomSchema(depth + 1, definitions, true));
+    }
+
+    JsonObject schema = new JsonObject();
+    if (required.size() > 0 || optional.size() == 0) {
+      schema.add("properties", required);
+    }
+
+    if (optional.size() > 0) {
+      schema.add("optionalProperties", optional);
+    }
+
+    if (this.random.nextInt(3) == 0) {
+      schema.addProperty("additionalProperties", this.random.nextBoolean());
+    }
+
+    return schema;
+  }
+
+  private List<String> randomNames(int count) {
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      String name = NAMES[this.random.nextInt(NAMES.length)];
+      if (!names.contains(name)) {
+        names.add(name);
+      }
+    }
+
+    return names;
+  }
+
+  // Builds an instance that mostly fits the schema, so that validation reaches
+  // deep into it, with random mistakes and shuffled object members mixed in.
+  private JsonElement randomInstance(JsonObject schema, JsonObject root, int depth) {
+    if (depth > 12 || this.random.nextInt(12) == 0) {
+      return this.randomValue(depth);
+    }
+
+    if (schema.has("ref")) {
+      JsonObject definition = root.getAsJsonObject("definitions").getAsJsonObject(schema.get("ref").getAsString());
+      return this.randomInstance(definition, root, depth + 1);
+    }
+
+    if (schema.has("type")) {
+      return this.randomTyped(schema.get("type").getAsString());
+    }
+
+    if (schema.has("enum")) {
+      JsonArray values = schema.getAsJsonArray("enum");
+      return values.get(this.random.nextInt(values.size()));
+    }
+
+    if (schema.has("elements")) {
+      JsonArray array = new JsonArray();
+      for (int i = this.random.nextInt(5); i > 0; i--) {
+        array.add(this.randomInstance(schema.getAsJsonObject("elements"), root, depth + 1));
+      }
+
+      return array;
+    }
+
+    if (schema.has("values")) {
+      JsonObject object = new JsonObject();
+      for (String name : this.randomNames(this.random.nextInt(4))) {
+        object.add(name, this.randomInstance(schema.getAsJsonObject("values"), root, depth + 1));
+      }
+
+      return object;
+    }
+
+    if (schema.has("discriminator")) {
+      JsonObject discriminator = schema.getAsJsonObject("discriminator");
+      JsonObject mapping = discriminator.getAsJsonObject("mapping");
+      List<String> names = new ArrayList<>(mapping.keySet());
+      String name = names.get(this.random.nextInt(names.size()));
+
+      JsonElement instance = this.randomInstance(mapping.getAsJsonObject(name), root, depth + 1);
+      if (instance.isJsonObject() && this.random.nextInt(10) != 0) {
+        JsonElement tag = this.random.nextInt(10) == 0 ? new JsonPrimitive(3)
+            : new JsonPrimitive(this.random.nextInt(8) == 0 ? "zz" : name);
+        instance.getAsJsonObject().add(discriminator.get("tag").getAsString(), tag);
+        return this.shuffle(instance.getAsJsonObject());
+      }
+
+      return instance;
+    }
+
+    if (schema.has("properties") || schema.has("optionalProperties")) {
+      JsonObject object = new JsonObject();
+      for (String keyword : new String[] { "properties", "optionalProperties" }) {
+        if (schema.has(keyword)) {
+          for (Map.Entry<String, JsonElement> entry : schema.getAsJsonObject(keyword).entrySet()) {
+            if (this.random.nextInt(8) != 0) {
+              object.add(entry.getKey(), this.randomInstance(entry.getValue().getAsJsonObject(), root, depth + 1));
+            }
+          }
+        }
+      }
+
+      if (this.random.nextInt(5) == 0) {
+        object.add(NAMES[this.random.nextInt(NAMES.length)], this.randomValue(depth + 1));
+      }
+
+      return this.shuffle(object);
+    }
+
+    return this.randomValue(depth);
+  }
+
+  private JsonElement randomTyped(String type) {
+    switch (type) {
+    case "boolean":
+      return new JsonPrimitive(this.random.nextBoolean());
+    case "float32":
+    case "float64":
+      return new JsonPrimitive(this.random.nextDouble());
+    case "int8":
+      return new JsonPrimitive(this.random.nextInt(300) - 150);
+    case "uint8":
+      return new JsonPrimitive(this.random.nextInt(300) - 20);
+    case "int16":
+      return new JsonPrimitive(this.random.nextInt(70000) - 35000);
+    case "uint16":
+      return new JsonPrimitive(this.random.nextInt(70000) - 100);
+    case "int32":
+      return new JsonPrimitive(this.random.nextBoolean() ? this.random.nextInt() : this.random.nextInt(5) + 0.5);
+    case "uint32":
+      return new JsonPrimitive(4294967295L + this.random.nextInt(3) - 1);
+    case "string":
+      return new JsonPrimitive(NAMES[this.random.nextInt(NAMES.length)]);
+    default:
+      return new JsonPrimitive(this.random.nextBoolean() ? "2019-01-01T00:00:00Z" : "1990-12-31T15:59:60-08:00");
+    }
+  }
+
+  private JsonElement randomValue(int depth) {
+    switch (this.random.nextInt(depth > 2 ? 6 : 8)) {
+    case 0:
+      return JsonNull.INSTANCE;
+    case 1:
+      return new JsonPrimitive(this.random.nextBoolean());
+    case 2:
+      return new JsonPrimitive(this.random.nextInt(600) - 300);
+    case 3:
+      return new JsonPrimitive(this.random.nextDouble() * 1000);
+    case 4:
+      return new JsonPrimitive(NAMES[this.random.nextInt(NAMES.length)]);
+    case 5:
+      return new JsonPrimitive("not a time");
+    case 6:
+      JsonArray array = new JsonArray();
+      for (int i = this.random.nextInt(4); i > 0; i--) {
+        array.add(this.randomValue(depth + 1));
+      }
+
+      return array;
+    default:
+      JsonObject object = new JsonObject();
+      for (String name : this.randomNames(this.random.nextInt(4))) {
+        object.add(name, this.randomValue(depth + 1));
+      }
+
+      return object;
+    }
+  }
+
+  private JsonObject shuffle(JsonObject object) {
+    List<String> names = new ArrayList<>(object.keySet());
+    Collections.shuffle(names, this.random);
+
+    JsonObject shuffled = new JsonObject();
+    for (String name : names) {
+      shuffled.add(name, object.get(name));
+    }
+
+    return shuffled;
+  }
+}
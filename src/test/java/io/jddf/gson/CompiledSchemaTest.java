@@ -0,0 +1,71 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+
+import org.junit.jupiter.api.Test;
+
+public class CompiledSchemaTest {
+  @Test
+  public void testPropertyTable() {
+    String[] keys = new String[250];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = "key" + i;
+    }
+
+    CompiledSchema.PropertyTable table = new CompiledSchema.PropertyTable(keys);
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(i, table.indexOf(keys[i]));
+    }
+
+    assertEquals(CompiledSchema.PropertyTable.NOT_FOUND, table.indexOf("key250"));
+    assertEquals(CompiledSchema.PropertyTable.NOT_FOUND, table.indexOf(""));
+  }
+
+  @Test
+  public void testPropertyTableCollisions() {
+    // These strings all have the same hash code, so no perfect table exists for
+    // them.
+    String[] keys = { "AaAa", "AaBB", "BBAa", "BBBB" };
+
+    CompiledSchema.PropertyTable table = new CompiledSchema.PropertyTable(keys);
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(i, table.indexOf(keys[i]));
+    }
+
+    assertEquals(CompiledSchema.PropertyTable.NOT_FOUND, table.indexOf("Aa"));
+  }
+
+  @Test
+  public void testPropertyTableEmpty() {
+    CompiledSchema.PropertyTable table = new CompiledSchema.PropertyTable(new String[0]);
+    assertEquals(CompiledSchema.PropertyTable.NOT_FOUND, table.indexOf("a"));
+  }
+
+  @Test
+  public void testRefLoops() throws InvalidSchemaException {
+    assertTrue(compile("{\"definitions\": {\"x\": {\"ref\": \"x\"}}, \"ref\": \"x\"}").hasRefLoops());
+    assertTrue(compile("{\"definitions\": {\"a\": {\"ref\": \"b\"}, \"b\": {\"ref\": \"c\"}, \"c\": {\"ref\": \"a\"}}}")
+        .hasRefLoops());
+
+    // A ref leading into a loop, from a definition which is never used.
+    assertTrue(compile("{\"definitions\": {\"a\": {\"ref\": \"b\"}, \"b\": {\"ref\": \"b\"}}, \"type\": \"string\"}")
+        .hasRefLoops());
+
+    assertFalse(compile("{\"definitions\": {\"a\": {\"ref\": \"b\"}, \"b\": {\"ref\": \"c\"}, \"c\": {}}, \"ref\": \"a\"}")
+        .hasRefLoops());
+
+    // Recursion through elements, properties or values consumes the instance.
+    assertFalse(compile(
+        "{\"definitions\": {\"node\": {\"properties\": {\"children\": {\"elements\": {\"ref\": \"node\"}}}}}, \"ref\": \"node\"}")
+            .hasRefLoops());
+    assertFalse(compile("{\"definitions\": {\"map\": {\"values\": {\"ref\": \"map\"}}}, \"ref\": \"map\"}").hasRefLoops());
+  }
+
+  private static CompiledSchema compile(String json) throws InvalidSchemaException {
+    return new Gson().fromJson(json, Schema.class).compile();
+  }
+}
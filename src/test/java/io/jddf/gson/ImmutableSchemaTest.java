@@ -0,0 +1,83 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import org.junit.jupiter.api.Test;
+
+public class ImmutableSchemaTest {
+  private static final Gson GSON = new Gson();
+
+  private static final String SCHEMA = "{\"definitions\": {\"address\": {\"properties\": {\"city\": {\"type\": \"string\"}}}}, "
+      + "\"properties\": {\"id\": {\"type\": \"uint32\"}, \"tags\": {\"elements\": {\"enum\": [\"a\", \"b\"]}}, "
+      + "\"home\": {\"ref\": \"address\"}}, \"optionalProperties\": {\"labels\": {\"values\": {}}, "
+      + "\"event\": {\"discriminator\": {\"tag\": \"kind\", \"mapping\": {\"click\": {\"properties\": {\"x\": {\"type\": \"int32\"}}}}}}}, "
+      + "\"additionalProperties\": true}";
+
+  @Test
+  public void testFreeze() throws InvalidSchemaException {
+    Schema schema = schema(SCHEMA);
+    ImmutableSchema frozen = schema.freeze();
+
+    assertEquals(schema, frozen.toSchema());
+    assertEquals(Form.PROPERTIES, frozen.getForm());
+    assertEquals("kind", frozen.getOptionalProperties().get("event").getDiscriminatorTag());
+    assertThrows(UnsupportedOperationException.class, () -> frozen.getProperties().remove("id"));
+
+    // Changes to the original are not reflected in the frozen copy.
+    schema.getProperties().remove("id");
+    assertEquals(3, frozen.getProperties().size());
+
+    assertThrows(NoSuchDefinitionException.class, () -> schema("{\"ref\": \"a\"}").freeze());
+  }
+
+  @Test
+  public void testEquals() throws InvalidSchemaException {
+    ImmutableSchema a = schema(SCHEMA).freeze();
+    ImmutableSchema b = schema(SCHEMA).freeze();
+
+    assertNotSame(a, b);
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertNotEquals(a, schema("{\"type\": \"string\"}").freeze());
+  }
+
+  @Test
+  public void testCompile() throws InvalidSchemaException, ValidationLimitExceededException {
+    Validator validator = new Validator();
+    JsonElement instance = GSON.fromJson("{\"id\": -1, \"tags\": [\"c\"], \"home\": {}}", JsonElement.class);
+
+    List<ValidationError> errors = validator.validate(schema(SCHEMA).compile(), instance);
+    assertEquals(3, errors.size());
+    assertEquals(errors, validator.validate(schema(SCHEMA).freeze().compile(), instance));
+  }
+
+  @Test
+  public void testIntern() throws InvalidSchemaException {
+    SchemaInterner interner = new SchemaInterner();
+
+    ImmutableSchema a = interner.intern(schema(SCHEMA));
+    int size = interner.size();
+
+    // The same schema again adds nothing.
+    assertSame(a, interner.intern(schema(SCHEMA)));
+    assertEquals(size, interner.size());
+
+    // A different schema shares the parts it has in common.
+    ImmutableSchema b = interner.intern(schema("{\"elements\": {\"properties\": {\"id\": {\"type\": \"uint32\"}}}}"));
+    assertSame(a.getProperties().get("id"), b.getElements().getProperties().get("id"));
+    assertEquals(size + 2, interner.size());
+  }
+
+  private static Schema schema(String json) {
+    return GSON.fromJson(json, Schema.class);
+  }
+}
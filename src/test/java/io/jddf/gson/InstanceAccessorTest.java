@@ -0,0 +1,99 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import org.junit.jupiter.api.Test;
+
+public class InstanceAccessorTest {
+  private static final String SCHEMA = "{\"definitions\": {\"item\": {\"properties\": {\"sku\": {\"type\": \"string\"}, "
+      + "\"quantity\": {\"type\": \"uint8\"}}, \"optionalProperties\": {\"at\": {\"type\": \"timestamp\"}}}}, "
+      + "\"discriminator\": {\"tag\": \"kind\", \"mapping\": {"
+      + "\"order\": {\"properties\": {\"items\": {\"elements\": {\"ref\": \"item\"}}, \"status\": {\"enum\": [\"OPEN\", \"PAID\"]}}}, "
+      + "\"labels\": {\"properties\": {\"values\": {\"values\": {\"type\": \"boolean\"}}, \"any\": {}}}}}}";
+
+  private static final List<String> INSTANCES = Arrays.asList("null", "[]", "{}", "{\"kind\": null}",
+      "{\"kind\": 1}", "{\"kind\": \"other\"}", "{\"kind\": \"order\", \"items\": [], \"status\": \"PAID\"}",
+      "{\"kind\": \"order\", \"items\": [{\"sku\": \"a\", \"quantity\": 3}, {\"sku\": 1, \"quantity\": 256, \"x\": 1}, "
+          + "{\"quantity\": 1.5, \"at\": \"2019-08-01T00:00:00Z\"}, {\"sku\": \"b\", \"quantity\": 0, \"at\": \"now\"}], "
+          + "\"status\": \"SHIPPED\"}",
+      "{\"kind\": \"labels\", \"values\": {\"a\": true, \"b\": \"true\", \"c\": null}, \"any\": null}",
+      "{\"kind\": \"labels\", \"values\": []}");
+
+  @Test
+  public void testJavaObjects() throws InvalidSchemaException, ValidationLimitExceededException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson(SCHEMA, Schema.class).compile();
+
+    Validator validator = new Validator();
+    for (String json : INSTANCES) {
+      List<ValidationError> expected = validator.validate(schema, gson.fromJson(json, JsonElement.class));
+      Object instance = gson.fromJson(json, Object.class);
+
+      assertEquals(expected, validator.validate(schema, instance, InstanceAccessor.javaObjects()), json);
+      assertEquals(expected, validator.newContext().validate(schema, instance, InstanceAccessor.javaObjects()), json);
+      assertEquals(expected.isEmpty(), validator.isValid(schema, instance, InstanceAccessor.javaObjects()), json);
+      assertEquals(expected,
+          validator.validate(schema, gson.fromJson(json, JsonElement.class), InstanceAccessor.jsonElements()), json);
+    }
+  }
+
+  @Test
+  public void testJavaNumbers() throws InvalidSchemaException, ValidationLimitExceededException {
+    CompiledSchema schema = new Gson().fromJson("{\"values\": {\"type\": \"uint32\"}}", Schema.class).compile();
+
+    Map<String, Object> instance = new HashMap<>();
+    instance.put("int", 1);
+    instance.put("long", 4294967295L);
+    instance.put("big", BigInteger.valueOf(4294967296L));
+    instance.put("negative", (short) -1);
+    instance.put("fraction", 0.5f);
+
+    Validator validator = new Validator();
+    List<ValidationError> errors = validator.validate(schema, instance, InstanceAccessor.javaObjects());
+    assertEquals(3, errors.size());
+  }
+
+  @Test
+  public void testParallel() throws InvalidSchemaException, ValidationLimitExceededException {
+    CompiledSchema schema = new Gson().fromJson("{\"elements\": {\"values\": {\"type\": \"string\"}}}", Schema.class)
+        .compile();
+
+    Object[] elements = new Object[100];
+    for (int i = 0; i < elements.length; i++) {
+      Map<String, Object> element = new HashMap<>();
+      for (int j = 0; j < 20; j++) {
+        element.put("key" + j, (i + j) % 17 == 0 ? j : "value");
+      }
+      elements[i] = element;
+    }
+    List<Object> instance = Arrays.asList(elements);
+
+    Validator sequential = new Validator();
+    Validator parallel = Validator.builder().setParallelThreshold(5).build();
+    assertEquals(sequential.validate(schema, instance, InstanceAccessor.javaObjects()),
+        parallel.validate(schema, instance, InstanceAccessor.javaObjects()));
+  }
+
+  @Test
+  public void testRefLoops() throws InvalidSchemaException {
+    CompiledSchema schema = new Gson().fromJson("{\"definitions\": {\"x\": {\"ref\": \"x\"}}, \"ref\": \"x\"}",
+        Schema.class).compile();
+
+    Validator validator = new Validator();
+    assertThrows(MaxDepthExceededException.class,
+        () -> validator.validate(schema, Collections.emptyMap(), InstanceAccessor.javaObjects()));
+    assertThrows(MaxDepthExceededException.class,
+        () -> validator.isValid(schema, Collections.emptyMap(), InstanceAccessor.javaObjects()));
+  }
+}
@@ -0,0 +1,98 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonPrimitive;
+
+import org.junit.jupiter.api.Test;
+
+public class NumbersTest {
+  @Test
+  public void testLexical() {
+    assertTrue(Numbers.isInt("0", 0, 255));
+    assertTrue(Numbers.isInt("-0", 0, 255));
+    assertTrue(Numbers.isInt("0.000", 0, 255));
+    assertTrue(Numbers.isInt("0e-5", 0, 255));
+    assertTrue(Numbers.isInt("255", 0, 255));
+    assertTrue(Numbers.isInt("1.0", 0, 255));
+    assertTrue(Numbers.isInt("1e2", 0, 255));
+    assertTrue(Numbers.isInt("1E+2", 0, 255));
+    assertTrue(Numbers.isInt("2.55e2", 0, 255));
+    assertTrue(Numbers.isInt("25500e-2", 0, 255));
+    assertTrue(Numbers.isInt("-128", -128, 127));
+    assertTrue(Numbers.isInt("4294967295", 0, 4294967295L));
+    assertTrue(Numbers.isInt("4294967295.000000000000000000000", 0, 4294967295L));
+    assertTrue(Numbers.isInt("0.4294967295e10", 0, 4294967295L));
+
+    assertFalse(Numbers.isInt("256", 0, 255));
+    assertFalse(Numbers.isInt("-1", 0, 255));
+    assertFalse(Numbers.isInt("-129", -128, 127));
+    assertFalse(Numbers.isInt("1.5", 0, 255));
+    assertFalse(Numbers.isInt("1e-1", 0, 255));
+    assertFalse(Numbers.isInt("1e1000000000000", 0, 255));
+    assertFalse(Numbers.isInt("1e-1000000000000", 0, 255));
+    assertFalse(Numbers.isInt("4294967296", 0, 4294967295L));
+    assertFalse(Numbers.isInt("4294967295.0000000000000000001", 0, 4294967295L));
+    assertFalse(Numbers.isInt("99999999999999999999999999999", 0, 4294967295L));
+    assertFalse(Numbers.isInt("127.00000000000000001", -128, 127));
+
+    assertFalse(Numbers.isInt("", 0, 255));
+    assertFalse(Numbers.isInt("-", 0, 255));
+    assertFalse(Numbers.isInt("1.", 0, 255));
+    assertFalse(Numbers.isInt(".1", 0, 255));
+    assertFalse(Numbers.isInt("1e", 0, 255));
+    assertFalse(Numbers.isInt("NaN", 0, 255));
+    assertFalse(Numbers.isInt("1x", 0, 255));
+  }
+
+  @Test
+  public void testLargeExponents() {
+    // Exponents beyond any fixed bound can still be cancelled out by enough
+    // fractional digits.
+    String zeros = "0".repeat(1000);
+    assertTrue(Numbers.isInt("0." + zeros + "1e1001", 0, 255));
+    assertTrue(Numbers.isInt("0." + zeros + "255e1003", 0, 255));
+    assertTrue(Numbers.isInt("1" + zeros + "e-1000", 0, 255));
+    assertFalse(Numbers.isInt("0." + zeros + "1e1000", 0, 255));
+    assertFalse(Numbers.isInt("0." + zeros + "1e1004", 0, 255));
+    assertFalse(Numbers.isInt("1" + zeros + "e-997", 0, 255));
+  }
+
+  @Test
+  public void testNumberTypes() {
+    assertTrue(Numbers.isInt(255, 0, 255));
+    assertTrue(Numbers.isInt(255L, 0, 255));
+    assertTrue(Numbers.isInt(255.0, 0, 255));
+    assertTrue(Numbers.isInt(255.0f, 0, 255));
+    assertTrue(Numbers.isInt(new BigInteger("255"), 0, 255));
+    assertTrue(Numbers.isInt(new BigDecimal("2.55E+2"), 0, 255));
+
+    assertFalse(Numbers.isInt(256, 0, 255));
+    assertFalse(Numbers.isInt(Long.MAX_VALUE, 0, 255));
+    assertFalse(Numbers.isInt(254.5, 0, 255));
+    assertFalse(Numbers.isInt(Double.NaN, 0, 255));
+    assertFalse(Numbers.isInt(Double.POSITIVE_INFINITY, 0, 4294967295L));
+    assertFalse(Numbers.isInt(BigInteger.ONE.shiftLeft(64), 0, 4294967295L));
+    assertFalse(Numbers.isInt(new BigDecimal("254.5"), 0, 255));
+  }
+
+  @Test
+  public void testParsedNumbers() {
+    // Gson holds parsed numbers in their textual form.
+    Gson gson = new Gson();
+    JsonPrimitive exact = gson.fromJson("4294967295.0", JsonPrimitive.class);
+    JsonPrimitive inexact = gson.fromJson("4294967295.0000000000000001", JsonPrimitive.class);
+
+    // Converted to a double, both of these look like the same integer.
+    assertEquals(exact.getAsDouble(), inexact.getAsDouble());
+
+    assertTrue(Numbers.isInt(exact.getAsNumber(), 0, 4294967295L));
+    assertFalse(Numbers.isInt(inexact.getAsNumber(), 0, 4294967295L));
+  }
+}
@@ -0,0 +1,104 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import org.junit.jupiter.api.Test;
+
+public class SchemaRegistryTest {
+  private static final Gson GSON = new Gson();
+
+  @Test
+  public void testGet() throws InvalidSchemaException {
+    Map<String, Integer> loads = new HashMap<>();
+    SchemaRegistry registry = new SchemaRegistry(10, id -> {
+      loads.merge(id, 1, Integer::sum);
+      return id.equals("missing") ? null : schema("{\"type\": \"string\"}");
+    });
+
+    CompiledSchema schema = registry.get("a");
+    assertSame(schema, registry.get("a"));
+    assertNull(registry.get("missing"));
+
+    assertEquals(1, (int) loads.get("a"));
+    assertEquals(1, registry.getHitCount());
+    assertEquals(2, registry.getMissCount());
+    assertEquals(1, registry.size());
+  }
+
+  @Test
+  public void testGetInvalid() {
+    SchemaRegistry registry = new SchemaRegistry(10, id -> schema("{\"ref\": \"a\"}"));
+
+    assertThrows(InvalidSchemaException.class, () -> registry.get("a"));
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  public void testEviction() throws InvalidSchemaException {
+    SchemaRegistry registry = new SchemaRegistry(2, id -> schema("{\"type\": \"string\"}"));
+
+    CompiledSchema a = registry.get("a");
+    registry.get("b");
+    registry.get("a");
+    registry.get("c");
+
+    // b was used least recently, so it is the one evicted.
+    assertEquals(2, registry.size());
+    assertEquals(1, registry.getEvictionCount());
+    assertSame(a, registry.get("a"));
+    assertEquals(3, registry.getMissCount());
+    registry.get("b");
+    assertEquals(4, registry.getMissCount());
+  }
+
+  @Test
+  public void testPut() throws InvalidSchemaException, ValidationLimitExceededException {
+    SchemaRegistry registry = new SchemaRegistry(10, id -> schema("{\"type\": \"string\"}"));
+    Validator validator = new Validator();
+    JsonElement instance = GSON.fromJson("123", JsonElement.class);
+
+    CompiledSchema before = registry.get("a");
+    CompiledSchema after = registry.put("a", schema("{\"type\": \"int32\"}"));
+
+    assertNotSame(before, after);
+    assertSame(after, registry.get("a"));
+
+    // Schemas already handed out keep working as they were.
+    assertEquals(1, validator.validate(before, instance).size());
+    assertTrue(validator.validate(after, instance).isEmpty());
+
+    assertThrows(InvalidSchemaException.class, () -> registry.put("a", schema("{\"ref\": \"a\"}")));
+    assertSame(after, registry.get("a"));
+  }
+
+  @Test
+  public void testInvalidate() throws InvalidSchemaException {
+    SchemaRegistry registry = new SchemaRegistry(10, id -> schema("{\"type\": \"string\"}"));
+
+    CompiledSchema before = registry.get("a");
+    registry.invalidate("a");
+
+    assertNotSame(before, registry.get("a"));
+    assertEquals(2, registry.getMissCount());
+  }
+
+  @Test
+  public void testMaxSize() {
+    assertThrows(IllegalArgumentException.class, () -> new SchemaRegistry(0, id -> null));
+  }
+
+  private static Schema schema(String json) {
+    return GSON.fromJson(json, Schema.class);
+  }
+}
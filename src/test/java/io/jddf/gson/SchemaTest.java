@@ -1,6 +1,10 @@
 package io.jddf.gson;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
@@ -79,6 +83,27 @@ public class SchemaTest {
     return tests;
   }
 
+  @Test
+  public void testCompile() throws InvalidSchemaException {
+    Gson gson = new Gson();
+
+    Schema schema = gson.fromJson("{\"definitions\": {\"a\": {\"ref\": \"a\"}}, \"ref\": \"a\"}", Schema.class);
+    assertEquals(schema, schema.compile().getSchema());
+
+    CompiledSchema compiled = schema.compile();
+    CompiledSchema specialized = compiled.specialize();
+    assertFalse(compiled.isSpecialized());
+    assertTrue(specialized.isSpecialized());
+    assertEquals(schema, specialized.getSchema());
+    assertSame(specialized, specialized.specialize());
+
+    Schema nonRoot = gson.fromJson("{\"elements\": {\"definitions\": {}}}", Schema.class);
+    assertThrows(NonRootDefinitionException.class, () -> nonRoot.compile());
+
+    Schema noSuchDefinition = gson.fromJson("{\"definitions\": {\"a\": {\"ref\": \"b\"}}}", Schema.class);
+    assertThrows(NoSuchDefinitionException.class, () -> noSuchDefinition.compile());
+  }
+
   @Test
   public void testGetForm() {
     Schema schema = new Schema();
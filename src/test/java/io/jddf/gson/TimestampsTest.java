@@ -0,0 +1,39 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TimestampsTest {
+  private static final List<String> VALID = Arrays.asList("1985-04-12T23:20:50.52Z", "1996-12-19T16:39:57-08:00",
+      "1990-12-31T23:59:60Z", "1990-12-31T15:59:60-08:00", "1937-01-01T12:00:27.87+00:20", "2019-01-01t00:00:00z",
+      "2000-02-29T00:00:00Z", "2019-12-31T23:59:59.123456789+23:59", "0000-01-01T00:00:00Z",
+      "9999-12-31T23:59:59Z");
+
+  private static final List<String> INVALID = Arrays.asList("", "1985-04-12", "1985-04-12T23:20:50",
+      "1985-04-12 23:20:50Z", "1985-04-12T23:20:50.Z", "1985-04-12T23:20:50.52", "1985-4-12T23:20:50Z",
+      "85-04-12T23:20:50Z", "1985-13-12T23:20:50Z", "1985-00-12T23:20:50Z", "1985-04-31T23:20:50Z",
+      "1985-04-00T23:20:50Z", "1900-02-29T00:00:00Z", "2019-02-29T00:00:00Z", "1985-04-12T24:20:50Z",
+      "1985-04-12T23:60:50Z", "1985-04-12T23:20:61Z", "1985-04-12T23:20:50+24:00", "1985-04-12T23:20:50+00:60",
+      "1985-04-12T23:20:50+0000", "1985-04-12T23:20:50+00:00:00", "1985-04-12T23:20:50ZZ",
+      "1985-04-12T23:20:50X", "1985-04-12T23:20:5aZ", "1985/04/12T23:20:50Z", "1985-04-12T23-20-50Z",
+      "\uff11\uff19\uff18\uff15-04-12T23:20:50Z");
+
+  @Test
+  public void testValid() {
+    for (String timestamp : VALID) {
+      assertTrue(Timestamps.isValid(timestamp), timestamp);
+    }
+  }
+
+  @Test
+  public void testInvalid() {
+    for (String timestamp : INVALID) {
+      assertFalse(Timestamps.isValid(timestamp), timestamp);
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.jupiter.api.Test;
+
+public class ValidatingTypeAdapterFactoryTest {
+  private static final String SCHEMA = "{\"properties\": {\"id\": {\"type\": \"uint32\"}, \"tags\": {\"elements\": {\"type\": \"string\"}}}, "
+      + "\"optionalProperties\": {\"counts\": {\"values\": {\"type\": \"uint8\"}}, \"note\": {}}}";
+
+  private static class Order {
+    private long id;
+    private List<String> tags;
+    private Map<String, Integer> counts;
+  }
+
+  private static class Parent {
+    private Order order;
+    private String name;
+  }
+
+  private Gson gson() throws InvalidSchemaException {
+    CompiledSchema schema = new Gson().fromJson(SCHEMA, Schema.class).compile();
+    return new GsonBuilder()
+        .registerTypeAdapterFactory(new ValidatingTypeAdapterFactory(new Validator(), Order.class, schema)).create();
+  }
+
+  @Test
+  public void testRead() throws InvalidSchemaException {
+    Gson gson = gson();
+
+    Order order = gson.fromJson(
+        "{\"note\": {\"skipped\": [1, 2.50, \"\\u00e9\"]}, \"id\": 4000000000, \"tags\": [\"a\"], \"counts\": {\"x\": 1}}",
+        Order.class);
+    assertEquals(4000000000L, order.id);
+    assertEquals(Arrays.asList("a"), order.tags);
+    assertEquals(Collections.singletonMap("x", 1), order.counts);
+
+    InvalidInstanceException e = assertThrows(InvalidInstanceException.class,
+        () -> gson.fromJson("{\"id\": -1, \"tags\": [\"a\", 1]}", Order.class));
+    assertEquals(2, e.getErrors().size());
+    assertEquals(Arrays.asList("tags", "1"), e.getErrors().get(1).getInstancePath());
+  }
+
+  @Test
+  public void testReadNested() throws InvalidSchemaException {
+    List<Order> orders = gson().fromJson("[{\"id\": 1, \"tags\": []}, {\"id\": 2, \"tags\": [\"b\"]}]",
+        new TypeToken<List<Order>>() {
+        }.getType());
+
+    assertEquals(2, orders.size());
+    assertEquals(2, orders.get(1).id);
+  }
+
+  @Test
+  public void testWrite() throws InvalidSchemaException {
+    Gson gson = gson();
+
+    Order order = new Order();
+    order.id = 1;
+    order.tags = Arrays.asList("a", "b");
+    assertEquals(new Gson().toJsonTree(order), gson.fromJson(gson.toJson(order), JsonElement.class));
+
+    Order invalid = new Order();
+    invalid.id = -1;
+    invalid.tags = Collections.emptyList();
+
+    StringWriter out = new StringWriter();
+    assertThrows(InvalidInstanceException.class, () -> gson.toJson(invalid, out));
+    assertEquals("", out.toString());
+
+    // Null is written without being validated, as Gson's own adapters do.
+    assertEquals("null", gson.toJson(null, Order.class));
+  }
+
+  @Test
+  public void testNullField() throws InvalidSchemaException {
+    Gson gson = gson();
+
+    Parent parent = new Parent();
+    parent.name = "n";
+    assertEquals("{\"name\":\"n\"}", gson.toJson(parent));
+
+    Parent read = gson.fromJson("{\"order\": null, \"name\": \"n\"}", Parent.class);
+    assertNull(read.order);
+    assertEquals("n", read.name);
+    assertNull(gson.fromJson("null", Order.class));
+  }
+}
@@ -0,0 +1,97 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class ValidationEventTest {
+  @Test
+  public void testEvents() throws InvalidSchemaException, ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson("{\"elements\": {\"type\": \"string\"}}", Schema.class).compile()
+        .withId("strings");
+    CompiledSchema loop = gson.fromJson("{\"definitions\": {\"x\": {\"ref\": \"x\"}}, \"ref\": \"x\"}", Schema.class)
+        .compile();
+
+    Validator validator = Validator.builder().setEventNodeThreshold(10).build();
+    assertEquals(10, validator.getEventNodeThreshold());
+    assertEquals(validator, validator.toBuilder().build());
+
+    String small = "[\"a\", 1]";
+    String large = "[\"a\", 1, \"b\", 2, \"c\", 3, \"d\", 4, \"e\", 5]";
+
+    // Nothing is recorded before the recording starts.
+    validator.validate(schema, gson.fromJson(large, JsonElement.class));
+
+    java.nio.file.Path file = Files.createTempFile("validation", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("io.jddf.gson.Validation");
+      recording.start();
+
+      validator.validate(schema, gson.fromJson(small, JsonElement.class));
+      validator.validate(schema, gson.fromJson(large, JsonElement.class));
+      validator.validate(schema, ByteBuffer.wrap(large.getBytes(StandardCharsets.UTF_8)));
+      validator.toBuilder().setMaxErrors(5).build().validate(schema, gson.fromJson(large, JsonElement.class));
+      Validator.builder().setEventDurationThreshold(1).build().validate(schema,
+          gson.fromJson(small, JsonElement.class));
+      assertThrows(MaxDepthExceededException.class,
+          () -> Validator.builder().setEventDurationThreshold(1).build().validate(loop, (JsonElement) null));
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events;
+    try {
+      events = RecordingFile.readAllEvents(file).stream()
+          .filter(event -> event.getEventType().getName().equals("io.jddf.gson.Validation"))
+          .collect(Collectors.toList());
+    } finally {
+      Files.delete(file);
+    }
+
+    assertEquals(5, events.size());
+
+    RecordedEvent tree = events.get(0);
+    assertEquals("strings", tree.getString("schemaId"));
+    assertEquals(-1, tree.getLong("instanceSize"));
+    assertEquals(11, tree.getLong("nodes"));
+    assertEquals(5, tree.getLong("errors"));
+    assertFalse(tree.getBoolean("maxDepthExceeded"));
+    assertFalse(tree.getBoolean("maxErrorsReached"));
+
+    RecordedEvent bytes = events.get(1);
+    assertEquals(large.length(), bytes.getLong("instanceSize"));
+    assertEquals(11, bytes.getLong("nodes"));
+
+    RecordedEvent stopped = events.get(2);
+    assertEquals(11, stopped.getLong("nodes"));
+    assertEquals(5, stopped.getLong("errors"));
+    assertTrue(stopped.getBoolean("maxErrorsReached"));
+
+    RecordedEvent slow = events.get(3);
+    assertEquals(3, slow.getLong("nodes"));
+    assertEquals(1, slow.getLong("errors"));
+
+    RecordedEvent deep = events.get(4);
+    assertEquals(null, deep.getString("schemaId"));
+    assertTrue(deep.getBoolean("maxDepthExceeded"));
+  }
+}
@@ -0,0 +1,120 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.jupiter.api.Test;
+
+public class ValidationMetricsTest {
+  private static final String SCHEMA = "{\"definitions\": {\"item\": {\"properties\": {\"sku\": {\"type\": \"string\"}, "
+      + "\"tags\": {\"elements\": {}}}}}, \"properties\": {\"items\": {\"elements\": {\"ref\": \"item\"}}}, "
+      + "\"optionalProperties\": {\"note\": {\"type\": \"string\"}}}";
+
+  private static final String INSTANCE = "{\"items\": [{\"sku\": \"a\", \"tags\": [1, 2]}, {\"sku\": 1, \"tags\": []}, "
+      + "{\"sku\": \"c\", \"tags\": [[3]]}], \"note\": 1}";
+
+  // Records a copy of the stats of each validation reported.
+  private static final class Recorder implements ValidationListener {
+    private final List<String> ids = new ArrayList<>();
+    private final List<ValidationStats> stats = new ArrayList<>();
+
+    @Override
+    public void onValidation(CompiledSchema schema, ValidationStats stats) {
+      this.ids.add(schema.getId());
+      this.stats.add(new ValidationStats(stats.getValidations(), stats.getNodes(), stats.getRefs(),
+          stats.getErrors(), stats.getMaxInstanceDepth(), stats.getElapsedNanos()));
+    }
+  }
+
+  @Test
+  public void testListener() throws InvalidSchemaException, ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson(SCHEMA, Schema.class).compile().withId("orders");
+    JsonElement instance = gson.fromJson(INSTANCE, JsonElement.class);
+
+    Recorder recorder = new Recorder();
+    Validator validator = Validator.builder().setListener(recorder).build();
+    assertEquals(validator, validator.toBuilder().build());
+
+    ValidationContext context = validator.newContext();
+    validator.validate(schema, instance);
+    validator.validate(schema.specialize(), instance);
+    context.validate(schema, new JsonReader(new StringReader(INSTANCE)));
+    context.validate(schema, ByteBuffer.wrap(INSTANCE.getBytes(StandardCharsets.UTF_8)));
+    context.validate(schema, gson.fromJson(INSTANCE, Object.class), InstanceAccessor.javaObjects());
+    Validator.builder().setListener(recorder).setParallelThreshold(1).build().validate(schema, instance);
+
+    // The root, items, three refs and their targets, three skus, three tags,
+    // the three elements of tags, and note. The empty schema doesn't look
+    // inside the innermost array, so the deepest value visited is at
+    // /items/2/tags/0.
+    assertEquals(Arrays.asList("orders", "orders", "orders", "orders", "orders", "orders"), recorder.ids);
+    for (ValidationStats stats : recorder.stats) {
+      assertEquals(1, stats.getValidations());
+      assertEquals(18, stats.getNodes(), stats.toString());
+      assertEquals(3, stats.getRefs());
+      assertEquals(2, stats.getErrors());
+      assertEquals(4, stats.getMaxInstanceDepth());
+      assertTrue(stats.getElapsedNanos() > 0);
+    }
+
+    // Validations which are stopped early only count what they visited.
+    recorder.stats.clear();
+    validator.toBuilder().setMaxErrors(1).build().validate(schema, instance);
+    assertEquals(1, recorder.stats.get(0).getErrors());
+    assertEquals(11, recorder.stats.get(0).getNodes());
+  }
+
+  @Test
+  public void testMetrics() throws InvalidSchemaException, ValidationLimitExceededException {
+    Gson gson = new Gson();
+    Schema schema = gson.fromJson(SCHEMA, Schema.class);
+    JsonElement instance = gson.fromJson(INSTANCE, JsonElement.class);
+
+    SchemaRegistry registry = new SchemaRegistry(10, id -> schema);
+    assertEquals("orders@1", registry.get("orders@1").getId());
+    assertEquals("orders@1", registry.get("orders@1").specialize().getId());
+    assertNull(schema.compile().getId());
+
+    ValidationMetrics metrics = new ValidationMetrics();
+    Validator validator = Validator.builder().setListener(metrics).build();
+    for (int i = 0; i < 3; i++) {
+      validator.validate(registry.get("orders@1"), instance);
+    }
+    validator.validate(registry.get("orders@2"), gson.fromJson("{\"items\": []}", JsonElement.class));
+    validator.validate(schema.compile(), instance);
+
+    Map<String, ValidationStats> stats = metrics.getStats();
+    assertEquals(Arrays.asList("", "orders@1", "orders@2"), new ArrayList<>(stats.keySet()));
+
+    ValidationStats orders = stats.get("orders@1");
+    assertEquals(3, orders.getValidations());
+    assertEquals(54, orders.getNodes());
+    assertEquals(9, orders.getRefs());
+    assertEquals(6, orders.getErrors());
+    assertEquals(4, orders.getMaxInstanceDepth());
+
+    ValidationStats empty = stats.get("orders@2");
+    assertEquals(1, empty.getValidations());
+    assertEquals(2, empty.getNodes());
+    assertEquals(0, empty.getErrors());
+    assertEquals(1, empty.getMaxInstanceDepth());
+
+    metrics.reset();
+    assertTrue(metrics.getStats().isEmpty());
+  }
+}
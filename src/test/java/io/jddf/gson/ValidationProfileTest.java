@@ -0,0 +1,199 @@
+package io.jddf.gson;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.jupiter.api.Test;
+
+public class ValidationProfileTest {
+  private static final String SCHEMA = "{\"definitions\": {\"item\": {\"properties\": {\"sku\": {\"type\": \"string\"}}, "
+      + "\"optionalProperties\": {\"quantity\": {\"type\": \"uint8\"}}}}, "
+      + "\"properties\": {\"items\": {\"elements\": {\"ref\": \"item\"}}, \"status\": {\"enum\": [\"OPEN\", \"PAID\"]}}, "
+      + "\"optionalProperties\": {\"extra\": {\"discriminator\": {\"tag\": \"kind\", \"mapping\": {\"a\": {\"optionalProperties\": {\"n\": {}}}}}}}}";
+
+  private static List<String> instances() {
+    List<String> instances = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      StringBuilder items = new StringBuilder();
+      for (int j = 0; j < i % 7; j++) {
+        items.append(j == 0 ? "" : ", ").append(j % 3 == 0 ? "{\"quantity\": 300}" : "{\"sku\": \"x\", \"quantity\": 1}");
+      }
+
+      instances.add("{\"items\": [" + items + "], " + (i % 5 == 0 ? "\"status\": \"LOST\"" : "\"status\": \"OPEN\"")
+          + (i % 11 == 0 ? ", \"extra\": {\"kind\": \"b\"}" : "") + (i % 13 == 0 ? ", \"other\": 1" : "") + "}");
+    }
+
+    return instances;
+  }
+
+  // Counts the errors the list-returning API finds, by schema pointer.
+  private static Map<String, Long> expectedCounts(Validator validator, CompiledSchema schema, List<String> instances)
+      throws ValidationLimitExceededException {
+    Gson gson = new Gson();
+    Map<String, Long> counts = new HashMap<>();
+    for (String instance : instances) {
+      for (ValidationError error : validator.validate(schema, gson.fromJson(instance, JsonElement.class))) {
+        counts.merge(error.getSchemaPointer(), 1L, Long::sum);
+      }
+    }
+
+    return counts;
+  }
+
+  private static Map<String, Long> counts(ValidationProfile profile) {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    for (ProfileEntry entry : profile.report()) {
+      counts.put(entry.getSchemaPointer(), entry.getCount());
+    }
+
+    return counts;
+  }
+
+  @Test
+  public void testProfile() throws InvalidSchemaException, ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson(SCHEMA, Schema.class).compile();
+    List<String> instances = instances();
+
+    Validator validator = new Validator();
+    Map<String, Long> expected = expectedCounts(validator, schema, instances);
+    assertEquals(5, expected.size());
+
+    ValidationContext context = validator.newContext();
+    for (CompiledSchema compiled : Arrays.asList(schema, schema.specialize())) {
+      ValidationProfile profile = new ValidationProfile(compiled);
+      for (String instance : instances) {
+        validator.validate(compiled, gson.fromJson(instance, JsonElement.class), profile);
+      }
+      assertEquals(expected, counts(profile));
+
+      profile.reset();
+      assertTrue(profile.report().isEmpty());
+
+      for (String instance : instances) {
+        context.validate(compiled, new JsonReader(new StringReader(instance)), profile);
+        context.validate(compiled, ByteBuffer.wrap(instance.getBytes(StandardCharsets.UTF_8)), profile);
+      }
+
+      Map<String, Long> doubled = new HashMap<>();
+      expected.forEach((pointer, count) -> doubled.put(pointer, count * 2));
+      assertEquals(doubled, counts(profile));
+    }
+  }
+
+  @Test
+  public void testReport() throws InvalidSchemaException, ValidationLimitExceededException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson(SCHEMA, Schema.class).compile();
+    Validator validator = new Validator();
+
+    ValidationProfile profile = new ValidationProfile(schema, 2);
+    for (String instance : instances()) {
+      validator.validate(schema, gson.fromJson(instance, JsonElement.class), profile);
+    }
+
+    // Entries are ordered by count, and then by where they are in the schema.
+    assertEquals(Arrays.asList(
+        new ProfileEntry("/definitions/item/properties/sku", 255, Arrays.asList("/items/0", "/items/0")),
+        new ProfileEntry("/definitions/item/optionalProperties/quantity/type", 255,
+            Arrays.asList("/items/0/quantity", "/items/0/quantity")),
+        new ProfileEntry("/properties/status/enum", 40, Arrays.asList("/status", "/status")),
+        new ProfileEntry("/optionalProperties/extra/discriminator/mapping", 19,
+            Arrays.asList("/extra/kind", "/extra/kind")),
+        new ProfileEntry("", 16, Arrays.asList("/other", "/other"))), profile.report());
+
+    ValidationProfile unsampled = new ValidationProfile(schema, 0);
+    validator.validate(schema, gson.fromJson(instances().get(0), JsonElement.class), unsampled);
+    assertEquals(Arrays.asList(new ProfileEntry("", 1, Collections.emptyList()),
+        new ProfileEntry("/properties/status/enum", 1, Collections.emptyList()),
+        new ProfileEntry("/optionalProperties/extra/discriminator/mapping", 1, Collections.emptyList())),
+        unsampled.report());
+  }
+
+  @Test
+  public void testAccept() throws InvalidSchemaException, ValidationLimitExceededException {
+    Gson gson = new Gson();
+    Schema schema = gson.fromJson(SCHEMA, Schema.class);
+    List<String> instances = instances();
+
+    // Errors from another compilation of the same schema are matched by their
+    // schema paths, and so are errors constructed by hand.
+    Validator validator = new Validator();
+    ValidationProfile profile = new ValidationProfile(schema.compile());
+    for (String instance : instances) {
+      for (ValidationError error : validator.validate(schema, gson.fromJson(instance, JsonElement.class))) {
+        ValidationError copy = new ValidationError();
+        copy.setInstancePath(error.getInstancePath());
+        copy.setSchemaPath(error.getSchemaPath());
+        profile.accept(error);
+        profile.accept(copy);
+      }
+    }
+
+    Map<String, Long> expected = new HashMap<>();
+    expectedCounts(validator, schema.compile(), instances)
+        .forEach((pointer, count) -> expected.put(pointer, count * 2));
+    assertEquals(expected, counts(profile));
+
+    ValidationError foreign = new ValidationError();
+    foreign.setInstancePath(Arrays.asList());
+    foreign.setSchemaPath(Arrays.asList("nope"));
+    assertThrows(IllegalArgumentException.class, () -> profile.accept(foreign));
+  }
+
+  @Test
+  public void testConcurrent() throws Exception {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson(SCHEMA, Schema.class).compile();
+    List<String> instances = instances();
+
+    Validator validator = Validator.builder().setParallelThreshold(2).build();
+    ValidationProfile profile = new ValidationProfile(schema);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(() -> {
+          ValidationContext context = validator.newContext();
+          for (String instance : instances) {
+            context.validate(schema, gson.fromJson(instance, JsonElement.class), profile);
+          }
+          return null;
+        }));
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    Map<String, Long> expected = new HashMap<>();
+    expectedCounts(validator, schema, instances).forEach((pointer, count) -> expected.put(pointer, count * 4));
+    assertEquals(expected, counts(profile));
+    for (ProfileEntry entry : profile.report()) {
+      assertEquals(Math.min(3, entry.getCount()), entry.getSampleInstancePointers().size());
+    }
+  }
+}
@@ -1,18 +1,31 @@
 package io.jddf.gson;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
@@ -20,28 +33,637 @@ import org.junit.jupiter.api.TestFactory;
 
 public class ValidatorTest {
   @Test
-  public void testMaxDepth() {
+  public void testMaxDepth() throws InvalidSchemaException {
     Gson gson = new Gson();
     Schema schema = gson.fromJson("{\"definitions\": {\"x\": {\"ref\": \"x\"}}, \"ref\": \"x\"}", Schema.class);
 
+    Validator validator = Validator.builder().setMaxDepth(3).build();
+    assertThrows(MaxDepthExceededException.class, () -> validator.validate(schema, (JsonElement) null));
+    assertThrows(MaxDepthExceededException.class, () -> validator.isValid(schema, null));
+
+    CompiledSchema specialized = schema.compile().specialize();
+    assertThrows(MaxDepthExceededException.class, () -> validator.validate(specialized, (JsonElement) null));
+    assertThrows(MaxDepthExceededException.class, () -> validator.isValid(specialized, null));
+  }
+
+  @Test
+  public void testRefLoops() throws InvalidSchemaException, ValidationLimitExceededException {
+    Gson gson = new Gson();
+    CompiledSchema loop = gson
+        .fromJson("{\"definitions\": {\"x\": {\"ref\": \"x\"}}, \"elements\": {\"ref\": \"x\"}}", Schema.class)
+        .compile();
+
+    // Without a max depth, loops are still caught, but only once reached.
     Validator validator = new Validator();
-    validator.setMaxDepth(3);
-    assertThrows(MaxDepthExceededException.class, () -> validator.validate(schema, null));
+    JsonElement instance = gson.fromJson("[null]", JsonElement.class);
+    assertTrue(validator.validate(loop, gson.fromJson("[]", JsonElement.class)).isEmpty());
+    assertThrows(MaxDepthExceededException.class, () -> validator.validate(loop, instance));
+    assertThrows(MaxDepthExceededException.class, () -> validator.isValid(loop, instance));
+    assertThrows(MaxDepthExceededException.class,
+        () -> validator.validate(loop, new JsonReader(new StringReader("[null]"))));
+    assertThrows(MaxDepthExceededException.class, () -> validator.validate(loop.specialize(), instance));
+    assertThrows(MaxDepthExceededException.class, () -> validator.isValid(loop.specialize(), instance));
+
+    // Recursion which consumes the instance is unbounded without a max depth.
+    CompiledSchema tree = gson.fromJson("{\"definitions\": {\"x\": {\"elements\": {\"ref\": \"x\"}}}, \"ref\": \"x\"}",
+        Schema.class).compile();
+    JsonArray deep = new JsonArray();
+    JsonArray leaf = deep;
+    for (int i = 0; i < 100; i++) {
+      JsonArray child = new JsonArray();
+      leaf.add(child);
+      leaf = child;
+    }
+
+    assertTrue(validator.validate(tree, deep).isEmpty());
+    assertTrue(validator.validate(tree.specialize(), deep).isEmpty());
+    assertThrows(MaxDepthExceededException.class,
+        () -> Validator.builder().setMaxDepth(50).build().validate(tree, deep));
   }
 
   @Test
-  public void testMaxErrors() throws MaxDepthExceededException {
+  public void testMaxErrors() throws ValidationLimitExceededException {
     Gson gson = new Gson();
     Schema schema = gson.fromJson("{\"elements\": {\"type\": \"string\"}}", Schema.class);
     JsonElement instance = gson.fromJson("[1, 1, 1, 1, 1]", JsonElement.class);
 
-    Validator validator = new Validator();
-    validator.setMaxErrors(3);
+    Validator validator = Validator.builder().setMaxErrors(3).build();
     assertEquals(3, validator.validate(schema, instance).size());
   }
 
+  @Test
+  public void testPropertiesOrder() throws InvalidSchemaException, ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson("{\"properties\": {\"name\": {\"type\": \"string\"}, "
+        + "\"age\": {\"type\": \"uint32\"}, \"phones\": {\"elements\": {\"type\": \"string\"}}}, "
+        + "\"optionalProperties\": {\"email\": {\"type\": \"string\"}}}", Schema.class).compile();
+
+    // Errors are returned in the order of the schema, whatever the order of
+    // the members, with members not in the schema last.
+    List<String> expected = Arrays.asList("/properties/name", "/properties/age/type",
+        "/properties/phones/elements/type", "/optionalProperties/email/type", "");
+    for (String json : Arrays.asList("{\"age\": \"43\", \"phones\": [\"a\", 4], \"email\": 1, \"x\": 1}",
+        "{\"x\": 1, \"email\": 1, \"phones\": [\"a\", 4], \"age\": \"43\"}",
+        "{\"phones\": [\"a\", 4], \"x\": 1, \"age\": \"43\", \"email\": 1}")) {
+      JsonElement instance = gson.fromJson(json, JsonElement.class);
+      byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+      for (int maxErrors = 0; maxErrors <= expected.size(); maxErrors++) {
+        Validator validator = Validator.builder().setMaxErrors(maxErrors).build();
+        List<String> prefix = expected.subList(0, maxErrors == 0 ? expected.size() : maxErrors);
+
+        assertEquals(prefix, schemaPointers(validator.validate(schema, instance)));
+        assertEquals(prefix, schemaPointers(validator.validate(schema.specialize(), instance)));
+        assertEquals(prefix, schemaPointers(validator.validate(schema, bytes)));
+      }
+    }
+  }
+
+  private static List<String> schemaPointers(List<ValidationError> errors) {
+    List<String> pointers = new ArrayList<>();
+    for (ValidationError error : errors) {
+      pointers.add(error.getSchemaPointer());
+    }
+
+    return pointers;
+  }
+
+  @Test
+  public void testBuilder() {
+    Validator validator = Validator.builder().setMaxDepth(1).setMaxErrors(2).setParallelThreshold(3).build();
+    assertEquals(1, validator.getMaxDepth());
+    assertEquals(2, validator.getMaxErrors());
+    assertEquals(3, validator.getParallelThreshold());
+
+    assertEquals(validator, validator.toBuilder().build());
+    assertEquals(new Validator(), Validator.builder().build());
+    assertEquals(4, validator.toBuilder().setMaxErrors(4).build().getMaxErrors());
+    assertEquals(2, validator.getMaxErrors());
+  }
+
+  @Test
+  public void testContext() throws InvalidSchemaException, ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson(
+        "{\"definitions\": {\"x\": {\"ref\": \"x\"}}, \"properties\": {\"a\": {\"elements\": {\"type\": \"string\"}}}, \"optionalProperties\": {\"b\": {\"ref\": \"x\"}}}",
+        Schema.class).compile();
+    JsonElement valid = gson.fromJson("{\"a\": [\"x\", \"y\"]}", JsonElement.class);
+    JsonElement invalid = gson.fromJson("{\"a\": [1, 2, 3]}", JsonElement.class);
+    JsonElement tooDeep = gson.fromJson("{\"a\": [], \"b\": null}", JsonElement.class);
+
+    Validator validator = Validator.builder().setMaxDepth(3).setMaxErrors(2).build();
+    ValidationContext context = validator.newContext();
+
+    // Each call must be unaffected by whatever the previous call left behind,
+    // including calls which stopped early or threw.
+    for (int i = 0; i < 3; i++) {
+      assertEquals(validator.validate(schema, valid), context.validate(schema, valid));
+      assertEquals(validator.validate(schema, invalid), context.validate(schema, invalid));
+      assertThrows(MaxDepthExceededException.class, () -> context.validate(schema, tooDeep));
+      assertEquals(validator.validate(schema, invalid),
+          context.validate(schema, new JsonReader(new StringReader(invalid.toString()))));
+    }
+
+    // The errors returned belong to the caller, and are not disturbed by later
+    // calls.
+    List<ValidationError> errors = context.validate(schema, invalid);
+    context.validate(schema, valid);
+    assertEquals(validator.validate(schema, invalid), errors);
+  }
+
+  @Test
+  public void testPointers() throws ValidationLimitExceededException {
+    Gson gson = new Gson();
+    Schema schema = gson.fromJson("{\"values\": {\"elements\": {\"type\": \"string\"}}}", Schema.class);
+    JsonElement instance = gson.fromJson("{\"a/b~c\": [\"\", 1]}", JsonElement.class);
+
+    List<ValidationError> errors = new Validator().validate(schema, instance);
+    assertEquals(1, errors.size());
+    assertEquals(Arrays.asList("a/b~c", "1"), errors.get(0).getInstancePath());
+    assertEquals("/a~1b~0c/1", errors.get(0).getInstancePointer());
+    assertEquals("/values/elements/type", errors.get(0).getSchemaPointer());
+  }
+
+  @Test
+  public void testStreamMaxErrors() throws ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    Schema schema = gson.fromJson("{\"elements\": {\"elements\": {\"type\": \"string\"}}}", Schema.class);
+    JsonReader reader = new JsonReader(new StringReader("[[1, 1], [1, 1, 1]] [[\"next\"]]"));
+    reader.setLenient(true);
+
+    Validator validator = Validator.builder().setMaxErrors(3).build();
+    assertEquals(3, validator.validate(schema, reader).size());
+
+    // The rest of the first instance should have been skipped over.
+    assertEquals(0, validator.validate(schema, reader).size());
+    assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+  }
+
+  @Test
+  public void testBytes() throws InvalidSchemaException, ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson("{\"discriminator\": {\"tag\": \"k\u00e9y\", \"mapping\": {"
+        + "\"\u00e0\": {\"properties\": {\"t\": {\"type\": \"timestamp\"}, \"e\": {\"enum\": [\"\ud83d\ude00\", \"b\"]}}, "
+        + "\"optionalProperties\": {\"n\": {\"values\": {\"type\": \"int8\"}}}}}}}", Schema.class).compile();
+
+    List<String> instances = Arrays.asList("{\"e\": \"\ud83d\ude00\", \"t\": \"1985-04-12T23:20:50.52Z\", \"k\u00e9y\": \"\u00e0\"}",
+        "{\"e\": \"\\ud83d\\ude00\", \"k\\u00e9y\": \"\\u00e0\", \"t\": \"1985-04-12T23:20:50.52Z\"}",
+        "{\"k\u00e9y\": \"\u00e0\", \"e\": \"c\", \"t\": \"\u00e9\", \"n\": {\"x\\\"\": 1.5, \"\u00ff\": 1e2, \"z\": -129}, \"\u00e1\": null}",
+        "{\"k\u00e9y\": \"b\"}", "{\"k\u00e9y\": 1}", "{}", "[]");
+
+    Validator validator = new Validator();
+    ValidationContext context = validator.newContext();
+    for (String json : instances) {
+      List<ValidationError> expected = validator.validate(schema, gson.fromJson(json, JsonElement.class));
+      byte[] bytes = (" " + json + "\n").getBytes(StandardCharsets.UTF_8);
+      assertEquals(expected, validator.validate(schema, bytes), json);
+
+      // Only the buffer's remaining bytes are read, and its position is left
+      // untouched.
+      ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+      direct.put((byte) '[').put(bytes).put((byte) ']').position(1).limit(1 + bytes.length);
+      assertEquals(expected, context.validate(schema, direct), json);
+      assertEquals(1, direct.position());
+    }
+
+    Validator maxErrors = Validator.builder().setMaxErrors(1).build();
+    String invalid = "{\"k\u00e9y\": \"\u00e0\", \"n\": {\"a\": [1, {}], \"b\": 1000}}";
+    assertEquals(maxErrors.validate(schema, gson.fromJson(invalid, JsonElement.class)),
+        maxErrors.validate(schema, invalid.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testBytesMalformed() throws InvalidSchemaException {
+    CompiledSchema schema = new Gson().fromJson("{\"values\": {}}", Schema.class).compile();
+
+    Validator validator = Validator.builder().setMaxErrors(1).build();
+    for (String json : Arrays.asList("", "{", "{\"a\": 1,}", "{\"a\" 1}", "{\"a\": 01}", "{\"a\": 1.}",
+        "{\"a\": tru}", "{\"a\": \"\\x\"}", "{\"a\": \"\t\"}", "{} {}", "[1] x", "{\"a\": [1, {]}")) {
+      assertThrows(IOException.class, () -> validator.validate(schema, json.getBytes(StandardCharsets.UTF_8)), json);
+    }
+
+    // Invalid UTF-8: a lone continuation byte, an overlong encoding, and an
+    // encoded surrogate.
+    for (byte[] string : Arrays.asList(new byte[] { (byte) 0x80 }, new byte[] { (byte) 0xc0, (byte) 0xaf },
+        new byte[] { (byte) 0xed, (byte) 0xa0, (byte) 0x80 })) {
+      ByteBuffer bytes = ByteBuffer.allocate(string.length + 10);
+      bytes.put("{\"a\": \"".getBytes(StandardCharsets.UTF_8)).put(string).put("\"}".getBytes(StandardCharsets.UTF_8))
+          .flip();
+      assertThrows(IOException.class, () -> validator.validate(schema, bytes));
+    }
+  }
+
+  @Test
+  public void testParallel() throws InvalidSchemaException, ValidationLimitExceededException {
+    Gson gson = new Gson();
+    Schema schema = gson.fromJson(
+        "{\"elements\": {\"properties\": {\"a\": {\"type\": \"uint8\"}, \"b\": {\"values\": {\"type\": \"string\"}}}}}",
+        Schema.class);
+
+    JsonArray instance = new JsonArray();
+    for (int i = 0; i < 1000; i++) {
+      JsonObject element = new JsonObject();
+      if (i % 11 != 0) {
+        element.addProperty("a", i % 7 == 0 ? 256 : 255);
+      }
+
+      JsonObject b = new JsonObject();
+      for (int j = 0; j < 50; j++) {
+        if (i % 13 == 0 && j % 5 == 0) {
+          b.addProperty("key" + j, j);
+        } else {
+          b.addProperty("key" + j, "value");
+        }
+      }
+      element.add("b", b);
+
+      instance.add(element);
+    }
+
+    Validator sequential = new Validator();
+    Validator parallel = Validator.builder().setParallelThreshold(10).build();
+
+    for (CompiledSchema compiled : Arrays.asList(schema.compile(), schema.compile().specialize())) {
+      List<ValidationError> expected = sequential.validate(compiled, instance);
+      assertEquals(expected, parallel.validate(compiled, instance));
+
+      // Errors must come back in the same order, so the same subset of them is
+      // returned when the max errors is reached.
+      for (int maxErrors = 1; maxErrors < expected.size() + 2; maxErrors += 17) {
+        assertEquals(sequential.toBuilder().setMaxErrors(maxErrors).build().validate(compiled, instance),
+            parallel.toBuilder().setMaxErrors(maxErrors).build().validate(compiled, instance));
+      }
+    }
+  }
+
+  @Test
+  public void testParallelSink() throws InvalidSchemaException, ValidationLimitExceededException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson("{\"elements\": {\"type\": \"uint8\"}}", Schema.class).compile();
+
+    JsonArray instance = new JsonArray();
+    for (int i = 0; i < 10000; i++) {
+      instance.add(256);
+    }
+
+    // A sink sees the same errors with or without a parallel threshold, and
+    // stopping it stops validation at once, rather than once every chunk has
+    // been validated.
+    List<Long> visited = new ArrayList<>();
+    Validator validator = Validator.builder().setParallelThreshold(100)
+        .setListener((compiled, stats) -> visited.add(stats.getNodes())).build();
+
+    List<ValidationError> errors = new ArrayList<>();
+    validator.validate(schema, instance, errors::add);
+    assertEquals(new Validator().validate(schema, instance), errors);
+
+    errors.clear();
+    validator.validate(schema, instance, error -> errors.add(error) && errors.size() < 3);
+    assertEquals(3, errors.size());
+    assertEquals(Arrays.asList(10001L, 4L), visited);
+  }
+
+  @Test
+  public void testParallelMaxDepth() throws InvalidSchemaException {
+    Gson gson = new Gson();
+    Schema schema = gson.fromJson("{\"definitions\": {\"x\": {\"ref\": \"x\"}}, \"elements\": {\"ref\": \"x\"}}",
+        Schema.class);
+
+    JsonArray instance = new JsonArray();
+    for (int i = 0; i < 100; i++) {
+      instance.add(i);
+    }
+
+    Validator validator = Validator.builder().setMaxDepth(3).setParallelThreshold(10).build();
+    assertThrows(MaxDepthExceededException.class, () -> validator.validate(schema.compile(), instance));
+  }
+
+  @Test
+  public void testMaxNodes() throws InvalidSchemaException, ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    CompiledSchema compiled = gson.fromJson("{\"elements\": {\"type\": \"string\"}}", Schema.class).compile();
+    CompiledSchema specialized = compiled.specialize();
+
+    // Validating 100 strings visits 101 nodes.
+    JsonArray instance = new JsonArray();
+    List<Object> objects = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      instance.add("x");
+      objects.add("x");
+    }
+    String json = instance.toString();
+
+    for (Validator validator : Arrays.asList(Validator.builder().setMaxNodes(101).build(),
+        Validator.builder().setMaxNodes(101).setParallelThreshold(7).build())) {
+      ValidationContext context = validator.newContext();
+      assertTrue(context.validate(compiled, instance).isEmpty());
+      assertTrue(context.validate(specialized, instance).isEmpty());
+      assertTrue(context.validate(compiled, objects, InstanceAccessor.javaObjects()).isEmpty());
+      assertTrue(context.validate(compiled, new JsonReader(new StringReader(json))).isEmpty());
+      assertTrue(context.validate(compiled, ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8))).isEmpty());
+      assertTrue(validator.isValid(compiled, instance));
+      assertTrue(validator.isValid(compiled, objects, InstanceAccessor.javaObjects()));
+
+      Validator limited = validator.toBuilder().setMaxNodes(100).build();
+      ValidationContext limitedContext = limited.newContext();
+      assertThrows(MaxNodesExceededException.class, () -> limitedContext.validate(compiled, instance));
+      assertFalse(assertThrows(ValidationLimitExceededException.class,
+          () -> limitedContext.validate(compiled, instance)) instanceof MaxDepthExceededException);
+      assertThrows(MaxNodesExceededException.class, () -> limitedContext.validate(specialized, instance));
+      assertThrows(MaxNodesExceededException.class,
+          () -> limitedContext.validate(compiled, objects, InstanceAccessor.javaObjects()));
+      assertThrows(MaxNodesExceededException.class,
+          () -> limitedContext.validate(compiled, new JsonReader(new StringReader(json))));
+      assertThrows(MaxNodesExceededException.class,
+          () -> limitedContext.validate(compiled, ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8))));
+      assertThrows(MaxNodesExceededException.class, () -> limited.isValid(compiled, instance));
+      assertThrows(MaxNodesExceededException.class, () -> limited.isValid(specialized, instance));
+
+      // The budget is for each validation, not for the context.
+      assertTrue(limitedContext.validate(compiled, new JsonArray()).isEmpty());
+    }
+
+    // Chunks share the budget, so it bounds the work of a parallel validation
+    // too, however many chunks there are.
+    JsonArray large = new JsonArray();
+    for (int i = 0; i < 100000; i++) {
+      large.add("x");
+    }
+
+    Validator parallel = Validator.builder().setMaxNodes(10000).setParallelThreshold(1000).build();
+    List<Long> visited = new ArrayList<>();
+    Validator measured = parallel.toBuilder().setListener((schema, stats) -> visited.add(stats.getNodes())).build();
+    assertThrows(MaxNodesExceededException.class, () -> measured.validate(compiled, large));
+    assertThrows(MaxNodesExceededException.class, () -> parallel.validate(specialized, large));
+    assertTrue(visited.isEmpty());
+    assertTrue(parallel.toBuilder().setMaxNodes(100001).build().validate(compiled, large).isEmpty());
+  }
+
+  @Test
+  public void testTimeout() throws InvalidSchemaException, ValidationLimitExceededException {
+    Gson gson = new Gson();
+    CompiledSchema compiled = gson.fromJson("{\"elements\": {\"type\": \"string\"}}", Schema.class).compile();
+    CompiledSchema specialized = compiled.specialize();
+
+    JsonArray large = new JsonArray();
+    for (int i = 0; i < 100000; i++) {
+      large.add("x");
+    }
+
+    for (Validator validator : Arrays.asList(Validator.builder().setTimeout(1).build(),
+        Validator.builder().setTimeout(1).setParallelThreshold(1000).build())) {
+      assertThrows(TimeoutExceededException.class, () -> validator.validate(compiled, large));
+      assertThrows(TimeoutExceededException.class, () -> validator.validate(specialized, large));
+      assertThrows(TimeoutExceededException.class, () -> validator.isValid(compiled, large));
+
+      // Small validations never read the clock, and so never time out.
+      JsonArray small = new JsonArray();
+      small.add("x");
+      assertTrue(validator.validate(compiled, small).isEmpty());
+
+      Validator patient = validator.toBuilder().setTimeout(TimeUnit.MINUTES.toNanos(1)).build();
+      assertTrue(patient.validate(compiled, large).isEmpty());
+      assertTrue(patient.validate(specialized, large).isEmpty());
+    }
+  }
+
+  @Test
+  public void testErrorSink() throws InvalidSchemaException, ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson(
+        "{\"elements\": {\"properties\": {\"a\": {\"type\": \"uint8\"}}, \"optionalProperties\": {\"b\": {\"enum\": [\"x\"]}}}}",
+        Schema.class).compile();
+
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 100; i++) {
+      json.append(i == 0 ? "" : ", ").append(i % 3 == 0 ? "{\"b\": \"y\"}" : "{\"a\": " + (i * 5) + "}");
+    }
+    String instance = json.append("]").toString();
+    byte[] bytes = instance.getBytes(StandardCharsets.UTF_8);
+    JsonElement element = gson.fromJson(instance, JsonElement.class);
+
+    for (Validator validator : Arrays.asList(new Validator(), Validator.builder().setParallelThreshold(7).build())) {
+      List<ValidationError> expected = validator.validate(schema, element);
+
+      List<ValidationError> errors = new ArrayList<>();
+      validator.validate(schema, element, errors::add);
+      assertEquals(expected, errors);
+
+      errors.clear();
+      validator.newContext().validate(schema, ByteBuffer.wrap(bytes), errors::add);
+      assertEquals(expected, errors);
+
+      // Stopping early must pass on exactly the errors a max errors would
+      // have returned, and still consume the whole instance.
+      for (int limit = 1; limit < expected.size(); limit += 9) {
+        int max = limit;
+        List<ValidationError> some = new ArrayList<>();
+        ErrorSink sink = error -> some.add(error) && some.size() < max;
+
+        validator.validate(schema, element, sink);
+        assertEquals(validator.toBuilder().setMaxErrors(max).build().validate(schema, element), some);
+
+        some.clear();
+        JsonReader reader = new JsonReader(new StringReader(instance + " 1"));
+        reader.setLenient(true);
+        validator.validate(schema, reader, sink);
+        assertEquals(max, some.size());
+        assertEquals(1, reader.nextInt());
+
+        some.clear();
+        validator.validate(schema, ByteBuffer.wrap(bytes), sink);
+        assertEquals(validator.toBuilder().setMaxErrors(max).build().validate(schema, bytes), some);
+      }
+
+      // The max errors of the validator still applies.
+      errors.clear();
+      validator.toBuilder().setMaxErrors(5).build().validate(schema, element, errors::add);
+      assertEquals(5, errors.size());
+    }
+  }
+
+  @Test
+  public void testValidateAll() throws ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    Schema schema = gson.fromJson("{\"properties\": {\"id\": {\"type\": \"uint32\"}}}", Schema.class);
+
+    // Enough records for several chunks to be in flight at once, with some blank
+    // lines thrown in.
+    StringBuilder ndjson = new StringBuilder();
+    List<JsonElement> instances = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      String record = i % 7 == 0 ? "{\"id\": \"" + i + "\"}" : "{\"id\": " + i + "}";
+      ndjson.append(record).append(i % 100 == 0 ? "\n\n" : "\r\n");
+      instances.add(gson.fromJson(record, JsonElement.class));
+    }
+
+    Validator validator = new Validator();
+    List<RecordResult> results = new ArrayList<>();
+    BatchSummary summary = validator.validateAll(schema, new StringReader(ndjson.toString()), results::add);
+
+    assertEquals(10000, summary.getRecords());
+    assertEquals(1429, summary.getInvalidRecords());
+    assertEquals(10000, results.size());
+
+    long lineNumber = 1;
+    for (int i = 0; i < results.size(); i++) {
+      RecordResult result = results.get(i);
+      assertEquals(i, result.getIndex());
+      assertEquals(lineNumber, result.getLineNumber());
+      assertEquals(validator.validate(schema, instances.get(i)), result.getErrors());
+
+      lineNumber += i % 100 == 0 ? 2 : 1;
+    }
+
+    List<RecordResult> elementResults = new ArrayList<>();
+    summary = validator.validateAll(schema, instances, elementResults::add);
+
+    assertEquals(10000, summary.getRecords());
+    assertEquals(1429, summary.getInvalidRecords());
+    for (int i = 0; i < elementResults.size(); i++) {
+      assertEquals(i, elementResults.get(i).getIndex());
+      assertEquals(0, elementResults.get(i).getLineNumber());
+      assertEquals(results.get(i).getErrors(), elementResults.get(i).getErrors());
+    }
+  }
+
+  @Test
+  public void testValidateAllFile() throws InvalidSchemaException, ValidationLimitExceededException, IOException {
+    Gson gson = new Gson();
+    CompiledSchema schema = gson.fromJson("{\"properties\": {\"id\": {\"type\": \"uint32\"}, \"name\": {}}}",
+        Schema.class).compile();
+
+    // Lines of varying lengths, some blank, and some with multi-byte
+    // characters, so that lines fall across segment boundaries in many ways.
+    StringBuilder ndjson = new StringBuilder();
+    List<Long> offsets = new ArrayList<>();
+    List<Long> lineNumbers = new ArrayList<>();
+    List<JsonElement> instances = new ArrayList<>();
+    long lineNumber = 1;
+    for (int i = 0; i < 3000; i++) {
+      StringBuilder name = new StringBuilder();
+      for (int j = 0; j < i % 13; j++) {
+        name.append("\u00e9");
+      }
+
+      String record = "{\"id\": " + (i % 7 == 0 ? -i : i) + ", \"name\": \"" + name + "\"}";
+      offsets.add((long) ndjson.toString().getBytes(StandardCharsets.UTF_8).length);
+      lineNumbers.add(lineNumber);
+      instances.add(gson.fromJson(record, JsonElement.class));
+
+      ndjson.append(record).append(i % 100 == 0 ? "\n \r\n" : "\r\n");
+      lineNumber += i % 100 == 0 ? 2 : 1;
+    }
+
+    java.nio.file.Path file = Files.createTempFile("jddf-gson", ".ndjson");
+    try {
+      Files.write(file, ndjson.toString().getBytes(StandardCharsets.UTF_8));
+
+      Validator validator = new Validator();
+      for (int segmentSize : Arrays.asList(Pipeline.SEGMENT_SIZE, 100, 1000, 4096)) {
+        List<RecordResult> results = new ArrayList<>();
+        BatchSummary summary;
+        try (FileChannel channel = FileChannel.open(file)) {
+          summary = new Pipeline(validator, schema, results::add).run(channel, segmentSize);
+        }
+
+        assertEquals(3000, summary.getRecords());
+        assertEquals(428, summary.getInvalidRecords());
+        for (int i = 0; i < results.size(); i++) {
+          RecordResult result = results.get(i);
+          assertEquals(i, result.getIndex());
+          assertEquals((long) lineNumbers.get(i), result.getLineNumber());
+          assertEquals((long) offsets.get(i), result.getByteOffset());
+          assertEquals(validator.validate(schema, instances.get(i)), result.getErrors());
+        }
+      }
+
+      try (FileChannel channel = FileChannel.open(file)) {
+        IOException e = assertThrows(IOException.class,
+            () -> new Pipeline(validator, schema, result -> {
+            }).run(channel, 40));
+        assertTrue(e.getMessage().endsWith(" is longer than 40 bytes"));
+      }
+
+      // A malformed line is reported, with its position, and the lines after it
+      // are still validated.
+      Files.write(file,
+          "{\"id\": 1, \"name\": null}\n\n{\"id\": 2,}\n{\"id\": -3, \"name\": 3}\n".getBytes(StandardCharsets.UTF_8));
+      try (FileChannel channel = FileChannel.open(file)) {
+        List<RecordResult> results = new ArrayList<>();
+        BatchSummary summary = validator.validateAll(schema, channel, results::add);
+
+        assertEquals(3, summary.getRecords());
+        assertEquals(2, summary.getInvalidRecords());
+        assertTrue(results.get(0).isValid());
+        assertTrue(results.get(1).isMalformed());
+        assertEquals(3, results.get(1).getLineNumber());
+        assertEquals(25, results.get(1).getByteOffset());
+        assertTrue(results.get(1).getErrors().isEmpty());
+        assertEquals(4, results.get(2).getLineNumber());
+        assertEquals(1, results.get(2).getErrors().size());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testValidateAllMalformed() throws IOException {
+    Gson gson = new Gson();
+    Schema schema = gson.fromJson("{\"elements\": {}}", Schema.class);
+
+    Validator validator = new Validator();
+    List<RecordResult> results = new ArrayList<>();
+    BatchSummary summary = validator.validateAll(schema, new StringReader("[]\n[]\n[] []\n[\n[]"), results::add);
+
+    assertEquals(5, summary.getRecords());
+    assertEquals(2, summary.getInvalidRecords());
+    for (int i = 0; i < 5; i++) {
+      assertEquals(i + 1, results.get(i).getLineNumber());
+      assertEquals(i == 2 || i == 3, results.get(i).isMalformed());
+      assertEquals(i != 2 && i != 3, results.get(i).isValid());
+    }
+  }
+
+  @Test
+  public void testValidateAllLimitExceeded() throws IOException {
+    Gson gson = new Gson();
+    Schema schema = gson.fromJson("{\"elements\": {\"type\": \"uint8\"}}", Schema.class);
+
+    // The middle record visits more nodes than the validator allows.
+    List<JsonElement> instances = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      JsonArray instance = new JsonArray();
+      for (int j = 0; j < (i == 1 ? 100 : 10); j++) {
+        instance.add(i == 2 ? 256 : 1);
+      }
+
+      instances.add(instance);
+    }
+
+    Validator validator = Validator.builder().setMaxNodes(50).build();
+    StringBuilder ndjson = new StringBuilder();
+    for (JsonElement instance : instances) {
+      ndjson.append(instance).append("\n");
+    }
+
+    List<RecordResult> results = new ArrayList<>();
+    BatchSummary summary = validator.validateAll(schema, new StringReader(ndjson.toString()), results::add);
+    validator.validateAll(schema, instances, results::add);
+
+    assertEquals(3, summary.getRecords());
+    assertEquals(2, summary.getInvalidRecords());
+    for (int i = 0; i < 6; i++) {
+      RecordResult result = results.get(i);
+      assertEquals(i % 3 == 1, result.isLimitExceeded());
+      assertEquals(i % 3 == 1, result.getFailure() instanceof MaxNodesExceededException);
+      assertEquals(i % 3 == 2 ? 10 : 0, result.getErrors().size());
+    }
+  }
+
   @TestFactory
-  public List<DynamicTest> testSpec() throws UnsupportedEncodingException, MaxDepthExceededException {
+  public List<DynamicTest> testSpec() throws UnsupportedEncodingException, ValidationLimitExceededException {
     List<DynamicTest> tests = new ArrayList<>();
     tests.addAll(this.testSpecFile("spec/tests/validation/001-empty.json"));
     tests.addAll(this.testSpecFile("spec/tests/validation/002-ref.json"));
@@ -84,11 +706,34 @@ public class ValidatorTest {
           }
 
           List<ValidationError> actual = validator.validate(suite.schema, testCase.instance);
+          List<ValidationError> actualCompiled = validator.validate(suite.schema.compile(), testCase.instance);
+          List<ValidationError> actualSpecialized = validator.validate(suite.schema.compile().specialize(),
+              testCase.instance);
+          List<ValidationError> actualStream = validator.validate(suite.schema,
+              new JsonReader(new StringReader(testCase.instance.toString())));
+
+          // The specialized checks are a second copy of the interpreter's
+          // rules, so hold them to the same error order and not just the same
+          // set of errors.
+          assertEquals(actualCompiled, actualSpecialized);
+          for (int maxErrors = 1; maxErrors <= 3; maxErrors++) {
+            Validator limited = Validator.builder().setMaxErrors(maxErrors).build();
+            assertEquals(limited.validate(suite.schema.compile(), testCase.instance),
+                limited.validate(suite.schema.compile().specialize(), testCase.instance));
+          }
 
           expected.sort((e1, e2) -> String.join("", e1.getSchemaPath()).compareTo(String.join("", e2.getSchemaPath())));
           actual.sort((e1, e2) -> String.join("", e1.getSchemaPath()).compareTo(String.join("", e2.getSchemaPath())));
+          actualCompiled.sort((e1, e2) -> String.join("", e1.getSchemaPath()).compareTo(String.join("", e2.getSchemaPath())));
+          actualSpecialized.sort((e1, e2) -> String.join("", e1.getSchemaPath()).compareTo(String.join("", e2.getSchemaPath())));
+          actualStream.sort((e1, e2) -> String.join("", e1.getSchemaPath()).compareTo(String.join("", e2.getSchemaPath())));
 
           assertEquals(expected, actual);
+          assertEquals(expected, actualCompiled);
+          assertEquals(expected, actualSpecialized);
+          assertEquals(expected, actualStream);
+          assertEquals(expected.isEmpty(), validator.isValid(suite.schema, testCase.instance));
+          assertEquals(expected.isEmpty(), validator.isValid(suite.schema.compile().specialize(), testCase.instance));
         }));
 
         index++;